@@ -47,6 +47,8 @@ dependencies {
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
 
 	implementation("com.google.guava:guava:33.6.0-jre")
+	// Bytecode generation of compiled rules
+	implementation("org.ow2.asm:asm:9.8")
 	implementation("org.apache.commons:commons-lang3")
 	// Runtime validation alternative...
 	implementation("org.assertj:assertj-core:3.27.7")
@@ -102,6 +102,16 @@ Create command arguments
 {{- if .Values.nexusRepositoryCleanup.dryRun }}
 {{- $args = append $args "--dry-run" }}
 {{- end }}
+{{- if gt (int .Values.sharding.shardCount) 1 }}
+{{- $args = append $args "--shard-count" }}
+{{- $args = append $args (toString .Values.sharding.shardCount) }}
+{{- $args = append $args "--shard-index" }}
+{{- $args = append $args "$(JOB_COMPLETION_INDEX)" }}
+{{- if .Values.sharding.weightsFile }}
+{{- $args = append $args "--shard-weights" }}
+{{- $args = append $args .Values.sharding.weightsFile }}
+{{- end }}
+{{- end }}
 {{- if .Values.nexusRepositoryCleanup.otherArguments }}
 {{- $otherArgs := splitList " " .Values.nexusRepositoryCleanup.otherArguments }}
 {{- $args = concat $args $otherArgs }}
@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -146,6 +147,55 @@ public final class CleanupRuleParser {
         // Validate date filters
         validateDateFilter(filters.getUpdated(), "updated", rule.getName());
         validateDownloadedFilter(filters.getDownloaded(), rule.getName());
+
+        // Validate size filters
+        validateSizeFilters(filters.getMinSize(), filters.getMaxSize(), rule.getName());
+
+        // Validate retention
+        Integer retainLatest = filters.getRetainLatest();
+        if (retainLatest != null) {
+            if (retainLatest < 1) {
+                throw new IllegalArgumentException("Invalid retainLatest filter in rule '" + rule.getName() +
+                        "': must be at least 1");
+            }
+            if (!"delete".equalsIgnoreCase(action)) {
+                throw new IllegalArgumentException("Rule '" + rule.getName() +
+                        "': retainLatest is only supported by delete rules");
+            }
+        }
+
+        // Validate regular expression patterns
+        validatePatterns(filters.getRepositories(), "repositories", rule.getName());
+        validatePatterns(filters.getFormats(), "formats", rule.getName());
+        validatePatterns(filters.getGroups(), "groups", rule.getName());
+        validatePatterns(filters.getNames(), "names", rule.getName());
+        validatePatterns(filters.getVersions(), "versions", rule.getName());
+    }
+
+    /**
+     * Validates that the regular expressions of a pattern filter compile.
+     *
+     * @param patterns   The pattern filter value
+     * @param filterType The type of filter for error messages
+     * @param ruleName   The name of the rule being validated
+     * @throws IllegalArgumentException if a regular expression is invalid or not supported
+     */
+    private void validatePatterns(List<String> patterns, String filterType, String ruleName) {
+        if (patterns == null) {
+            return; // Optional filter
+        }
+
+        for (String pattern : patterns) {
+            if (!PatternSet.isRegex(pattern)) {
+                continue;
+            }
+            try {
+                LinearRegex.compile(pattern.substring(PatternSet.REGEX_PREFIX.length()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid " + filterType + " pattern in rule '" +
+                        ruleName + "': " + e.getMessage(), e);
+            }
+        }
     }
 
     /**
@@ -169,6 +219,23 @@ public final class CleanupRuleParser {
         }
     }
 
+    /**
+     * Validates the size filters (minSize and maxSize).
+     *
+     * @param minSize  The minSize filter value
+     * @param maxSize  The maxSize filter value
+     * @param ruleName The name of the rule being validated
+     * @throws IllegalArgumentException if a size filter or the size range is invalid
+     */
+    private void validateSizeFilters(String minSize, String maxSize, String ruleName) {
+        try {
+            SizeFilterParser.validateSizeRange(SizeFilterParser.parseSize(minSize), SizeFilterParser.parseSize(maxSize));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid size filter in rule '" +
+                    ruleName + "': " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Validates a downloaded filter (supports "never" in addition to date formats).
      *
@@ -199,6 +266,19 @@ public final class CleanupRuleParser {
      */
     @NonNull
     public static OffsetDateTime parseDownloadedFilter(@NonNull String downloadedFilter) {
+        return parseDownloadedFilter(downloadedFilter, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Parses the downloaded filter value, "days ago" values are relative to the given time.
+     *
+     * @param downloadedFilter The downloaded filter value
+     * @param now              The time "days ago" values are relative to
+     * @return OffsetDateTime for date values
+     * @throws IllegalArgumentException if the filter format is invalid or "never"
+     */
+    @NonNull
+    public static OffsetDateTime parseDownloadedFilter(@NonNull String downloadedFilter, @NonNull OffsetDateTime now) {
         Objects.requireNonNull(downloadedFilter, "Downloaded filter cannot be null");
 
         String trimmed = downloadedFilter.trim();
@@ -206,7 +286,7 @@ public final class CleanupRuleParser {
             throw new IllegalArgumentException("Use isNeverDownloaded() to check for 'never' value");
         }
 
-        return DateFilterParser.parseDate(trimmed);
+        return DateFilterParser.parseDate(trimmed, now);
     }
 
     /**
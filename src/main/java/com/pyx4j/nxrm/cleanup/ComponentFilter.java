@@ -1,7 +1,18 @@
 package com.pyx4j.nxrm.cleanup;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 import com.google.common.base.Strings;
@@ -9,6 +20,8 @@ import com.pyx4j.nxrm.cleanup.model.CleanupRule;
 import com.pyx4j.nxrm.cleanup.model.CleanupRuleSet;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.sonatype.nexus.model.AssetXO;
 import org.sonatype.nexus.model.ComponentXO;
 
@@ -17,57 +30,239 @@ import org.sonatype.nexus.model.ComponentXO;
  */
 final class ComponentFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(ComponentFilter.class);
+
+    static final int WARM_UP_COMPONENTS = 1_000;
+
+    private static final long NO_CUTOFF = Long.MIN_VALUE;
+
+    private static final long NO_MAX_SIZE = Long.MAX_VALUE;
+
     private final Predicate<ComponentXO> componentFilter;
-    private final List<String> repositoryPatterns;
+    @Nullable
+    private final PatternSet repositoryPatterns;
+    private final List<ParsedRule> rules;
+
+    private final OffsetDateTime parseTime;
+
+    private final RuleSetAnalyzer.Result analysis;
+
+    /**
+     * Rules applicable to each repository, resolved on first use of a repository name.
+     */
+    private final Map<String, RepositoryRules> rulesByRepository = new ConcurrentHashMap<>();
+
+    /**
+     * Rules without repository filter, they apply to components without repository name.
+     */
+    private final RepositoryRules unscopedRules;
+
+    /**
+     * Number of components evaluated with statistics before the checks and rules are reordered.
+     */
+    private final int warmUpComponents;
+
+    private final boolean compileRules;
+
+    /**
+     * Remembered group and name match results, shared by all rules.
+     */
+    private final PatternMatchCache matchCache;
+
+    /**
+     * Group and name pattern lists by source patterns, identical lists of different rules share their results.
+     */
+    private final Map<List<String>, PatternMatchCache.Patterns> memoizedPatterns = new HashMap<>();
 
     ComponentFilter(@NonNull CleanupRuleSet ruleSet) {
+        this(ruleSet, WARM_UP_COMPONENTS, PatternMatchCache.sizedFromHeap(), false);
+    }
+
+    /**
+     * @param matchCache Cache for group and name match results
+     */
+    ComponentFilter(@NonNull CleanupRuleSet ruleSet, @NonNull PatternMatchCache matchCache) {
+        this(ruleSet, WARM_UP_COMPONENTS, matchCache, false);
+    }
+
+    /**
+     * @param warmUpComponents Components evaluated per repository before reordering, 0 keeps the rule set order
+     */
+    ComponentFilter(@NonNull CleanupRuleSet ruleSet, int warmUpComponents) {
+        this(ruleSet, warmUpComponents, PatternMatchCache.sizedFromHeap(), false);
+    }
+
+    /**
+     * @param warmUpComponents Components evaluated per repository before reordering, 0 keeps the rule set order
+     * @param matchCache       Cache for group and name match results
+     * @param compileRules     Compile the rules of each repository to bytecode once their order is final, used to test
+     *                         single components only, false to always interpret them. The other constructors
+     *                         interpret the rules, the scan evaluates pages with {@link RepositoryFilter#select}.
+     */
+    ComponentFilter(@NonNull CleanupRuleSet ruleSet, int warmUpComponents, @NonNull PatternMatchCache matchCache,
+                    boolean compileRules) {
+        if (warmUpComponents < 0) {
+            throw new IllegalArgumentException("Warm-up components cannot be negative");
+        }
+        this.warmUpComponents = warmUpComponents;
+        this.compileRules = compileRules;
+        this.matchCache = Objects.requireNonNull(matchCache, "Match cache cannot be null");
         this.repositoryPatterns = extractRepositoryPatterns(ruleSet);
-        this.componentFilter = createFilter(ruleSet);
+        // All relative dates are resolved against the same time, so the analysis can compare cutoffs
+        this.parseTime = OffsetDateTime.now(ZoneOffset.UTC);
+        this.analysis = RuleSetAnalyzer.analyze(ruleSet.getRules().stream().filter(CleanupRule::isEnabled).toList(), parseTime);
+        for (RuleSetAnalyzer.Elimination elimination : analysis.eliminations()) {
+            log.debug("Rule '{}' is not evaluated: {}", elimination.rule(), elimination.reason());
+        }
+        this.rules = analysis.rules().stream()
+                .map(this::parseRule)
+                .toList();
+        this.unscopedRules = selectRules(null);
+        this.componentFilter = component -> component != null && getRules(component.getRepository()).test(component);
     }
 
+    /**
+     * Filter for the components of one repository, testing one component or a whole page.
+     */
+    public interface RepositoryFilter extends Predicate<ComponentXO> {
+
+        /**
+         * Selects the components to delete from a page.
+         *
+         * @param components The components of the page
+         * @return Indexes of the components to delete
+         */
+        @NonNull
+        default BitSet select(@NonNull List<ComponentXO> components) {
+            return select(ComponentPage.of(components));
+        }
+
+        /**
+         * Selects the components to delete from a transposed page.
+         *
+         * @param page The page, its columns are shared with the caller
+         * @return Indexes of the components to delete
+         */
+        @NonNull
+        BitSet select(@NonNull ComponentPage page);
+
+        /**
+         * @return true if delete rules with {@code retainLatest} apply to the repository
+         */
+        boolean hasRetentionRules();
+
+        /**
+         * Finds the retention rule of a component that is not selected for deletion.
+         *
+         * @param component A component not selected by {@link #select}
+         * @return The first matching delete rule with {@code retainLatest}, null if none matches or a keep rule matches
+         */
+        @Nullable
+        default Retention retention(@NonNull ComponentXO component) {
+            return retention(ComponentPage.of(List.of(component)), 0);
+        }
+
+        /**
+         * Finds the retention rule of a component of a page that is not selected for deletion.
+         *
+         * @param page  The page of the component
+         * @param index Index of a component not selected by {@link #select}
+         * @return The first matching delete rule with {@code retainLatest}, null if none matches or a keep rule matches
+         */
+        @Nullable
+        Retention retention(@NonNull ComponentPage page, int index);
+    }
+
+    /**
+     * A delete rule keeping the latest versions of each artifact, see {@link RetentionTracker}.
+     *
+     * @param rule         The rule name
+     * @param retainLatest Number of latest versions kept
+     */
+    public record Retention(@NonNull String rule, int retainLatest) {
+    }
+
+    /**
+     * Filter for components of any repository, the applicable rules are selected by the component repository name.
+     */
     public Predicate<ComponentXO> getComponentFilter() {
         return componentFilter;
     }
 
+    /**
+     * Filter for components of one repository. Only the rules applicable to the repository are evaluated
+     * and the repository patterns are not checked again for each component.
+     *
+     * @param repositoryName The name of the repository all tested components belong to
+     * @return Predicate returning true for components to delete
+     */
     @NonNull
-    private Predicate<ComponentXO> createFilter(@NonNull CleanupRuleSet ruleSet) {
-        List<ParsedRule> enabledRules = parseRules(ruleSet);
+    public RepositoryFilter getRepositoryFilter(@Nullable String repositoryName) {
+        return getRules(repositoryName);
+    }
 
-        return component -> {
-            if (component == null || component.getAssets() == null || component.getAssets().isEmpty()) {
-                return false;
-            }
+    private RepositoryRules getRules(@Nullable String repositoryName) {
+        if (Strings.isNullOrEmpty(repositoryName)) {
+            return unscopedRules;
+        }
+        return rulesByRepository.computeIfAbsent(repositoryName, this::selectRules);
+    }
+
+    /**
+     * Selects the keep and delete rules applicable to a repository, in rule set order.
+     */
+    private RepositoryRules selectRules(@Nullable String repositoryName) {
+        Predicate<ParsedRule> applicable = rule -> rule.repositories == null
+                || matchesAnyPattern(repositoryName, rule.repositories);
+        ParsedRule[] keepRules = rules.stream()
+                .filter(rule -> "keep".equals(rule.action))
+                .filter(applicable)
+                .toArray(ParsedRule[]::new);
+        ParsedRule[] deleteRules = rules.stream()
+                .filter(rule -> "delete".equals(rule.action) && rule.retention == null)
+                .filter(applicable)
+                .toArray(ParsedRule[]::new);
+        ParsedRule[] retentionRules = rules.stream()
+                .filter(rule -> "delete".equals(rule.action) && rule.retention != null)
+                .filter(applicable)
+                .toArray(ParsedRule[]::new);
+        log.debug("Repository {}: {} keep rules, {} delete rules and {} retention rules apply", repositoryName,
+                keepRules.length, deleteRules.length, retentionRules.length);
+        return new RepositoryRules(repositoryName, keepRules, deleteRules, retentionRules, warmUpComponents, compileRules);
+    }
 
-            // Split rules by action
-            List<ParsedRule> deleteRules = enabledRules.stream()
-                    .filter(rule -> "delete".equals(rule.action))
-                    .toList();
-            List<ParsedRule> keepRules = enabledRules.stream()
-                    .filter(rule -> "keep".equals(rule.action))
-                    .toList();
+    /**
+     * @return Cache of group and name match results, with its hit rate
+     */
+    @NonNull
+    PatternMatchCache getMatchCache() {
+        return matchCache;
+    }
 
-            // Check if any keep rule matches - if so, component should not be deleted
-            boolean matchesKeepRule = keepRules.stream()
-                    .anyMatch(rule -> matchesRule(component, rule));
-            if (matchesKeepRule) {
-                return false;
-            }
+    /**
+     * Describes the order in which rules and their checks are evaluated for a repository.
+     *
+     * @param repositoryName The repository name
+     * @return Keep rules then delete rules, each with its checks in evaluation order
+     */
+    @NonNull
+    String describeEvaluationOrder(@Nullable String repositoryName) {
+        return getRules(repositoryName).describe();
+    }
 
-            // Check if any delete rule matches
-            return deleteRules.stream()
-                    .anyMatch(rule -> matchesRule(component, rule));
-        };
+    /**
+     * @return true if the rules of the repository run as generated bytecode
+     */
+    boolean isCompiled(@Nullable String repositoryName) {
+        return getRules(repositoryName).isCompiled();
     }
 
     /**
-     * Parses the rules from a rule set, creating ParsedRule objects with precompiled patterns and dates.
+     * @return Enabled rules removed from evaluation by the rule set analysis, with the reason
      */
     @NonNull
-    private List<ParsedRule> parseRules(@NonNull CleanupRuleSet ruleSet) {
-        return ruleSet.getRules().stream()
-                .filter(CleanupRule::isEnabled)
-                .map(this::parseRule)
-                .toList();
+    List<RuleSetAnalyzer.Elimination> getEliminatedRules() {
+        return analysis.eliminations();
     }
 
     /**
@@ -78,35 +273,67 @@ final class ComponentFilter {
         CleanupRule.CleanupFilters filters = rule.getFilters();
 
         // Parse date filters
-        OffsetDateTime updatedBefore = null;
+        long updatedBefore = NO_CUTOFF;
         if (filters.getUpdated() != null) {
-            updatedBefore = DateFilterParser.parseDate(filters.getUpdated());
+            updatedBefore = toEpochMillis(Objects.requireNonNull(DateFilterParser.parseDate(filters.getUpdated(), parseTime)));
         }
 
-        OffsetDateTime downloadedBefore = null;
+        long downloadedBefore = NO_CUTOFF;
         boolean isNeverDownloaded = false;
         if (filters.getDownloaded() != null) {
             if (CleanupRuleParser.isNeverDownloaded(filters.getDownloaded())) {
                 isNeverDownloaded = true;
             } else {
-                downloadedBefore = CleanupRuleParser.parseDownloadedFilter(filters.getDownloaded());
+                downloadedBefore = toEpochMillis(CleanupRuleParser.parseDownloadedFilter(filters.getDownloaded(), parseTime));
             }
         }
 
+        Long minSize = SizeFilterParser.parseSize(filters.getMinSize());
+        Long maxSize = SizeFilterParser.parseSize(filters.getMaxSize());
+
         return new ParsedRule(
                 rule.getName(),
                 rule.getAction(),
-                filters.getRepositories(),
-                filters.getFormats(),
-                filters.getGroups(),
-                filters.getNames(),
-                filters.getVersions(),
+                compilePatterns(filters.getRepositories()),
+                compilePatterns(filters.getFormats()),
+                memoizePatterns(filters.getGroups()),
+                memoizePatterns(filters.getNames()),
+                compilePatterns(filters.getVersions()),
                 updatedBefore,
                 downloadedBefore,
-                isNeverDownloaded
+                isNeverDownloaded,
+                minSize == null ? 0 : minSize,
+                maxSize == null ? NO_MAX_SIZE : maxSize,
+                filters.getRetainLatest() == null ? null : new Retention(rule.getName(), filters.getRetainLatest())
         );
     }
 
+    /**
+     * Compiles the wildcard patterns of one filter into a single matcher.
+     *
+     * @return Compiled patterns, or null if the filter is not set
+     */
+    @Nullable
+    private static PatternSet compilePatterns(@Nullable List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return null;
+        }
+        return PatternSet.compile(patterns);
+    }
+
+    /**
+     * Compiles the patterns of a group or name filter, remembering results of repeating values.
+     *
+     * @return Memoizing patterns, or null if the filter is not set
+     */
+    @Nullable
+    private PatternMatchCache.Patterns memoizePatterns(@Nullable List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return null;
+        }
+        return memoizedPatterns.computeIfAbsent(List.copyOf(patterns), list -> matchCache.memoize(PatternSet.compile(list)));
+    }
+
     /**
      * Checks if a repository name matches the provided repository patterns.
      *
@@ -114,7 +341,7 @@ final class ComponentFilter {
      * @return true if the repository name matches any of the patterns, or if no patterns are provided
      */
     public boolean matchesRepositoryFilter(@Nullable String repositoryName) {
-        if (repositoryPatterns == null || repositoryPatterns.isEmpty()) {
+        if (repositoryPatterns == null) {
             return true; // No patterns means match all repositories
         }
 
@@ -129,175 +356,635 @@ final class ComponentFilter {
      * Extracts all repository patterns from enabled rules in the rule set.
      *
      * @param ruleSet The cleanup rule set
-     * @return List of repository patterns from all enabled rules, or empty list if none
+     * @return Compiled repository patterns from all enabled rules, or null if none
      */
-    @NonNull
-    private List<String> extractRepositoryPatterns(@NonNull CleanupRuleSet ruleSet) {
-        return ruleSet.getRules().stream()
+    @Nullable
+    private static PatternSet extractRepositoryPatterns(@NonNull CleanupRuleSet ruleSet) {
+        return compilePatterns(ruleSet.getRules().stream()
                 .filter(CleanupRule::isEnabled)
                 .map(CleanupRule::getFilters)
                 .map(CleanupRule.CleanupFilters::getRepositories)
                 .filter(repos -> repos != null && !repos.isEmpty())
                 .flatMap(List::stream)
                 .distinct()
-                .toList();
+                .toList());
     }
 
     /**
-     * Checks if a component matches the provided component-level filters.
+     * Checks if a value matches any of the provided wildcard patterns.
      *
-     * @param component    The component to test
-     * @param repositories List of repository patterns (OR logic)
-     * @param groups       List of group patterns (OR logic)
-     * @param names        List of name patterns (OR logic)
-     * @return true if the component matches all provided filters (AND logic between filter types)
-     */
-    private static boolean matchesComponentFilters(@NonNull ComponentXO component,
-                                                   @Nullable List<String> repositories,
-                                                   @Nullable List<String> groups,
-                                                   @Nullable List<String> names) {
-        // Repository filter
-        if (repositories != null && !repositories.isEmpty()) {
-            if (!matchesAnyPattern(component.getRepository(), repositories)) {
-                return false;
+     * @param value    The value to test (can be null)
+     * @param patterns Compiled wildcard patterns
+     * @return true if the value matches any pattern, false if value is null or no patterns match
+     */
+    static boolean matchesAnyPattern(@Nullable String value, @NonNull PatternSet patterns) {
+        if (Strings.isNullOrEmpty(value)) {
+            return false;
+        }
+
+        return patterns.matches(value);
+    }
+
+    /**
+     * Checks if a value matches any of the provided memoized wildcard patterns.
+     */
+    static boolean matchesAnyPattern(@Nullable String value, PatternMatchCache.@NonNull Patterns patterns) {
+        if (Strings.isNullOrEmpty(value)) {
+            return false;
+        }
+
+        return patterns.matches(value);
+    }
+
+    /**
+     * Tests one check of a rule, the check must be applicable to the rule.
+     *
+     * @param lastCreated    Latest asset creation in epoch millis, {@link Long#MAX_VALUE} if an asset has none
+     * @param lastDownloaded Latest asset download in epoch millis, {@link Long#MIN_VALUE} if never downloaded
+     * @param size           Sum of the asset file sizes in bytes
+     */
+    private static boolean passes(@NonNull Check check, @NonNull ParsedRule rule, @NonNull ComponentXO component,
+                                  long lastCreated, long lastDownloaded, long size) {
+        return switch (check) {
+            case GROUP -> matchesAnyPattern(component.getGroup(), Objects.requireNonNull(rule.groups));
+            case NAME -> matchesAnyPattern(component.getName(), Objects.requireNonNull(rule.names));
+            case FORMAT -> matchesAnyPattern(component.getFormat(), Objects.requireNonNull(rule.formats));
+            case VERSION -> matchesAnyPattern(component.getVersion(), Objects.requireNonNull(rule.versions));
+            // All assets must be created before the cutoff
+            case UPDATED -> lastCreated < rule.updatedBefore;
+            // All assets must have never been downloaded, or all must be downloaded before the cutoff
+            case DOWNLOADED -> rule.isNeverDownloaded
+                    ? lastDownloaded == Long.MIN_VALUE
+                    : lastDownloaded < rule.downloadedBefore;
+            case SIZE -> size >= rule.minSize && size <= rule.maxSize;
+        };
+    }
+
+    /**
+     * Tests one string check of a rule against a non-empty value.
+     */
+    private static boolean matchesValue(@NonNull Check check, @NonNull ParsedRule rule, @NonNull String value) {
+        return switch (check) {
+            case GROUP -> Objects.requireNonNull(rule.groups).matches(value);
+            case NAME -> Objects.requireNonNull(rule.names).matches(value);
+            case FORMAT -> Objects.requireNonNull(rule.formats).matches(value);
+            case VERSION -> Objects.requireNonNull(rule.versions).matches(value);
+            default -> throw new IllegalArgumentException("Not a string check " + check);
+        };
+    }
+
+    /**
+     * Clears the components of a page failing one check of a rule. String checks are matched once per distinct value.
+     *
+     * @param candidates Components passing the previous checks, updated in place
+     */
+    private static void retainPassing(@NonNull Check check, @NonNull ParsedRule rule, @NonNull ComponentPage page,
+                                      @NonNull BitSet candidates) {
+        switch (check) {
+            case UPDATED -> {
+                long[] lastCreated = page.lastCreated();
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (lastCreated[i] >= rule.updatedBefore) {
+                        candidates.clear(i);
+                    }
+                }
+            }
+            case DOWNLOADED -> {
+                long[] lastDownloaded = page.lastDownloaded();
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    boolean passed = rule.isNeverDownloaded
+                            ? lastDownloaded[i] == Long.MIN_VALUE
+                            : lastDownloaded[i] < rule.downloadedBefore;
+                    if (!passed) {
+                        candidates.clear(i);
+                    }
+                }
+            }
+            case SIZE -> {
+                long[] sizes = page.sizes();
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (sizes[i] < rule.minSize || sizes[i] > rule.maxSize) {
+                        candidates.clear(i);
+                    }
+                }
+            }
+            default -> {
+                ComponentPage.StringColumn column = switch (check) {
+                    case GROUP -> page.groups();
+                    case NAME -> page.names();
+                    case FORMAT -> page.formats();
+                    default -> page.versions();
+                };
+                int[] ids = column.ids();
+                // 0 not matched yet, 1 matches, 2 does not match
+                byte[] results = new byte[column.values().length];
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    int id = ids[i];
+                    if (id == ComponentPage.NO_VALUE) {
+                        candidates.clear(i);
+                        continue;
+                    }
+                    if (results[id] == 0) {
+                        results[id] = matchesValue(check, rule, column.values()[id]) ? (byte) 1 : (byte) 2;
+                    }
+                    if (results[id] == 2) {
+                        candidates.clear(i);
+                    }
+                }
             }
         }
+    }
 
-        // Group filter
-        if (groups != null && !groups.isEmpty()) {
-            if (!matchesAnyPattern(component.getGroup(), groups)) {
-                return false;
+    /**
+     * Latest blob creation of the assets in epoch millis, {@link Long#MAX_VALUE} if an asset has no creation date.
+     */
+    static long lastCreated(@NonNull List<AssetXO> assets) {
+        long last = Long.MIN_VALUE;
+        for (int i = 0, size = assets.size(); i < size; i++) {
+            OffsetDateTime blobCreated = assets.get(i).getBlobCreated();
+            if (blobCreated == null) {
+                return Long.MAX_VALUE;
             }
+            last = Math.max(last, toEpochMillis(blobCreated));
         }
+        return last;
+    }
 
-        // Name filter
-        if (names != null && !names.isEmpty()) {
-            return matchesAnyPattern(component.getName(), names);
+    /**
+     * Latest download of the assets in epoch millis, {@link Long#MIN_VALUE} if no asset was ever downloaded.
+     */
+    static long lastDownloaded(@NonNull List<AssetXO> assets) {
+        long last = Long.MIN_VALUE;
+        for (int i = 0, size = assets.size(); i < size; i++) {
+            OffsetDateTime lastDownloaded = assets.get(i).getLastDownloaded();
+            if (lastDownloaded != null) {
+                last = Math.max(last, toEpochMillis(lastDownloaded));
+            }
         }
+        return last;
+    }
 
-        return true;
+    /**
+     * Sum of the asset file sizes in bytes, assets without size count as 0.
+     */
+    static long componentSize(@NonNull List<AssetXO> assets) {
+        long size = 0;
+        for (int i = 0, count = assets.size(); i < count; i++) {
+            Long fileSize = assets.get(i).getFileSize();
+            if (fileSize != null) {
+                size += fileSize;
+            }
+        }
+        return size;
     }
 
     /**
-     * Checks if a value matches any of the provided wildcard patterns.
-     *
-     * @param value    The value to test (can be null)
-     * @param patterns List of wildcard patterns
-     * @return true if the value matches any pattern, false if value is null or no patterns match
+     * Converts without the {@link java.time.Instant} allocation of {@code toInstant().toEpochMilli()}, rounding down.
+     * Dates and cutoffs are compared at millisecond granularity: {@code toEpochMillis(date) < toEpochMillis(cutoff)}
+     * implies {@code date < cutoff}, but a date before the cutoff within the same millisecond does not compare as
+     * before it. Such a component is kept rather than deleted.
      */
-    private static boolean matchesAnyPattern(@Nullable String value, @NonNull List<String> patterns) {
-        if (Strings.isNullOrEmpty(value)) {
-            return false;
+    static long toEpochMillis(@NonNull OffsetDateTime dateTime) {
+        return dateTime.toEpochSecond() * 1000 + dateTime.getNano() / 1_000_000;
+    }
+
+    /**
+     * Checks of a rule, a component matches the rule when all its checks pass.
+     * The repository filter is not a check, it is applied by the rule index.
+     */
+    enum Check {
+        GROUP, NAME, FORMAT, VERSION, UPDATED, DOWNLOADED, SIZE
+    }
+
+    /**
+     * A rule with its checks in evaluation order.
+     */
+    record OrderedRule(@NonNull ParsedRule rule, @NonNull Check[] checks) {
+
+        boolean matches(@NonNull ComponentXO component, long lastCreated, long lastDownloaded, long size) {
+            for (int i = 0; i < checks.length; i++) {
+                if (!passes(checks[i], rule, component, lastCreated, lastDownloaded, size)) {
+                    return false;
+                }
+            }
+            return true;
         }
 
-        return patterns.stream().anyMatch(pattern -> matchesWildcardPattern(value, pattern));
+        /**
+         * @param candidates Components to evaluate
+         * @return Components of the candidates matching this rule
+         */
+        BitSet select(@NonNull ComponentPage page, @NonNull BitSet candidates) {
+            BitSet matched = (BitSet) candidates.clone();
+            for (int i = 0; i < checks.length && !matched.isEmpty(); i++) {
+                retainPassing(checks[i], rule, page, matched);
+            }
+            return matched;
+        }
+
+        @Override
+        public String toString() {
+            return rule.name + Arrays.toString(checks);
+        }
     }
 
     /**
-     * Tests if a value matches a wildcard pattern.
-     * Supports '*' (any characters) and '?' (single character) wildcards.
-     *
-     * @param value   The value to test
-     * @param pattern The wildcard pattern
-     * @return true if the value matches the pattern
-     */
-    private static boolean matchesWildcardPattern(@NonNull String value, @NonNull String pattern) {
-        if (Strings.isNullOrEmpty(pattern)) {
-            return Strings.isNullOrEmpty(value);
-        }
-
-        // Convert wildcard pattern to regex
-        // Escape special regex characters except * and ?
-        String regex = pattern
-                .replace("\\", "\\\\")
-                .replace(".", "\\.")
-                .replace("+", "\\+")
-                .replace("^", "\\^")
-                .replace("$", "\\$")
-                .replace("(", "\\(")
-                .replace(")", "\\)")
-                .replace("[", "\\[")
-                .replace("]", "\\]")
-                .replace("{", "\\{")
-                .replace("}", "\\}")
-                .replace("|", "\\|")
-                // Now handle wildcards
-                .replace("*", ".*")
-                .replace("?", ".");
-
-        return value.matches(regex);
-    }
-
-    /**
-     * Checks if a component matches a parsed rule.
-     */
-    private boolean matchesRule(@NonNull ComponentXO component, @NonNull ParsedRule rule) {
-        // Check component-level filters
-        if (!matchesComponentFilters(component, rule.repositories, rule.groups, rule.names)) {
-            return false;
+     * Warm-up statistics of one rule, counters are indexed like the checks of the rule.
+     */
+    private static final class RuleStatistics {
+
+        private final LongAdder evaluations = new LongAdder();
+
+        private final LongAdder matches = new LongAdder();
+
+        private final LongAdder[] rejections;
+
+        private final LongAdder[] nanos;
+
+        RuleStatistics(int checkCount) {
+            rejections = new LongAdder[checkCount];
+            nanos = new LongAdder[checkCount];
+            for (int i = 0; i < checkCount; i++) {
+                rejections[i] = new LongAdder();
+                nanos[i] = new LongAdder();
+            }
         }
 
-        // Check format filter
-        if (rule.formats != null && !rule.formats.isEmpty()) {
-            if (!matchesAnyPattern(component.getFormat(), rule.formats)) {
-                return false;
+        /**
+         * Evaluates all checks without early exit, so that each check is measured on every component.
+         */
+        boolean record(@NonNull OrderedRule rule, @NonNull ComponentXO component, long lastCreated, long lastDownloaded,
+                       long size) {
+            boolean matched = true;
+            for (int i = 0; i < rule.checks.length; i++) {
+                long start = System.nanoTime();
+                boolean passed = passes(rule.checks[i], rule.rule, component, lastCreated, lastDownloaded, size);
+                nanos[i].add(System.nanoTime() - start);
+                if (!passed) {
+                    rejections[i].increment();
+                    matched = false;
+                }
+            }
+            evaluations.increment();
+            if (matched) {
+                matches.increment();
+            }
+            return matched;
+        }
+
+        /**
+         * Orders the checks so that the cheapest check most likely to reject runs first.
+         *
+         * @return The reordered rule with its expected evaluation cost and match rate
+         */
+        RankedRule rank(@NonNull OrderedRule rule) {
+            long count = Math.max(1, evaluations.sum());
+            Integer[] order = new Integer[rule.checks.length];
+            double[] cost = new double[order.length];
+            double[] rejectRate = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+                cost[i] = (double) nanos[i].sum() / count;
+                rejectRate[i] = (double) rejections[i].sum() / count;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> priority(cost[i], rejectRate[i]))
+                    .thenComparingDouble(i -> cost[i]));
+
+            Check[] checks = new Check[order.length];
+            double expectedCost = 0;
+            double passRate = 1;
+            for (int i = 0; i < order.length; i++) {
+                checks[i] = rule.checks[order[i]];
+                expectedCost += passRate * cost[order[i]];
+                passRate *= 1 - rejectRate[order[i]];
+            }
+            return new RankedRule(new OrderedRule(rule.rule, checks), expectedCost, (double) matches.sum() / count);
+        }
+    }
+
+    /**
+     * A reordered rule with its warm-up measurements.
+     */
+    private record RankedRule(@NonNull OrderedRule rule, double expectedCost, double matchRate) {
+    }
+
+    /**
+     * Cost paid per decisive outcome, lower values should be evaluated first.
+     */
+    private static double priority(double cost, double decisiveRate) {
+        return decisiveRate > 0 ? cost / decisiveRate : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Keep and delete rules applicable to one repository, partitioned once so that testing
+     * a component does not allocate.
+     * <p>
+     * The first components are evaluated with all checks of all rules while rejection counts and costs
+     * are collected. The checks of each rule are then reordered so that cheap checks rejecting most components
+     * run first, and the rules are reordered so that cheap rules matching most components run first.
+     * Since checks of a rule are combined with AND, and keep and delete rules each with OR, the order
+     * does not change the result.
+     * <p>
+     * Pages are always evaluated column by column by {@link #select}. When enabled, the rules are compiled by
+     * {@link RuleCompiler} for {@link #test} once the order is final. If compilation is disabled or fails
+     * the rules are interpreted.
+     * <p>
+     * Delete rules with {@code retainLatest} are not part of the selection, their decision depends on the other
+     * versions of the artifact. They are evaluated in rule set order for the components not selected.
+     */
+    private static final class RepositoryRules implements RepositoryFilter {
+
+        @Nullable
+        private final String repositoryName;
+
+        /**
+         * Rules in evaluation order, replaced by the ranked order once after the warm-up.
+         */
+        private volatile OrderedRule[] keepRules;
+
+        private volatile OrderedRule[] deleteRules;
+
+        /**
+         * Rules in rule set order, measured during the warm-up. The statistics are indexed like these arrays,
+         * they never change so that a thread still recording cannot pair a rule with the statistics of another.
+         */
+        private final OrderedRule[] warmUpKeepRules;
+
+        private final OrderedRule[] warmUpDeleteRules;
+
+        private final OrderedRule[] retentionRules;
+
+        private final RuleStatistics[] keepStatistics;
+
+        private final RuleStatistics[] deleteStatistics;
+
+        private final AtomicInteger warmUpRemaining;
+
+        private final boolean compileRules;
+
+        @Nullable
+        private volatile RuleCompiler.CompiledRules compiledRules;
+
+        RepositoryRules(@Nullable String repositoryName, @NonNull ParsedRule[] keepRules,
+                        @NonNull ParsedRule[] deleteRules, @NonNull ParsedRule[] retentionRules, int warmUpComponents,
+                        boolean compileRules) {
+            this.repositoryName = repositoryName;
+            this.warmUpKeepRules = orderAsDefined(keepRules);
+            this.warmUpDeleteRules = orderAsDefined(deleteRules);
+            this.keepRules = warmUpKeepRules;
+            this.deleteRules = warmUpDeleteRules;
+            this.retentionRules = orderAsDefined(retentionRules);
+            this.keepStatistics = createStatistics(warmUpKeepRules);
+            this.deleteStatistics = createStatistics(warmUpDeleteRules);
+            this.warmUpRemaining = new AtomicInteger(warmUpComponents);
+            this.compileRules = compileRules;
+            if (warmUpComponents == 0) {
+                compile(this.keepRules, this.deleteRules);
+            }
+        }
+
+        /**
+         * Compiles the current rule order, keeping the interpreter if compilation is not possible.
+         */
+        private void compile(OrderedRule[] keep, OrderedRule[] delete) {
+            if (!compileRules) {
+                return;
+            }
+            try {
+                compiledRules = RuleCompiler.compile(keep, delete);
+                log.debug("Repository {}: rules compiled", repositoryName);
+            } catch (RuntimeException | LinkageError e) {
+                log.warn("Repository {}: rules are interpreted, compilation failed", repositoryName, e);
             }
         }
 
-        // Check version filter
-        if (rule.versions != null && !rule.versions.isEmpty()) {
-            if (!matchesAnyPattern(component.getVersion(), rule.versions)) {
+        /**
+         * @return true if the rules run as generated bytecode
+         */
+        boolean isCompiled() {
+            return compiledRules != null;
+        }
+
+        private static OrderedRule[] orderAsDefined(ParsedRule[] rules) {
+            OrderedRule[] ordered = new OrderedRule[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                ordered[i] = new OrderedRule(rules[i], rules[i].checks());
+            }
+            return ordered;
+        }
+
+        private static RuleStatistics[] createStatistics(OrderedRule[] rules) {
+            RuleStatistics[] statistics = new RuleStatistics[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                statistics[i] = new RuleStatistics(rules[i].checks.length);
+            }
+            return statistics;
+        }
+
+        @Override
+        public boolean test(ComponentXO component) {
+            if (component == null || component.getAssets() == null || component.getAssets().isEmpty()) {
                 return false;
             }
+            // Asset dates and sizes are summarized once and shared by all rules
+            List<AssetXO> assets = component.getAssets();
+            return test(component, lastCreated(assets), lastDownloaded(assets), componentSize(assets));
         }
 
-        // Check asset-level date filters - ALL assets must match ALL criteria
-        List<AssetXO> assets = component.getAssets();
-        if (assets == null || assets.isEmpty()) {
+        private boolean test(ComponentXO component, long lastCreated, long lastDownloaded, long size) {
+            if (warmUpRemaining.get() > 0) {
+                return testAndRecord(component, lastCreated, lastDownloaded, size);
+            }
+            RuleCompiler.CompiledRules compiled = compiledRules;
+            if (compiled != null) {
+                return compiled.test(component, lastCreated, lastDownloaded, size);
+            }
+
+            // Check if any keep rule matches - if so, component should not be deleted
+            OrderedRule[] keep = keepRules;
+            for (int i = 0; i < keep.length; i++) {
+                if (keep[i].matches(component, lastCreated, lastDownloaded, size)) {
+                    return false;
+                }
+            }
+
+            // Check if any delete rule matches
+            OrderedRule[] delete = deleteRules;
+            for (int i = 0; i < delete.length; i++) {
+                if (delete[i].matches(component, lastCreated, lastDownloaded, size)) {
+                    return true;
+                }
+            }
             return false;
         }
 
-        // Check updated filter (blobCreated) - all assets must be created before the cutoff
-        if (rule.updatedBefore != null) {
-            boolean allAssetsMatch = assets.stream()
-                    .allMatch(asset -> asset.getBlobCreated() != null &&
-                            asset.getBlobCreated().isBefore(rule.updatedBefore));
-            if (!allAssetsMatch) {
-                return false;
+        /**
+         * Evaluates the page column by column, each rule narrows a bit set of candidates and string checks
+         * match each distinct value of the page once. The compiled rules are not used for pages, they decide
+         * one component at a time and would match repeating values again for each component.
+         * During the warm-up the components are tested one by one to collect statistics.
+         */
+        @Override
+        public BitSet select(ComponentPage page) {
+            BitSet selected = new BitSet(page.size());
+            BitSet candidates = page.evaluable();
+            if (warmUpRemaining.get() > 0) {
+                long[] lastCreated = page.lastCreated();
+                long[] lastDownloaded = page.lastDownloaded();
+                long[] sizes = page.sizes();
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (test(Objects.requireNonNull(page.component(i)), lastCreated[i], lastDownloaded[i], sizes[i])) {
+                        selected.set(i);
+                    }
+                }
+                return selected;
             }
+
+            // Components matching any keep rule are not deleted
+            OrderedRule[] keep = keepRules;
+            for (int i = 0; i < keep.length && !candidates.isEmpty(); i++) {
+                candidates.andNot(keep[i].select(page, candidates));
+            }
+
+            // Each delete rule only evaluates the components not selected by the previous ones
+            OrderedRule[] delete = deleteRules;
+            for (int i = 0; i < delete.length && !candidates.isEmpty(); i++) {
+                BitSet matched = delete[i].select(page, candidates);
+                selected.or(matched);
+                candidates.andNot(matched);
+            }
+            return selected;
         }
 
-        // Check downloaded filter
-        if (rule.isNeverDownloaded) {
-            // All assets must have never been downloaded (lastDownloaded == null)
-            boolean allNeverDownloaded = assets.stream()
-                    .allMatch(asset -> asset.getLastDownloaded() == null);
-            return allNeverDownloaded;
-        } else if (rule.downloadedBefore != null) {
-            // All assets must be downloaded before the cutoff (or never downloaded)
-            boolean allAssetsMatch = assets.stream()
-                    .allMatch(asset -> asset.getLastDownloaded() == null ||
-                            asset.getLastDownloaded().isBefore(rule.downloadedBefore));
-            return allAssetsMatch;
+        @Override
+        public boolean hasRetentionRules() {
+            return retentionRules.length > 0;
         }
 
-        return true;
+        @Override
+        @Nullable
+        public Retention retention(ComponentPage page, int index) {
+            ComponentXO component = page.component(index);
+            if (retentionRules.length == 0 || component == null || component.getAssets() == null || component.getAssets().isEmpty()) {
+                return null;
+            }
+            long lastCreated = page.lastCreated()[index];
+            long lastDownloaded = page.lastDownloaded()[index];
+            long size = page.sizes()[index];
+            OrderedRule[] keep = keepRules;
+            for (int i = 0; i < keep.length; i++) {
+                if (keep[i].matches(component, lastCreated, lastDownloaded, size)) {
+                    return null;
+                }
+            }
+            for (int i = 0; i < retentionRules.length; i++) {
+                if (retentionRules[i].matches(component, lastCreated, lastDownloaded, size)) {
+                    return retentionRules[i].rule.retention;
+                }
+            }
+            return null;
+        }
+
+        private boolean testAndRecord(ComponentXO component, long lastCreated, long lastDownloaded, long size) {
+            boolean kept = false;
+            for (int i = 0; i < keepStatistics.length; i++) {
+                kept |= keepStatistics[i].record(warmUpKeepRules[i], component, lastCreated, lastDownloaded, size);
+            }
+            boolean deleted = false;
+            for (int i = 0; i < deleteStatistics.length; i++) {
+                deleted |= deleteStatistics[i].record(warmUpDeleteRules[i], component, lastCreated, lastDownloaded, size);
+            }
+            if (warmUpRemaining.decrementAndGet() == 0) {
+                reorder();
+            }
+            return !kept && deleted;
+        }
+
+        /**
+         * Called once by the thread completing the warm-up, other threads keep using the previous order until
+         * the new arrays are published. Threads still recording use the warm-up arrays, not the ranked ones.
+         */
+        private void reorder() {
+            OrderedRule[] keep = rank(warmUpKeepRules, keepStatistics);
+            OrderedRule[] delete = rank(warmUpDeleteRules, deleteStatistics);
+            keepRules = keep;
+            deleteRules = delete;
+            if (log.isDebugEnabled()) {
+                log.debug("Repository {}: evaluation order after warm-up {}", repositoryName, describe());
+            }
+            compile(keep, delete);
+        }
+
+        private static OrderedRule[] rank(OrderedRule[] rules, RuleStatistics[] statistics) {
+            RankedRule[] ranked = new RankedRule[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                ranked[i] = statistics[i].rank(rules[i]);
+            }
+            Arrays.sort(ranked, Comparator.<RankedRule>comparingDouble(rule -> priority(rule.expectedCost, rule.matchRate))
+                    .thenComparingDouble(RankedRule::expectedCost));
+            OrderedRule[] ordered = new OrderedRule[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                ordered[i] = ranked[i].rule;
+            }
+            return ordered;
+        }
+
+        String describe() {
+            OrderedRule[] keep = keepRules;
+            OrderedRule[] delete = deleteRules;
+            String description = "keep " + Arrays.toString(keep) + ", delete " + Arrays.toString(delete);
+            return retentionRules.length == 0 ? description : description + ", retain " + Arrays.toString(retentionRules);
+        }
     }
 
     /**
-     * Parsed rule with precompiled patterns and dates for efficient matching.
+     * Parsed rule with precompiled patterns and date cutoffs in epoch millis for efficient matching,
+     * {@link #NO_CUTOFF} when a date filter is not set. Size bounds are inclusive, in bytes, 0 and
+     * {@link #NO_MAX_SIZE} when a size filter is not set. The retention is null for rules deleting all matching versions.
      */
-    private record ParsedRule(
+    record ParsedRule(
             @NonNull String name,
             @NonNull String action,
-            @Nullable List<String> repositories,
-            @Nullable List<String> formats,
-            @Nullable List<String> groups,
-            @Nullable List<String> names,
-            @Nullable List<String> versions,
-            @Nullable OffsetDateTime updatedBefore,
-            @Nullable OffsetDateTime downloadedBefore,
-            boolean isNeverDownloaded
+            @Nullable PatternSet repositories,
+            @Nullable PatternSet formats,
+            PatternMatchCache.@Nullable Patterns groups,
+            PatternMatchCache.@Nullable Patterns names,
+            @Nullable PatternSet versions,
+            long updatedBefore,
+            long downloadedBefore,
+            boolean isNeverDownloaded,
+            long minSize,
+            long maxSize,
+            @Nullable Retention retention
     ) {
+
+        /**
+         * @return The checks applicable to this rule, in rule definition order
+         */
+        Check[] checks() {
+            List<Check> checks = new ArrayList<>();
+            if (groups != null) {
+                checks.add(Check.GROUP);
+            }
+            if (names != null) {
+                checks.add(Check.NAME);
+            }
+            if (formats != null) {
+                checks.add(Check.FORMAT);
+            }
+            if (versions != null) {
+                checks.add(Check.VERSION);
+            }
+            if (updatedBefore != NO_CUTOFF) {
+                checks.add(Check.UPDATED);
+            }
+            if (isNeverDownloaded || downloadedBefore != NO_CUTOFF) {
+                checks.add(Check.DOWNLOADED);
+            }
+            if (minSize > 0 || maxSize != NO_MAX_SIZE) {
+                checks.add(Check.SIZE);
+            }
+            return checks.toArray(new Check[0]);
+        }
     }
 }
@@ -0,0 +1,199 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.base.Strings;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.sonatype.nexus.model.ComponentXO;
+
+/**
+ * A page of components transposed into columns for rule evaluation.
+ * <p>
+ * String attributes are dictionary encoded per page, so a pattern list is matched once per distinct value
+ * instead of once per component. Asset dates are reduced to the latest creation and download per component
+ * in epoch millis, see {@link ComponentFilter#lastCreated} and {@link ComponentFilter#lastDownloaded}, and asset
+ * sizes to the component size, see {@link ComponentFilter#componentSize}. The size is computed once per component
+ * and shared by the rules, the summaries and the component report.
+ */
+final class ComponentPage {
+
+    /**
+     * Dictionary id of null and empty values, which never match a pattern.
+     */
+    static final int NO_VALUE = -1;
+
+    private final List<ComponentXO> components;
+
+    private final BitSet evaluable;
+
+    private final StringColumn groups;
+
+    private final StringColumn names;
+
+    private final StringColumn formats;
+
+    private final StringColumn versions;
+
+    private final long[] lastCreated;
+
+    private final long[] lastDownloaded;
+
+    private final long[] sizes;
+
+    private ComponentPage(List<ComponentXO> components, BitSet evaluable, StringColumn groups, StringColumn names,
+                          StringColumn formats, StringColumn versions, long[] lastCreated, long[] lastDownloaded,
+                          long[] sizes) {
+        this.components = components;
+        this.evaluable = evaluable;
+        this.groups = groups;
+        this.names = names;
+        this.formats = formats;
+        this.versions = versions;
+        this.lastCreated = lastCreated;
+        this.lastDownloaded = lastDownloaded;
+        this.sizes = sizes;
+    }
+
+    /**
+     * Transposes a page of components.
+     *
+     * @param components The components of the page, null elements are allowed and never evaluable
+     * @return Columnar page, indexed like the component list
+     */
+    @NonNull
+    static ComponentPage of(@NonNull List<ComponentXO> components) {
+        Objects.requireNonNull(components, "Components cannot be null");
+        int size = components.size();
+        BitSet evaluable = new BitSet(size);
+        StringColumn.Builder groups = new StringColumn.Builder(size);
+        StringColumn.Builder names = new StringColumn.Builder(size);
+        StringColumn.Builder formats = new StringColumn.Builder(size);
+        StringColumn.Builder versions = new StringColumn.Builder(size);
+        long[] lastCreated = new long[size];
+        long[] lastDownloaded = new long[size];
+        long[] sizes = new long[size];
+        for (int i = 0; i < size; i++) {
+            ComponentXO component = components.get(i);
+            if (component == null) {
+                groups.add(null);
+                names.add(null);
+                formats.add(null);
+                versions.add(null);
+                continue;
+            }
+            groups.add(component.getGroup());
+            names.add(component.getName());
+            formats.add(component.getFormat());
+            versions.add(component.getVersion());
+            // Components without assets never match, as in ComponentFilter
+            if (component.getAssets() != null && !component.getAssets().isEmpty()) {
+                evaluable.set(i);
+                lastCreated[i] = ComponentFilter.lastCreated(component.getAssets());
+                lastDownloaded[i] = ComponentFilter.lastDownloaded(component.getAssets());
+                sizes[i] = ComponentFilter.componentSize(component.getAssets());
+            }
+        }
+        return new ComponentPage(components, evaluable, groups.build(), names.build(), formats.build(), versions.build(),
+                lastCreated, lastDownloaded, sizes);
+    }
+
+    int size() {
+        return components.size();
+    }
+
+    /**
+     * @return The component at an index of the page, null if the page has a null element there
+     */
+    @Nullable
+    ComponentXO component(int index) {
+        return components.get(index);
+    }
+
+    /**
+     * @return Components with assets, a copy that can be modified
+     */
+    @NonNull
+    BitSet evaluable() {
+        return (BitSet) evaluable.clone();
+    }
+
+    @NonNull
+    StringColumn groups() {
+        return groups;
+    }
+
+    @NonNull
+    StringColumn names() {
+        return names;
+    }
+
+    @NonNull
+    StringColumn formats() {
+        return formats;
+    }
+
+    @NonNull
+    StringColumn versions() {
+        return versions;
+    }
+
+    /**
+     * @return Latest asset creation per component in epoch millis, {@link Long#MAX_VALUE} if an asset has none
+     */
+    long[] lastCreated() {
+        return lastCreated;
+    }
+
+    /**
+     * @return Latest asset download per component in epoch millis, {@link Long#MIN_VALUE} if never downloaded
+     */
+    long[] lastDownloaded() {
+        return lastDownloaded;
+    }
+
+    /**
+     * @return Sum of the asset file sizes per component in bytes, 0 for components without assets
+     */
+    long[] sizes() {
+        return sizes;
+    }
+
+    /**
+     * Dictionary encoded string attribute.
+     *
+     * @param ids    Value id per component, {@link #NO_VALUE} for null or empty values
+     * @param values Distinct values by id
+     */
+    record StringColumn(int[] ids, String[] values) {
+
+        private static final class Builder {
+
+            private final int[] ids;
+
+            private final Map<String, Integer> dictionary = new HashMap<>();
+
+            private int count;
+
+            Builder(int size) {
+                this.ids = new int[size];
+            }
+
+            void add(@Nullable String value) {
+                ids[count++] = Strings.isNullOrEmpty(value)
+                        ? NO_VALUE
+                        : dictionary.computeIfAbsent(value, key -> dictionary.size());
+            }
+
+            StringColumn build() {
+                String[] values = new String[dictionary.size()];
+                dictionary.forEach((value, id) -> values[id] = value);
+                return new StringColumn(ids, values);
+            }
+        }
+    }
+}
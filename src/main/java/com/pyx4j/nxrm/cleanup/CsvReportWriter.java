@@ -2,6 +2,7 @@ package com.pyx4j.nxrm.cleanup;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 import com.opencsv.CSVWriter;
 import com.pyx4j.nxrm.cleanup.model.GroupStats;
@@ -12,9 +13,24 @@ import org.sonatype.nexus.model.ComponentXO;
 
 public class CsvReportWriter implements ReportWriter {
 
+    static final String[] REPOSITORY_HEADER = {"Repository", "Format", "Components", "Total Size", "Remaining Components", "Remaining Size"};
+
+    static final String[] GROUP_HEADER = {"Group", "Components", "Total Size", "Remaining Components", "Remaining Size"};
+
+    /**
+     * Groups tracked approximately, with the maximum overestimation of the removed components or size.
+     */
+    static final String[] APPROXIMATE_GROUP_HEADER = {"Group", "Components", "Total Size", "Remaining Components", "Remaining Size", "Max Error"};
+
+    static final String SERVER = "Server";
+
+    static final String RULES = "Rules";
+
+    static final String TOTAL = "TOTAL";
+
     private final CSVWriter csvWriter;
 
-    private boolean headerWritten = false;
+    private boolean componentHeaderWritten = false;
 
     public CsvReportWriter(Writer writer) {
         this.csvWriter = new CSVWriter(writer);
@@ -22,71 +38,89 @@ public class CsvReportWriter implements ReportWriter {
 
     @Override
     public void writeRepositoryComponentsSummary(RepositoryComponentsSummary summary, SortBy sortBy) throws IOException {
-        if (!headerWritten) {
-            csvWriter.writeNext(new String[]{"Repository", "Format", "Components", "Total Size"});
-            headerWritten = true;
-        }
+        // Each section has its own header, so the report can be read back by merge-reports
+        writeServer(summary.getServer());
+        writeRules(summary.getRulesHash());
+        csvWriter.writeNext(REPOSITORY_HEADER);
 
         summary.getRepositoryStats().forEach((repoName, stats) -> {
             csvWriter.writeNext(new String[]{
                     repoName,
                     stats.getFormat(),
                     String.valueOf(stats.getComponentCount()),
-                    String.valueOf(stats.getSizeBytes())
+                    String.valueOf(stats.getSizeBytes()),
+                    String.valueOf(stats.getRemainingComponentCount()),
+                    String.valueOf(stats.getRemainingSizeBytes())
             });
         });
         csvWriter.writeNext(new String[]{
-                "TOTAL",
+                TOTAL,
                 "-",
                 String.valueOf(summary.getTotalComponents()),
-                String.valueOf(summary.getTotalSizeBytes())
+                String.valueOf(summary.getTotalSizeBytes()),
+                String.valueOf(summary.getTotalRemainingComponents()),
+                String.valueOf(summary.getTotalRemainingSizeBytes())
         });
     }
 
     @Override
     public void writeGroupsSummary(GroupsSummary summary, SortBy sortBy, int topGroups) throws IOException {
-        if (!headerWritten) {
-            csvWriter.writeNext(new String[]{"Group", "Components", "Total Size"});
-            headerWritten = true;
-        }
-        summary.getGroupStats().entrySet().stream()
-                .limit(topGroups)
+        writeServer(summary.getServer());
+        writeRules(summary.getRulesHash());
+        boolean approximate = summary.getApproximateCapacity() > 0;
+        csvWriter.writeNext(approximate ? APPROXIMATE_GROUP_HEADER : GROUP_HEADER);
+        // The same groups as in the console report
+        GroupRanking.top(summary.getGroupStats(), sortBy, topGroups)
                 .forEach(entry -> {
                     GroupStats stats = entry.getValue();
-                    csvWriter.writeNext(new String[]{
+                    String[] row = {
                             entry.getKey(),
                             String.valueOf(stats.getComponentCount()),
-                            String.valueOf(stats.getSizeBytes())
-                    });
+                            String.valueOf(stats.getSizeBytes()),
+                            String.valueOf(stats.getRemainingComponentCount()),
+                            String.valueOf(stats.getRemainingSizeBytes())
+                    };
+                    if (approximate) {
+                        row = Arrays.copyOf(row, APPROXIMATE_GROUP_HEADER.length);
+                        row[row.length - 1] = String.valueOf(stats.getError());
+                    }
+                    csvWriter.writeNext(row);
                 });
     }
 
+    /**
+     * Marks the start of the rows of a specific server when several servers are reported.
+     */
+    private void writeServer(String server) {
+        if (server != null) {
+            csvWriter.writeNext(new String[]{SERVER, server});
+        }
+    }
+
+    /**
+     * Identifies the rules the following rows were computed with, merge-reports ignores this row.
+     */
+    private void writeRules(String rulesHash) {
+        if (rulesHash != null) {
+            csvWriter.writeNext(new String[]{RULES, rulesHash});
+        }
+    }
+
     @Override
-    public void writeComponent(ComponentXO component) throws IOException {
-        if (!headerWritten) {
+    public void writeComponent(ComponentXO component, long sizeBytes) throws IOException {
+        if (!componentHeaderWritten) {
             csvWriter.writeNext(new String[]{"Repository", "Group", "Name", "Version", "Size"});
-            headerWritten = true;
+            componentHeaderWritten = true;
         }
         csvWriter.writeNext(new String[]{
                 component.getRepository(),
                 component.getGroup(),
                 component.getName(),
                 component.getVersion(),
-                String.valueOf(calculateComponentSize(component))
+                String.valueOf(sizeBytes)
         });
     }
 
-    private long calculateComponentSize(ComponentXO component) {
-        if (component == null || component.getAssets() == null) {
-            return 0;
-        }
-
-        return component.getAssets().stream()
-                .filter(asset -> asset.getFileSize() != null)
-                .mapToLong(asset -> asset.getFileSize() != null ? asset.getFileSize() : 0)
-                .sum();
-    }
-
     @Override
     public void close() throws IOException {
         csvWriter.close();
@@ -34,6 +34,21 @@ public final class DateFilterParser {
      */
     @Nullable
     public static OffsetDateTime parseDate(@Nullable String dateString) {
+        return parseDate(dateString, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Parses a date string, "days ago" patterns are relative to the given time.
+     * Rules parsed with the same time get comparable cutoffs.
+     *
+     * @param dateString The date string to parse
+     * @param now        The time "days ago" patterns are relative to
+     * @return OffsetDateTime representation, or null if the string is null/empty
+     * @throws IllegalArgumentException if the date string format is invalid
+     */
+    @Nullable
+    public static OffsetDateTime parseDate(@Nullable String dateString, @NonNull OffsetDateTime now) {
+        Objects.requireNonNull(now, "Now cannot be null");
         if (dateString == null || dateString.trim().isEmpty()) {
             return null;
         }
@@ -44,14 +59,14 @@ public final class DateFilterParser {
         Matcher daysAgoMatcher = DAYS_AGO_PATTERN.matcher(trimmed);
         if (daysAgoMatcher.matches()) {
             int daysAgo = Integer.parseInt(daysAgoMatcher.group(1));
-            return OffsetDateTime.now(ZoneOffset.UTC).minusDays(daysAgo);
+            return now.minusDays(daysAgo);
         }
 
         // Check if it's a "days" pattern (e.g., "90 days", "90 Days ago")
         Matcher daysMatcher = DAYS_PATTERN.matcher(trimmed);
         if (daysMatcher.matches()) {
             int daysAgo = Integer.parseInt(daysMatcher.group(1));
-            return OffsetDateTime.now(ZoneOffset.UTC).minusDays(daysAgo);
+            return now.minusDays(daysAgo);
         }
 
         // Try to parse as ISO-8601 date
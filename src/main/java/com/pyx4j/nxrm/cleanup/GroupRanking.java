@@ -0,0 +1,80 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import com.pyx4j.nxrm.cleanup.model.GroupStats;
+import com.pyx4j.nxrm.cleanup.model.SortBy;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Selects the top groups of a report, shared by the console, CSV and JSON outputs so that they list the same groups.
+ * <p>
+ * The top {@code n} groups are selected with a heap bounded to {@code n} entries, in O(groups * log n), instead of
+ * sorting all groups. Ties are ordered by group name so that the selection does not depend on the map order.
+ */
+final class GroupRanking {
+
+    private GroupRanking() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * @param sortBy The sorting criteria
+     * @return Order of the groups in the report, the first group is the top one
+     */
+    @NonNull
+    static Comparator<Map.Entry<String, GroupStats>> order(@NonNull SortBy sortBy) {
+        Comparator<GroupStats> stats;
+        switch (sortBy) {
+            case NAME:
+                return Map.Entry.comparingByKey();
+            case SIZE:
+                stats = Comparator.comparingLong(GroupStats::getSizeBytes)
+                        .thenComparingLong(GroupStats::getRemainingSizeBytes)
+                        .reversed(); // Largest first
+                break;
+            case COMPONENTS:
+            default:
+                stats = Comparator.comparingLong(GroupStats::getComponentCount)
+                        .thenComparingLong(GroupStats::getRemainingComponentCount)
+                        .reversed(); // Most components first
+                break;
+        }
+        return Map.Entry.<String, GroupStats>comparingByValue(stats).thenComparing(Map.Entry.comparingByKey());
+    }
+
+    /**
+     * Selects the top groups.
+     *
+     * @param groupStats The group statistics
+     * @param sortBy     The sorting criteria
+     * @param topGroups  The number of groups to select
+     * @return At most {@code topGroups} entries, in report order
+     */
+    @NonNull
+    static List<Map.Entry<String, GroupStats>> top(@NonNull Map<String, GroupStats> groupStats, @NonNull SortBy sortBy, int topGroups) {
+        Objects.requireNonNull(groupStats, "Group stats cannot be null");
+        Comparator<Map.Entry<String, GroupStats>> order = order(sortBy);
+        if (topGroups <= 0 || groupStats.isEmpty()) {
+            return List.of();
+        }
+        // The head of the heap is the last of the groups selected so far
+        PriorityQueue<Map.Entry<String, GroupStats>> heap = new PriorityQueue<>(Math.min(topGroups, groupStats.size()), order.reversed());
+        for (Map.Entry<String, GroupStats> entry : groupStats.entrySet()) {
+            if (heap.size() < topGroups) {
+                heap.add(Map.entry(entry.getKey(), entry.getValue()));
+            } else if (order.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        List<Map.Entry<String, GroupStats>> top = new ArrayList<>(heap);
+        top.sort(order);
+        return top;
+    }
+}
@@ -2,7 +2,11 @@ package com.pyx4j.nxrm.cleanup;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.List;
+import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
@@ -19,6 +23,8 @@ public class JsonReportWriter implements ReportWriter {
         this.writer = writer;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        // Several sections are written to the same writer, it is closed by close()
+        this.objectMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @Override
@@ -26,13 +32,24 @@ public class JsonReportWriter implements ReportWriter {
         objectMapper.writeValue(writer, summary);
     }
 
+    /**
+     * A groups summary with the names of its top groups, in the order of the console report.
+     * All groups are written so that partial reports can be merged.
+     */
+    private record RankedGroupsSummary(@JsonUnwrapped GroupsSummary summary, List<String> topGroups) {
+    }
+
     @Override
     public void writeGroupsSummary(GroupsSummary summary, SortBy sortBy, int topGroups) throws IOException {
-        objectMapper.writeValue(writer, summary);
+        List<String> top = GroupRanking.top(summary.getGroupStats(), sortBy, topGroups).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+        objectMapper.writeValue(writer, new RankedGroupsSummary(summary, top));
     }
 
     @Override
-    public void writeComponent(ComponentXO component) throws IOException {
+    public void writeComponent(ComponentXO component, long sizeBytes) throws IOException {
+        // The asset sizes are part of the component
         objectMapper.writeValue(writer, component);
     }
 
@@ -0,0 +1,654 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Regular expression matched in time linear in the value length, without backtracking.
+ * <p>
+ * The expression is compiled into a Thompson NFA program which is simulated on all threads at once
+ * (Pike VM, as in RE2), so matching takes at most O(value length x program size) steps for any expression.
+ * The value must match the whole expression, like wildcard patterns.
+ * <p>
+ * Supported syntax: literals, {@code .}, character classes {@code [a-z0-9_]} and {@code [^...]},
+ * escapes {@code \d \w \s \D \W \S} and escaped meta characters, groups {@code (...)} and {@code (?:...)},
+ * alternation {@code |} and the quantifiers {@code * + ? {n} {n,} {n,m}}, lazy quantifiers are accepted
+ * and match the same values. {@code ^} and {@code $} are accepted at the ends of the expression only.
+ * Backreferences and lookaround cannot be matched in linear time and are rejected.
+ */
+final class LinearRegex {
+
+    /**
+     * Maximum number of program instructions, bounds the matching cost per character.
+     */
+    static final int MAX_PROGRAM_SIZE = 10_000;
+
+    /**
+     * Maximum repetition count of bounded quantifiers.
+     */
+    static final int MAX_REPEAT = 1_000;
+
+    private static final int CHAR = 0;
+    private static final int CLASS = 1;
+    private static final int ANY = 2;
+    private static final int SPLIT = 3;
+    private static final int JUMP = 4;
+    private static final int MATCH = 5;
+
+    private final String expression;
+
+    private final int[] opcodes;
+
+    /**
+     * Character, class index or first jump target depending on the opcode.
+     */
+    private final int[] arguments;
+
+    /**
+     * Second jump target of {@link #SPLIT}.
+     */
+    private final int[] targets;
+
+    private final CharClass[] classes;
+
+    private final ThreadLocal<Threads[]> threads;
+
+    private LinearRegex(String expression, Program program) {
+        this.expression = expression;
+        this.opcodes = program.opcodes.stream().mapToInt(Integer::intValue).toArray();
+        this.arguments = program.arguments.stream().mapToInt(Integer::intValue).toArray();
+        this.targets = program.targets.stream().mapToInt(Integer::intValue).toArray();
+        this.classes = program.classes.toArray(new CharClass[0]);
+        int size = opcodes.length;
+        this.threads = ThreadLocal.withInitial(() -> new Threads[]{new Threads(size), new Threads(size)});
+    }
+
+    /**
+     * Compiles a regular expression.
+     *
+     * @param expression The expression, see the class description for the syntax
+     * @return Compiled expression
+     * @throws IllegalArgumentException if the expression is invalid or not supported
+     */
+    @NonNull
+    static LinearRegex compile(@NonNull String expression) {
+        return compileAny(List.of(expression));
+    }
+
+    /**
+     * Compiles expressions into one program matching a value if any of them matches.
+     *
+     * @param expressions The expressions, see the class description for the syntax
+     * @return Compiled alternation of the expressions
+     * @throws IllegalArgumentException if an expression is invalid or not supported
+     */
+    @NonNull
+    static LinearRegex compileAny(@NonNull List<String> expressions) {
+        Objects.requireNonNull(expressions, "Expressions cannot be null");
+        List<Node> alternatives = new ArrayList<>();
+        for (String expression : expressions) {
+            alternatives.add(new Parser(Objects.requireNonNull(expression, "Expression cannot be null")).parse());
+        }
+        Program program = new Program();
+        program.emit(alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives));
+        program.add(MATCH, 0, 0);
+        return new LinearRegex(String.join("|", expressions), program);
+    }
+
+    /**
+     * Tests if the whole value matches the expression.
+     *
+     * @param value The value to test
+     * @return true if the value matches
+     */
+    boolean matches(@NonNull String value) {
+        return run(value, null);
+    }
+
+    /**
+     * Counts the threads stepped to match a value, at most the program size per character.
+     *
+     * @param value The value to test
+     * @return Number of instructions evaluated against a character of the value
+     */
+    long countSteps(@NonNull String value) {
+        long[] steps = new long[1];
+        run(value, steps);
+        return steps[0];
+    }
+
+    /**
+     * @param steps Counter of the stepped threads, null when not counted
+     */
+    private boolean run(String value, long @Nullable [] steps) {
+        Threads[] lists = threads.get();
+        Threads current = lists[0];
+        Threads next = lists[1];
+        current.clear();
+        addThread(current, 0);
+        int length = value.length();
+        for (int index = 0; index < length && current.size > 0; ) {
+            int c = value.codePointAt(index);
+            index += Character.charCount(c);
+            next.clear();
+            if (steps != null) {
+                steps[0] += current.size;
+            }
+            for (int i = 0; i < current.size; i++) {
+                int pc = current.dense[i];
+                boolean advances = switch (opcodes[pc]) {
+                    case CHAR -> arguments[pc] == c;
+                    case CLASS -> classes[arguments[pc]].contains(c);
+                    case ANY -> true;
+                    default -> false;
+                };
+                if (advances) {
+                    addThread(next, pc + 1);
+                }
+            }
+            Threads swap = current;
+            current = next;
+            next = swap;
+        }
+        for (int i = 0; i < current.size; i++) {
+            if (opcodes[current.dense[i]] == MATCH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a thread and follows its jumps, each instruction is added once per position.
+     */
+    private void addThread(Threads list, int start) {
+        int[] stack = list.stack;
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int pc = stack[--top];
+            if (list.contains(pc)) {
+                continue;
+            }
+            list.add(pc);
+            switch (opcodes[pc]) {
+                case JUMP -> stack[top++] = arguments[pc];
+                case SPLIT -> {
+                    // Push the second target first so the first one is followed first
+                    stack[top++] = targets[pc];
+                    stack[top++] = arguments[pc];
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of program instructions
+     */
+    int programSize() {
+        return opcodes.length;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Sparse set of instructions, cleared in constant time.
+     */
+    private static final class Threads {
+
+        private final int[] dense;
+
+        private final int[] sparse;
+
+        private final int[] stack;
+
+        private int size;
+
+        Threads(int capacity) {
+            dense = new int[capacity];
+            sparse = new int[capacity];
+            // Every instruction is pushed at most twice, by a split and after being added
+            stack = new int[2 * capacity + 1];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean contains(int pc) {
+            int index = sparse[pc];
+            return index < size && dense[index] == pc;
+        }
+
+        void add(int pc) {
+            sparse[pc] = size;
+            dense[size++] = pc;
+        }
+    }
+
+    /**
+     * Set of code points as sorted, non-overlapping inclusive ranges.
+     */
+    private record CharClass(int[] ranges, boolean negated) {
+
+        boolean contains(int c) {
+            // Binary search for the last range starting at or before c
+            int low = 0;
+            int high = ranges.length / 2 - 1;
+            boolean found = false;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (ranges[2 * middle] > c) {
+                    high = middle - 1;
+                } else if (ranges[2 * middle + 1] < c) {
+                    low = middle + 1;
+                } else {
+                    found = true;
+                    break;
+                }
+            }
+            return found != negated;
+        }
+
+        static CharClass of(List<int[]> ranges, boolean negated) {
+            ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+            List<int[]> merged = new ArrayList<>();
+            for (int[] range : ranges) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(new int[]{range[0], range[1]});
+                }
+            }
+            int[] flat = new int[merged.size() * 2];
+            for (int i = 0; i < merged.size(); i++) {
+                flat[2 * i] = merged.get(i)[0];
+                flat[2 * i + 1] = merged.get(i)[1];
+            }
+            return new CharClass(flat, negated);
+        }
+    }
+
+    private sealed interface Node permits Literal, ClassNode, AnyChar, Sequence, Alternation, Repeat {
+    }
+
+    private record Literal(int c) implements Node {
+    }
+
+    private record ClassNode(CharClass charClass) implements Node {
+    }
+
+    private record AnyChar() implements Node {
+    }
+
+    private record Sequence(List<Node> nodes) implements Node {
+    }
+
+    private record Alternation(List<Node> alternatives) implements Node {
+    }
+
+    /**
+     * @param max Maximum count, -1 for unbounded
+     */
+    private record Repeat(Node node, int min, int max) implements Node {
+    }
+
+    /**
+     * Thompson construction of the NFA program.
+     */
+    private static final class Program {
+
+        private final List<Integer> opcodes = new ArrayList<>();
+        private final List<Integer> arguments = new ArrayList<>();
+        private final List<Integer> targets = new ArrayList<>();
+        private final List<CharClass> classes = new ArrayList<>();
+
+        int add(int opcode, int argument, int target) {
+            if (opcodes.size() >= MAX_PROGRAM_SIZE) {
+                throw new IllegalArgumentException("Regular expression is too large, more than " + MAX_PROGRAM_SIZE + " instructions");
+            }
+            opcodes.add(opcode);
+            arguments.add(argument);
+            targets.add(target);
+            return opcodes.size() - 1;
+        }
+
+        int next() {
+            return opcodes.size();
+        }
+
+        void emit(Node node) {
+            if (node instanceof Literal literal) {
+                add(CHAR, literal.c(), 0);
+            } else if (node instanceof ClassNode classNode) {
+                classes.add(classNode.charClass());
+                add(CLASS, classes.size() - 1, 0);
+            } else if (node instanceof AnyChar) {
+                add(ANY, 0, 0);
+            } else if (node instanceof Sequence sequence) {
+                sequence.nodes().forEach(this::emit);
+            } else if (node instanceof Alternation alternation) {
+                emitAlternation(alternation.alternatives());
+            } else {
+                emitRepeat((Repeat) node);
+            }
+        }
+
+        private void emitAlternation(List<Node> alternatives) {
+            List<Integer> jumps = new ArrayList<>();
+            for (int i = 0; i < alternatives.size() - 1; i++) {
+                int split = add(SPLIT, 0, 0);
+                arguments.set(split, next());
+                emit(alternatives.get(i));
+                jumps.add(add(JUMP, 0, 0));
+                targets.set(split, next());
+            }
+            emit(alternatives.get(alternatives.size() - 1));
+            for (int jump : jumps) {
+                arguments.set(jump, next());
+            }
+        }
+
+        private void emitRepeat(Repeat repeat) {
+            for (int i = 0; i < repeat.min(); i++) {
+                emit(repeat.node());
+            }
+            if (repeat.max() < 0) {
+                // L: split body, out; body; jump L
+                int split = add(SPLIT, 0, 0);
+                arguments.set(split, next());
+                emit(repeat.node());
+                add(JUMP, split, 0);
+                targets.set(split, next());
+                return;
+            }
+            List<Integer> splits = new ArrayList<>();
+            for (int i = repeat.min(); i < repeat.max(); i++) {
+                int split = add(SPLIT, 0, 0);
+                arguments.set(split, next());
+                splits.add(split);
+                emit(repeat.node());
+            }
+            for (int split : splits) {
+                targets.set(split, next());
+            }
+        }
+    }
+
+    /**
+     * Recursive descent parser of the supported syntax.
+     */
+    private static final class Parser {
+
+        private final String expression;
+
+        private int position;
+
+        private int end;
+
+        Parser(String expression) {
+            this.expression = expression;
+            this.end = expression.length();
+        }
+
+        Node parse() {
+            // Anchors at the ends are implied by whole value matching
+            if (position < end && expression.charAt(position) == '^') {
+                position++;
+            }
+            if (end > position && expression.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+                end--;
+            }
+            Node node = parseAlternation();
+            if (position < end) {
+                throw error("Unmatched ')'");
+            }
+            return node;
+        }
+
+        private boolean isEscaped(int index) {
+            int backslashes = 0;
+            for (int i = index - 1; i >= 0 && expression.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+
+        private Node parseAlternation() {
+            List<Node> alternatives = new ArrayList<>();
+            alternatives.add(parseSequence());
+            while (position < end && expression.charAt(position) == '|') {
+                position++;
+                alternatives.add(parseSequence());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+        }
+
+        private Node parseSequence() {
+            List<Node> nodes = new ArrayList<>();
+            while (position < end && expression.charAt(position) != '|' && expression.charAt(position) != ')') {
+                nodes.add(parseRepeat(parseAtom()));
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+        }
+
+        private Node parseRepeat(Node atom) {
+            Node node = atom;
+            while (position < end) {
+                char c = expression.charAt(position);
+                int min;
+                int max;
+                if (c == '*') {
+                    min = 0;
+                    max = -1;
+                    position++;
+                } else if (c == '+') {
+                    min = 1;
+                    max = -1;
+                    position++;
+                } else if (c == '?') {
+                    min = 0;
+                    max = 1;
+                    position++;
+                } else if (c == '{' && isBoundedRepeat()) {
+                    position++;
+                    min = parseNumber();
+                    max = min;
+                    if (expression.charAt(position) == ',') {
+                        position++;
+                        max = expression.charAt(position) == '}' ? -1 : parseNumber();
+                    }
+                    position++; // '}'
+                    if (max >= 0 && max < min) {
+                        throw error("Invalid repetition range");
+                    }
+                    if (min > MAX_REPEAT || max > MAX_REPEAT) {
+                        throw error("Repetition count larger than " + MAX_REPEAT);
+                    }
+                } else {
+                    break;
+                }
+                // Lazy and possessive forms match the same values
+                if (position < end && (expression.charAt(position) == '?' || expression.charAt(position) == '+')) {
+                    position++;
+                }
+                node = new Repeat(node, min, max);
+            }
+            return node;
+        }
+
+        private boolean isBoundedRepeat() {
+            int i = position + 1;
+            int digits = 0;
+            while (i < end && Character.isDigit(expression.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < end && expression.charAt(i) == ',') {
+                i++;
+                while (i < end && Character.isDigit(expression.charAt(i))) {
+                    i++;
+                }
+            }
+            return i < end && expression.charAt(i) == '}';
+        }
+
+        private int parseNumber() {
+            int start = position;
+            while (Character.isDigit(expression.charAt(position))) {
+                position++;
+            }
+            try {
+                return Integer.parseInt(expression.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Repetition count larger than " + MAX_REPEAT);
+            }
+        }
+
+        private Node parseAtom() {
+            int c = expression.codePointAt(position);
+            switch (c) {
+                case '(' -> {
+                    position++;
+                    if (expression.startsWith("?:", position)) {
+                        position += 2;
+                    } else if (position < end && expression.charAt(position) == '?') {
+                        throw error("Lookaround and inline flags are not supported");
+                    }
+                    Node group = parseAlternation();
+                    if (position >= end || expression.charAt(position) != ')') {
+                        throw error("Missing ')'");
+                    }
+                    position++;
+                    return group;
+                }
+                case '[' -> {
+                    return parseClass();
+                }
+                case '.' -> {
+                    position++;
+                    return new AnyChar();
+                }
+                case '\\' -> {
+                    return parseEscape(false);
+                }
+                case '*', '+', '?' -> throw error("Nothing to repeat");
+                case '^', '$' -> throw error("Anchors are only supported at the start and end");
+                default -> {
+                    position += Character.charCount(c);
+                    return new Literal(c);
+                }
+            }
+        }
+
+        /**
+         * @param inClass true inside a character class, where only single characters and class escapes are allowed
+         */
+        private Node parseEscape(boolean inClass) {
+            position++;
+            if (position >= end) {
+                throw error("Trailing '\\'");
+            }
+            int c = expression.codePointAt(position);
+            position += Character.charCount(c);
+            return switch (c) {
+                case 'd' -> new ClassNode(CharClass.of(new ArrayList<>(List.of(new int[]{'0', '9'})), false));
+                case 'D' -> new ClassNode(CharClass.of(new ArrayList<>(List.of(new int[]{'0', '9'})), true));
+                case 'w' -> new ClassNode(CharClass.of(wordRanges(), false));
+                case 'W' -> new ClassNode(CharClass.of(wordRanges(), true));
+                case 's' -> new ClassNode(CharClass.of(spaceRanges(), false));
+                case 'S' -> new ClassNode(CharClass.of(spaceRanges(), true));
+                case 't' -> new Literal('\t');
+                case 'n' -> new Literal('\n');
+                case 'r' -> new Literal('\r');
+                default -> {
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error(Character.isDigit(c) ? "Backreferences are not supported" : "Unsupported escape '\\" + Character.toString(c) + "'");
+                    }
+                    yield new Literal(c);
+                }
+            };
+        }
+
+        private Node parseClass() {
+            position++;
+            boolean negated = false;
+            if (position < end && expression.charAt(position) == '^') {
+                negated = true;
+                position++;
+            }
+            List<int[]> ranges = new ArrayList<>();
+            boolean first = true;
+            while (position < end && (expression.charAt(position) != ']' || first)) {
+                first = false;
+                int low;
+                if (expression.charAt(position) == '\\') {
+                    Node escaped = parseEscape(true);
+                    if (escaped instanceof ClassNode classNode) {
+                        if (classNode.charClass().negated()) {
+                            throw error("Negated class escapes are not supported inside '[...]'");
+                        }
+                        int[] flat = classNode.charClass().ranges();
+                        for (int i = 0; i < flat.length; i += 2) {
+                            ranges.add(new int[]{flat[i], flat[i + 1]});
+                        }
+                        continue;
+                    }
+                    low = ((Literal) escaped).c();
+                } else {
+                    low = expression.codePointAt(position);
+                    position += Character.charCount(low);
+                }
+                int high = low;
+                if (position + 1 < end && expression.charAt(position) == '-' && expression.charAt(position + 1) != ']') {
+                    position++;
+                    if (expression.charAt(position) == '\\') {
+                        Node escaped = parseEscape(true);
+                        if (!(escaped instanceof Literal literal)) {
+                            throw error("Invalid class range");
+                        }
+                        high = literal.c();
+                    } else {
+                        high = expression.codePointAt(position);
+                        position += Character.charCount(high);
+                    }
+                    if (high < low) {
+                        throw error("Invalid class range");
+                    }
+                }
+                ranges.add(new int[]{low, high});
+            }
+            if (position >= end) {
+                throw error("Missing ']'");
+            }
+            position++;
+            return new ClassNode(CharClass.of(ranges, negated));
+        }
+
+        private static List<int[]> wordRanges() {
+            return new ArrayList<>(Arrays.asList(new int[]{'0', '9'}, new int[]{'A', 'Z'}, new int[]{'_', '_'}, new int[]{'a', 'z'}));
+        }
+
+        private static List<int[]> spaceRanges() {
+            return new ArrayList<>(Arrays.asList(new int[]{'\t', '\r'}, new int[]{' ', ' '}));
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + position + " in regular expression '" + expression + "'");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import com.pyx4j.nxrm.cleanup.model.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+@CommandLine.Command(name = "merge-reports",
+        description = "Merge partial reports of sharded or per-server runs into one report",
+        sortOptions = false, mixinStandardHelpOptions = true)
+public class MergeReportsCommand implements Callable<Integer> {
+
+    private static final Logger log = LoggerFactory.getLogger(MergeReportsCommand.class);
+
+    @CommandLine.Parameters(
+            arity = "1..*",
+            paramLabel = "REPORT",
+            description = "Partial JSON or CSV reports written with --report-output-file")
+    public List<Path> reportFiles;
+
+    @CommandLine.Option(
+            names = {"--dry-run"},
+            description = "The partial reports were created in dry-run mode")
+    public boolean dryRun;
+
+    @CommandLine.Option(
+            names = {"--repo-sort"},
+            description = "Sort repositories by: ${COMPLETION-CANDIDATES} (default: components)",
+            converter = SortBy.CaseInsensitiveEnumConverter.class)
+    public SortBy repositoriesSortBy = SortBy.COMPONENTS;
+
+    @CommandLine.Option(
+            names = {"--top-groups"},
+            description = "Report to show only the top N groups (default: 10)")
+    public int topGroups = 10;
+
+    @CommandLine.Option(
+            names = {"--group-sort"},
+            description = "Sort groups by: ${COMPLETION-CANDIDATES} (default: components)",
+            converter = SortBy.CaseInsensitiveEnumConverter.class)
+    public SortBy groupSort = SortBy.COMPONENTS;
+
+    @CommandLine.Option(
+            names = {"--report-output-file"},
+            description = "Save merged report to a file (e.g., report.json, report.csv)")
+    public String reportOutputFile;
+
+    public Integer call() throws Exception {
+        ReportMerger merger = new ReportMerger();
+        for (Path reportFile : reportFiles) {
+            merger.merge(reportFile);
+        }
+        if (merger.isEmpty()) {
+            log.error("No report sections found in {}", reportFiles);
+            return 1;
+        }
+
+        boolean hasPreviousOutput = false;
+        for (RepositoryComponentsSummary summary : merger.getRepositorySummaries()) {
+            if (hasPreviousOutput) {
+                System.out.println(); // Add blank line between reports
+            }
+            NxReportConsole.printSummary(summary, repositoriesSortBy, dryRun);
+            hasPreviousOutput = true;
+        }
+        for (GroupsSummary summary : merger.getGroupSummaries()) {
+            if (hasPreviousOutput) {
+                System.out.println(); // Add blank line between reports
+            }
+            NxReportConsole.printGroupsSummary(summary, groupSort, topGroups, dryRun);
+            hasPreviousOutput = true;
+        }
+
+        try (ReportWriter reportWriter = ReportWriterFactory.create(reportOutputFile)) {
+            if (reportWriter != null) {
+                for (RepositoryComponentsSummary summary : merger.getRepositorySummaries()) {
+                    reportWriter.writeRepositoryComponentsSummary(summary, repositoriesSortBy);
+                }
+                for (GroupsSummary summary : merger.getGroupSummaries()) {
+                    reportWriter.writeGroupsSummary(summary, groupSort, topGroups);
+                }
+            }
+        }
+        return 0;
+    }
+}
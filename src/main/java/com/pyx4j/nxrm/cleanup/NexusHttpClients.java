@@ -0,0 +1,207 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pyx4j.nxrm.cleanup.model.HttpProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Reactor Netty resources shared by all Nexus servers scanned in one run.
+ * Every HTTP client created here runs on the same event loop group and uses the same connection pool.
+ * <p>
+ * Responses are requested compressed and decompressed while streamed; received bytes are counted
+ * on the socket and after decompression to report the bandwidth saved.
+ * <p>
+ * The connection pool is configured explicitly, see {@link Options}, so connections are reused across repositories
+ * and evicted before proxies or load balancers silently drop them.
+ */
+final class NexusHttpClients implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NexusHttpClients.class);
+
+    private static final String RESOURCES_NAME = "nxrm-cleanup";
+
+    private static final String WIRE_BYTES_HANDLER = "nxrm-cleanup.wireBytes";
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final Options options;
+
+    private final LoopResources loopResources;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final LongAdder wireBytes = new LongAdder();
+
+    private final LongAdder decodedBytes = new LongAdder();
+
+    NexusHttpClients() {
+        this(Options.defaults());
+    }
+
+    NexusHttpClients(@NonNull Options options) {
+        this.options = Objects.requireNonNull(options, "Options cannot be null");
+        this.loopResources = LoopResources.create(RESOURCES_NAME, LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+
+        ConnectionProvider.Builder pool = ConnectionProvider.builder(RESOURCES_NAME)
+                .maxConnections(options.maxConnections())
+                .pendingAcquireMaxCount(options.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(options.pendingAcquireTimeout());
+        if (options.maxIdleTime() != null) {
+            pool.maxIdleTime(options.maxIdleTime());
+        }
+        if (options.maxLifeTime() != null) {
+            pool.maxLifeTime(options.maxLifeTime());
+        }
+        Duration evictionInterval = evictionInterval(options);
+        if (evictionInterval != null) {
+            // Idle connections are closed even when the pool is not used, e.g. while a large repository is processed
+            pool.evictInBackground(evictionInterval);
+        }
+        this.connectionProvider = pool.build();
+        log.debug("HTTP connection pool {}", options);
+    }
+
+    @Nullable
+    private static Duration evictionInterval(Options options) {
+        Duration shortest = options.maxIdleTime();
+        if (shortest == null || (options.maxLifeTime() != null && options.maxLifeTime().compareTo(shortest) < 0)) {
+            shortest = options.maxLifeTime();
+        }
+        if (shortest == null) {
+            return null;
+        }
+        // Check a few times per period, but not more often than every second
+        Duration interval = shortest.dividedBy(2);
+        return interval.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : interval;
+    }
+
+    /**
+     * Creates an HTTP client bound to the shared event loop group and connection pool.
+     *
+     * @return New HTTP client instance
+     */
+    HttpClient create() {
+        return HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .option(ChannelOption.SO_KEEPALIVE, options.tcpKeepAlive())
+                .protocol(protocols(options.protocol()))
+                // Adds the decompressor for gzip and deflate encoded responses
+                .compress(true)
+                // First in the pipeline, before TLS and HTTP decoding, so the bytes read from the socket are counted
+                .doOnChannelInit((observer, channel, remoteAddress) ->
+                        channel.pipeline().addFirst(WIRE_BYTES_HANDLER, new WireBytesCounter(wireBytes)));
+    }
+
+    private static HttpProtocol[] protocols(HttpProtocolVersion version) {
+        return switch (version) {
+            case HTTP11 -> new HttpProtocol[]{HttpProtocol.HTTP11};
+            // HTTP/1.1 remains available for servers without HTTP/2 support
+            case H2 -> new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+            case H2C -> new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11};
+        };
+    }
+
+    /**
+     * Negotiates response compression and counts decoded response body bytes.
+     *
+     * @return Filter to register on WebClient instances using clients created by {@link #create()}
+     */
+    ExchangeFilterFunction trafficFilter() {
+        return (request, next) -> next
+                .exchange(ClientRequest.from(request)
+                        .headers(headers -> headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING))
+                        .build())
+                .map(response -> response.mutate()
+                        .body(body -> body.doOnNext(buffer -> decodedBytes.add(buffer.readableByteCount())))
+                        .build());
+    }
+
+    /**
+     * @return Bytes received from the network, including HTTP headers and TLS overhead
+     */
+    long getWireBytes() {
+        return wireBytes.sum();
+    }
+
+    /**
+     * @return Response body bytes after decompression
+     */
+    long getDecodedBytes() {
+        return decodedBytes.sum();
+    }
+
+    @Override
+    public void close() {
+        log.trace("Disposing shared HTTP client resources");
+        connectionProvider.dispose();
+        loopResources.dispose();
+    }
+
+    /**
+     * Connection pool and transport settings.
+     *
+     * @param maxConnections         Maximum number of connections per remote address (server or proxy)
+     * @param pendingAcquireMaxCount Maximum number of requests waiting for a connection, -1 for no limit
+     * @param pendingAcquireTimeout  Maximum time a request waits for a connection
+     * @param maxIdleTime            Idle time after which a connection is closed, null to keep idle connections
+     * @param maxLifeTime            Time after which a connection is closed, null for no limit
+     * @param tcpKeepAlive           Enables TCP keep-alive probes on connections
+     * @param protocol               HTTP protocol version
+     */
+    record Options(int maxConnections, int pendingAcquireMaxCount, @NonNull Duration pendingAcquireTimeout,
+                   @Nullable Duration maxIdleTime, @Nullable Duration maxLifeTime, boolean tcpKeepAlive,
+                   @NonNull HttpProtocolVersion protocol) {
+
+        Options {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("Max connections must be at least 1");
+            }
+            if (pendingAcquireMaxCount < 1 && pendingAcquireMaxCount != -1) {
+                throw new IllegalArgumentException("Pending acquire max count must be at least 1, or -1 for no limit");
+            }
+            Objects.requireNonNull(pendingAcquireTimeout, "Pending acquire timeout cannot be null");
+            Objects.requireNonNull(protocol, "Protocol cannot be null");
+        }
+
+        static Options defaults() {
+            return new Options(64, -1, Duration.ofSeconds(60), Duration.ofSeconds(30), Duration.ofMinutes(10), true, HttpProtocolVersion.HTTP11);
+        }
+    }
+
+    /**
+     * Counts raw inbound bytes of one channel.
+     */
+    private static final class WireBytesCounter extends ChannelInboundHandlerAdapter {
+
+        private final LongAdder counter;
+
+        WireBytesCounter(LongAdder counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf buffer) {
+                counter.add(buffer.readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.base.Strings;
+import com.pyx4j.nxrm.cleanup.model.NexusServer;
+import com.pyx4j.nxrm.cleanup.model.NexusServerSet;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Parser and validator for Nexus server definitions in YAML format.
+ * Values may reference environment variables as {@code ${NAME}} so credentials do not need to be stored in the file.
+ */
+public final class NexusServerParser {
+
+    private static final Pattern ENV_REFERENCE = Pattern.compile("\\$\\{([A-Za-z_][A-Za-z0-9_]*)}");
+
+    private final ObjectMapper yamlMapper;
+
+    private final Function<String, String> environment;
+
+    public NexusServerParser() {
+        this(System::getenv);
+    }
+
+    NexusServerParser(@NonNull Function<String, String> environment) {
+        this.yamlMapper = new ObjectMapper(new YAMLFactory());
+        this.environment = Objects.requireNonNull(environment, "Environment cannot be null");
+    }
+
+    /**
+     * Parses server definitions from a YAML file.
+     *
+     * @param yamlFile The path to the YAML file
+     * @return The parsed and validated server set
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the YAML content is invalid
+     */
+    @NonNull
+    public NexusServerSet parseFromFile(@NonNull Path yamlFile) throws IOException {
+        Objects.requireNonNull(yamlFile, "YAML file path cannot be null");
+
+        try (InputStream inputStream = Files.newInputStream(yamlFile)) {
+            NexusServerSet serverSet = yamlMapper.readValue(inputStream, NexusServerSet.class);
+            resolveAndValidate(serverSet);
+            return serverSet;
+        }
+    }
+
+    /**
+     * Parses server definitions from a YAML string.
+     *
+     * @param yamlContent The YAML content as a string
+     * @return The parsed and validated server set
+     * @throws IOException              if the YAML cannot be parsed
+     * @throws IllegalArgumentException if the YAML content is invalid
+     */
+    @NonNull
+    public NexusServerSet parseFromString(@NonNull String yamlContent) throws IOException {
+        Objects.requireNonNull(yamlContent, "YAML content cannot be null");
+
+        NexusServerSet serverSet = yamlMapper.readValue(yamlContent, NexusServerSet.class);
+        resolveAndValidate(serverSet);
+        return serverSet;
+    }
+
+    private void resolveAndValidate(@NonNull NexusServerSet serverSet) {
+        Objects.requireNonNull(serverSet, "Server set cannot be null");
+
+        List<NexusServer> servers = serverSet.getServers();
+        if (servers == null || servers.isEmpty()) {
+            throw new IllegalArgumentException("Server set must contain at least one server");
+        }
+
+        Set<String> serverNames = new HashSet<>();
+        for (NexusServer server : servers) {
+            Objects.requireNonNull(server, "Server cannot be null");
+            if (Strings.isNullOrEmpty(server.getName()) || server.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Server must have a non-empty name");
+            }
+            if (!serverNames.add(server.getName())) {
+                throw new IllegalArgumentException("Duplicate server name found: '" + server.getName() + "'");
+            }
+
+            String serverName = server.getName();
+            String url = resolve(server.getUrl(), serverName);
+            if (Strings.isNullOrEmpty(url)) {
+                throw new IllegalArgumentException("Server '" + serverName + "' must have a url");
+            }
+            server.setUrl(url);
+            server.setUsername(resolve(server.getUsername(), serverName));
+            server.setPassword(resolve(server.getPassword(), serverName));
+            server.setToken(resolve(server.getToken(), serverName));
+            server.setProxy(resolve(server.getProxy(), serverName));
+            server.setRules(resolve(server.getRules(), serverName));
+        }
+    }
+
+    /**
+     * Replaces {@code ${NAME}} references with environment variable values.
+     *
+     * @throws IllegalArgumentException if a referenced variable is not set
+     */
+    @Nullable
+    private String resolve(@Nullable String value, @NonNull String serverName) {
+        if (value == null) {
+            return null;
+        }
+
+        Matcher matcher = ENV_REFERENCE.matcher(value);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String variable = matcher.group(1);
+            String replacement = environment.apply(variable);
+            if (replacement == null) {
+                throw new IllegalArgumentException("Environment variable '" + variable +
+                        "' referenced by server '" + serverName + "' is not set");
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+}
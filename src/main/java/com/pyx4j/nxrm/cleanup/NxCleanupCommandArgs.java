@@ -1,21 +1,34 @@
 package com.pyx4j.nxrm.cleanup;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 
+import com.google.common.base.Strings;
+import com.pyx4j.nxrm.cleanup.model.HttpProtocolVersion;
 import com.pyx4j.nxrm.cleanup.model.SortBy;
 import picocli.CommandLine;
 
 @CommandLine.Command(name = "nexus-repository-cleanup.jar",
         description = "Nexus Repository Cleanup Tool",
         versionProvider = ManifestVersionProvider.class,
+        subcommands = {MergeReportsCommand.class},
         sortOptions = false, mixinStandardHelpOptions = true)
 public class NxCleanupCommandArgs implements Callable<Integer> {
 
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
     @CommandLine.Option(
             names = {"--rules"},
-            description = "The cleanup rules",
-            required = true)
-    public String rulesFile;
+            arity = "1..*",
+            description = "The cleanup rules (also the default rules for servers defined in --servers), "
+                    + "several files are compared side by side in one scan, only with --dry-run")
+    public List<String> rulesFiles;
+
+    @CommandLine.Option(
+            names = {"--watch-rules"},
+            description = "Reload the rules files when they change during the run, pages already being processed finish with the previous rules")
+    public boolean watchRules;
 
     @CommandLine.Option(
             names = {"--dry-run"},
@@ -24,7 +37,7 @@ public class NxCleanupCommandArgs implements Callable<Integer> {
 
     @CommandLine.Option(
             names = {"--url"},
-            description = "Nexus Repository Manager URL", required = true,
+            description = "Nexus Repository Manager URL",
             defaultValue = "${NEXUS_URL}")
     public String nexusServerUrl;
 
@@ -51,6 +64,75 @@ public class NxCleanupCommandArgs implements Callable<Integer> {
             description = "Proxy server URL (e.g., proxy.example.com:8081 or http://proxy.example.com:8081)")
     public String proxyUrl;
 
+    @CommandLine.Option(
+            names = {"--servers"},
+            description = "YAML file with several Nexus server definitions, each with its own credentials and rules, scanned in one run")
+    public String serversFile;
+
+    @CommandLine.Option(
+            names = {"--concurrency"},
+            description = "Maximum number of repositories processed concurrently, shared by all servers (default: 256)")
+    public int concurrency = 256;
+
+    @CommandLine.Option(
+            names = {"--max-connections"},
+            description = "Maximum number of pooled HTTP connections per server (default: 64)")
+    public int maxConnections = 64;
+
+    @CommandLine.Option(
+            names = {"--pending-acquire-max-count"},
+            description = "Maximum number of requests waiting for a pooled connection, -1 for no limit (default: -1)")
+    public int pendingAcquireMaxCount = -1;
+
+    @CommandLine.Option(
+            names = {"--pending-acquire-timeout"},
+            description = "Seconds a request waits for a pooled connection (default: 60)")
+    public long pendingAcquireTimeoutSeconds = 60;
+
+    @CommandLine.Option(
+            names = {"--max-idle-time"},
+            description = "Seconds after which an idle connection is closed, 0 to keep idle connections (default: 30)")
+    public long maxIdleTimeSeconds = 30;
+
+    @CommandLine.Option(
+            names = {"--max-life-time"},
+            description = "Seconds after which a connection is closed, 0 for no limit (default: 600)")
+    public long maxLifeTimeSeconds = 600;
+
+    @CommandLine.Option(
+            names = {"--tcp-keep-alive"},
+            negatable = true,
+            defaultValue = "true",
+            fallbackValue = "true",
+            description = "Enable TCP keep-alive on connections (default: true)")
+    public boolean tcpKeepAlive = true;
+
+    @CommandLine.Option(
+            names = {"--http-protocol"},
+            description = "HTTP protocol: ${COMPLETION-CANDIDATES} (default: http11)",
+            converter = HttpProtocolVersion.CaseInsensitiveEnumConverter.class)
+    public HttpProtocolVersion httpProtocol = HttpProtocolVersion.HTTP11;
+
+    @CommandLine.Option(
+            names = {"--shard-index"},
+            description = "Index of this shard, from 0 to shard count - 1 (default: 0)")
+    public int shardIndex = 0;
+
+    @CommandLine.Option(
+            names = {"--shard-count"},
+            description = "Number of shards (separate processes) the repositories are partitioned into (default: 1)")
+    public int shardCount = 1;
+
+    @CommandLine.Option(
+            names = {"--shard-weights"},
+            description = "JSON report of a previous run, used to balance shards by repository component counts")
+    public String shardWeightsFile;
+
+    @CommandLine.Option(
+            names = {"--retention-memory-artifacts"},
+            description = "Maximum number of artifacts per repository whose latest versions are tracked in memory for 'retainLatest' rules, further artifacts are tracked on disk, also bounds the components a policy simulation keeps in memory (default: 100000)")
+    public int retentionMemoryArtifacts = RetentionTracker.DEFAULT_MAX_ARTIFACTS_IN_MEMORY;
+
     @CommandLine.Option(
             names = {"--report-repositories-summary"},
             description = "Report repositories summary")
@@ -78,6 +160,12 @@ public class NxCleanupCommandArgs implements Callable<Integer> {
             converter = SortBy.CaseInsensitiveEnumConverter.class)
     public SortBy groupSort = SortBy.COMPONENTS;
 
+    @CommandLine.Option(
+            names = {"--approximate-groups"},
+            description = "Track only N groups in fixed memory for the top groups report, ranked by removed components, "
+                    + "or removed size with '--group-sort size', estimates and their error bound are reported (default: 0, all groups)")
+    public int approximateGroups;
+
     @CommandLine.Option(
             names = {"--report-output-file"},
             description = "Save report to a file (e.g., report.json, report.csv)")
@@ -90,7 +178,54 @@ public class NxCleanupCommandArgs implements Callable<Integer> {
 
 
     public Integer call() throws Exception {
+        validate();
         return new NxCleanupJob(this).execute();
     }
 
+    private void validate() {
+        if (Strings.isNullOrEmpty(serversFile)) {
+            if (rulesFiles == null || rulesFiles.isEmpty()) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Missing required option: '--rules'");
+            }
+            if (Strings.isNullOrEmpty(nexusServerUrl)) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Missing required option: '--url' (or NEXUS_URL environment variable)");
+            }
+        }
+        if (rulesFiles != null && rulesFiles.size() > 1) {
+            if (!dryRun) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Several '--rules' files are only compared with '--dry-run'");
+            }
+            if (rulesFiles.size() > PolicySimulation.MAX_POLICIES) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--rules': at most " + PolicySimulation.MAX_POLICIES + " files");
+            }
+        }
+        if (concurrency < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--concurrency': must be at least 1");
+        }
+        if (maxConnections < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--max-connections': must be at least 1");
+        }
+        if (pendingAcquireMaxCount < 1 && pendingAcquireMaxCount != -1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--pending-acquire-max-count': must be at least 1, or -1 for no limit");
+        }
+        if (pendingAcquireTimeoutSeconds < 1 || maxIdleTimeSeconds < 0 || maxLifeTimeSeconds < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid connection timeout: '--pending-acquire-timeout' must be positive, '--max-idle-time' and '--max-life-time' must not be negative");
+        }
+        if (retentionMemoryArtifacts < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--retention-memory-artifacts': must not be negative");
+        }
+        if (approximateGroups < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--approximate-groups': must not be negative");
+        }
+        if (approximateGroups > 0 && approximateGroups < topGroups) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--approximate-groups': must be at least '--top-groups' (" + topGroups + ")");
+        }
+        if (shardCount < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--shard-count': must be at least 1");
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid value for option '--shard-index': must be between 0 and " + (shardCount - 1));
+        }
+    }
+
 }
@@ -3,18 +3,23 @@ package com.pyx4j.nxrm.cleanup;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import com.google.common.base.Strings;
 import com.pyx4j.nxrm.cleanup.model.CleanupRuleSet;
 import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.NexusServer;
+import com.pyx4j.nxrm.cleanup.model.NexusServerSet;
 import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonatype.nexus.ApiClient;
@@ -34,67 +39,162 @@ public final class NxCleanupJob {
 
     private final NxCleanupCommandArgs args;
 
-    private final ApiClient apiClient;
+    private final NexusHttpClients httpClients;
 
-    private final ComponentFilter componentFilter;
+    private final List<ServerContext> servers;
 
-    private final RepositoryComponentsSummary repositoryComponentsSummary;
-
-    private final GroupsSummary groupsSummary;
+    private final RepositorySharder sharder;
 
     private final ReportWriter componentWriter;
 
     public NxCleanupJob(NxCleanupCommandArgs args) {
-        // Create our summary objects based on report type
-        repositoryComponentsSummary = new RepositoryComponentsSummary();
-        repositoryComponentsSummary.setEnabled(args.reportRepositoriesSummary);
-        groupsSummary = new GroupsSummary();
-        groupsSummary.setEnabled(args.reportTopGroups);
+        this.args = Objects.requireNonNull(args, "Command arguments cannot be null");
 
-        this.args = args;
+        // All servers share one event loop group and connection pool
+        httpClients = new NexusHttpClients(httpClientOptions(args));
 
-        apiClient = createApiClient(args);
+        servers = createServers(args);
 
-        CleanupRuleSet ruleSet;
         try {
-            ruleSet = new CleanupRuleParser().parseFromFile(Path.of(args.rulesFile));
+            sharder = createSharder(args);
+            componentWriter = ReportWriterFactory.create(RepositorySharder.shardFileName(args.outputComponentFile, args.shardIndex, args.shardCount));
         } catch (IOException e) {
-            log.error("Failed to parse cleanup rules from file: {}", args.rulesFile, e);
-            throw new IllegalArgumentException("Invalid cleanup rules file: " + args.rulesFile, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static NexusHttpClients.Options httpClientOptions(NxCleanupCommandArgs args) {
+        return new NexusHttpClients.Options(args.maxConnections, args.pendingAcquireMaxCount,
+                Duration.ofSeconds(args.pendingAcquireTimeoutSeconds),
+                args.maxIdleTimeSeconds > 0 ? Duration.ofSeconds(args.maxIdleTimeSeconds) : null,
+                args.maxLifeTimeSeconds > 0 ? Duration.ofSeconds(args.maxLifeTimeSeconds) : null,
+                args.tcpKeepAlive, args.httpProtocol);
+    }
+
+    @Nullable
+    private static RepositorySharder createSharder(NxCleanupCommandArgs args) throws IOException {
+        if (args.shardCount <= 1) {
+            return null;
+        }
+        Map<String, Long> weights = Strings.isNullOrEmpty(args.shardWeightsFile)
+                ? Map.of()
+                : RepositorySharder.readWeights(Path.of(args.shardWeightsFile));
+        return new RepositorySharder(args.shardCount, weights);
+    }
+
+    private List<ServerContext> createServers(NxCleanupCommandArgs args) {
+        if (Strings.isNullOrEmpty(args.serversFile)) {
+            NexusServer server = new NexusServer("default", Objects.requireNonNull(args.nexusServerUrl, "Nexus server URL cannot be null"),
+                    args.nexusUsername, args.nexusPassword, args.nexusToken);
+            server.setProxy(args.proxyUrl);
+            // Single server reports are not labeled with the server name
+            return List.of(createServer(server, null, rulesFiles(args)));
         }
-        // Create component filter based on rules
-        componentFilter = new ComponentFilter(ruleSet);
+
+        NexusServerSet serverSet;
         try {
-            componentWriter = ReportWriterFactory.create(args.outputComponentFile);
+            serverSet = new NexusServerParser().parseFromFile(Path.of(args.serversFile));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            log.error("Failed to parse server definitions from file: {}", args.serversFile, e);
+            throw new IllegalArgumentException("Invalid servers file: " + args.serversFile, e);
+        }
+
+        List<ServerContext> contexts = new ArrayList<>();
+        for (NexusServer server : serverSet.getServers()) {
+            if (server.getProxy() == null) {
+                server.setProxy(args.proxyUrl);
+            }
+            // Servers with their own rules are not part of the policy simulation
+            List<String> rulesFiles = server.getRules() != null ? List.of(server.getRules()) : rulesFiles(args);
+            contexts.add(createServer(server, server.getName(), rulesFiles));
+        }
+        return contexts;
+    }
+
+    private static List<String> rulesFiles(NxCleanupCommandArgs args) {
+        return args.rulesFiles == null ? List.of() : args.rulesFiles;
+    }
+
+    private ServerContext createServer(NexusServer server, @Nullable String reportLabel, List<String> rulesFiles) {
+        if (rulesFiles.isEmpty() || rulesFiles.stream().anyMatch(Strings::isNullOrEmpty)) {
+            throw new IllegalArgumentException("No cleanup rules file for server '" + server.getName() + "', use --rules or the server 'rules' property");
+        }
+
+        // Create component filter based on rules, again for each version of the file when it is watched
+        List<ReloadableRuleSet> rules = new ArrayList<>();
+        for (String rulesFile : rulesFiles) {
+            rules.add(loadRules(server, rulesFile, rulesFiles.size()));
+        }
+        // Several rule sets are evaluated side by side in the same scan, the first one drives the other reports
+        PolicySimulation simulation = rules.size() > 1 ? new PolicySimulation(reportLabel, rulesFiles) : null;
+
+        // Create our summary objects based on report type
+        RepositoryComponentsSummary repositoryComponentsSummary = new RepositoryComponentsSummary();
+        repositoryComponentsSummary.setEnabled(args.reportRepositoriesSummary);
+        repositoryComponentsSummary.setServer(reportLabel);
+        GroupsSummary groupsSummary = new GroupsSummary();
+        groupsSummary.setEnabled(args.reportTopGroups);
+        groupsSummary.setServer(reportLabel);
+        if (args.approximateGroups > 0) {
+            groupsSummary.setApproximate(args.approximateGroups, args.groupSort);
+        }
+
+        return new ServerContext(server.getName(), reportLabel, createApiClient(server), List.copyOf(rules), simulation,
+                repositoryComponentsSummary, groupsSummary);
+    }
+
+    /**
+     * @param ruleSets Number of rule sets of the server, they share the heap budget of the match caches
+     */
+    private ReloadableRuleSet loadRules(NexusServer server, String rulesFile, int ruleSets) {
+        ReloadableRuleSet rules;
+        try {
+            rules = ReloadableRuleSet.load(Path.of(rulesFile), ruleSet -> createComponentFilter(server, ruleSet, ruleSets));
+        } catch (IOException e) {
+            log.error("Failed to parse cleanup rules from file: {}", rulesFile, e);
+            throw new IllegalArgumentException("Invalid cleanup rules file: " + rulesFile, e);
+        }
+        if (args.watchRules) {
+            try {
+                rules.watch();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot watch cleanup rules file: " + rulesFile, e);
+            }
         }
+        return rules;
+    }
+
+    private static ComponentFilter createComponentFilter(NexusServer server, CleanupRuleSet ruleSet, int ruleSets) {
+        ComponentFilter componentFilter = new ComponentFilter(ruleSet, PatternMatchCache.sizedFromHeap(ruleSets));
+        NxReportConsole.printEliminatedRules(server.getName(), componentFilter.getEliminatedRules());
+        return componentFilter;
     }
 
-    private static ApiClient createApiClient(NxCleanupCommandArgs args) {
-        Objects.requireNonNull(args, "Command arguments cannot be null");
-        Objects.requireNonNull(args.nexusServerUrl, "Nexus server URL cannot be null");
+    private ApiClient createApiClient(NexusServer server) {
+        Objects.requireNonNull(server, "Server cannot be null");
+        Objects.requireNonNull(server.getUrl(), "Nexus server URL cannot be null");
 
-        log.debug("Initializing scan of nexus server: {}", args.nexusServerUrl);
+        log.debug("Initializing scan of nexus server: {}", server.getUrl());
 
         if (args.dryRun) {
-            System.out.printf("Nexus Repository Cleanup Job (Dry Run) starting — Scanning server: %s (no deletions will be performed)%n", args.nexusServerUrl);
+            System.out.printf("Nexus Repository Cleanup Job (Dry Run) starting — Scanning server: %s (no deletions will be performed)%n", server.getUrl());
         } else {
-            System.out.printf("Nexus Repository Cleanup Job starting — Scanning server: %s%n", args.nexusServerUrl);
+            System.out.printf("Nexus Repository Cleanup Job starting — Scanning server: %s%n", server.getUrl());
         }
 
         // There is no authentication configured in swagger, so apiClient.setUsername(args.nexusUsername) can't be used here
         String authorizationHeader;
-        if (args.nexusToken != null && !args.nexusToken.isEmpty()) {
-            authorizationHeader = "Bearer " + args.nexusToken;
+        if (server.getToken() != null && !server.getToken().isEmpty()) {
+            authorizationHeader = "Bearer " + server.getToken();
         } else {
-            authorizationHeader = "Basic " + Base64.getEncoder().encodeToString((args.nexusUsername + ":" + args.nexusPassword).getBytes(StandardCharsets.UTF_8));
+            authorizationHeader = "Basic " + Base64.getEncoder().encodeToString((server.getUsername() + ":" + server.getPassword()).getBytes(StandardCharsets.UTF_8));
         }
 
         // Configure proxy settings
-        ProxySelector.ProxyConfig proxyConfig = ProxySelector.selectProxy(args.nexusServerUrl, args.proxyUrl);
+        ProxySelector.ProxyConfig proxyConfig = ProxySelector.selectProxy(server.getUrl(), server.getProxy());
 
-        WebClient webClient = ProxySelector.configureProxy(WebClient.builder(), proxyConfig)
+        WebClient webClient = ProxySelector.configureProxy(WebClient.builder(), httpClients.create(), proxyConfig)
+                .filter(httpClients.trafficFilter())
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, authorizationHeader)
@@ -103,7 +203,7 @@ public final class NxCleanupJob {
 
         // Initialize API clients
         ApiClient apiClient = new ApiClient(webClient);
-        apiClient.setBasePath(args.nexusServerUrl + "/service/rest");
+        apiClient.setBasePath(server.getUrl() + "/service/rest");
 
         return apiClient;
     }
@@ -113,20 +213,17 @@ public final class NxCleanupJob {
         // Use CountDownLatch to control flow in the main thread
         AtomicInteger resultCode = new AtomicInteger(0);
         CountDownLatch latch = new CountDownLatch(1);
-        RepositoryManagementApi repoApi = new RepositoryManagementApi(apiClient);
 
-        // Build the reactive pipeline
-        repoApi.getRepositories()
-                .doOnNext(repository -> log.debug("Found {} repository of type {}", repository.getName(), repository.getType()))
-                .filter(repository -> !repository.getType().equals(AbstractApiRepository.TypeEnum.GROUP)) // Exclude group repositories
-                .filter(repository -> componentFilter.matchesRepositoryFilter(repository.getName())) // Filter repositories early
-                .doOnNext(repository -> log.trace("Processing repository: {}", repository.getName()))
-                .flatMap(repository -> processRepositoryComponents(repository))
+        // Build the reactive pipeline, repositories of all servers share one concurrency budget
+        Flux.fromIterable(servers)
+                .concatMap(server -> listRepositories(server, resultCode))
+                .collectList()
+                .flatMapIterable(this::selectShardRepositories)
+                .flatMap(scan -> processRepositoryComponents(scan.server(), scan.repository()), args.concurrency)
                 .collectList()
                 .doOnSuccess(allRepos -> {
                     try {
                         writeReports();
-                        resultCode.set(0);
                     } catch (IOException e) {
                         log.error("Error writing report file", e);
                         resultCode.set(1);
@@ -146,16 +243,68 @@ public final class NxCleanupJob {
             log.error("Cleanup interrupted", e);
             Thread.currentThread().interrupt();
             return 1;
+        } finally {
+            httpClients.close();
+            for (ServerContext server : servers) {
+                for (ReloadableRuleSet rules : server.rules()) {
+                    try {
+                        rules.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to stop watching cleanup rules of server {}", server.name(), e);
+                    }
+                }
+            }
         }
 
         return resultCode.get();
     }
 
-    private Mono<Void> processRepositoryComponents(AbstractApiRepository repository) {
-        ComponentsApi componentsApi = new ComponentsApi(apiClient);
+    private Flux<RepositoryScan> listRepositories(ServerContext server, AtomicInteger resultCode) {
+        RepositoryManagementApi repoApi = new RepositoryManagementApi(server.apiClient());
+
+        return repoApi.getRepositories()
+                .doOnNext(repository -> log.debug("Found {} repository {} of type {}", server.name(), repository.getName(), repository.getType()))
+                .filter(repository -> !repository.getType().equals(AbstractApiRepository.TypeEnum.GROUP)) // Exclude group repositories
+                .filter(repository -> server.matchesRepositoryFilter(repository.getName())) // Filter repositories early
+                .doOnNext(repository -> log.trace("Processing {} repository: {}", server.name(), repository.getName()))
+                .map(repository -> new RepositoryScan(server, repository))
+                .onErrorResume(error -> {
+                    // Other servers are still processed and reported
+                    log.error("Failed to list repositories of server {}", server.name(), error);
+                    resultCode.set(1);
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Selects the repositories of this shard, all repositories when sharding is not used.
+     * The full repository list is needed to compute the same assignment in every shard.
+     */
+    private List<RepositoryScan> selectShardRepositories(List<RepositoryScan> allRepositories) {
+        if (sharder == null) {
+            return allRepositories;
+        }
+
+        Map<String, Integer> assignment = sharder.assign(allRepositories.stream().map(RepositoryScan::key).toList());
+        List<RepositoryScan> shardRepositories = allRepositories.stream()
+                .filter(scan -> assignment.get(scan.key()) == args.shardIndex)
+                .toList();
+
+        System.out.printf("Shard %d of %d — Scanning %d of %d repositories%n",
+                args.shardIndex, args.shardCount, shardRepositories.size(), allRepositories.size());
+        return shardRepositories;
+    }
+
+    private Mono<Void> processRepositoryComponents(ServerContext server, AbstractApiRepository repository) {
+        ComponentsApi componentsApi = new ComponentsApi(server.apiClient());
         final String repoName = Objects.requireNonNull(repository.getName(), "Repository name cannot be null");
+        // Latest versions kept by retention rules are only known after the last page, the tracker of a rule set is
+        // created by the first page with retention rules since the rules can be reloaded between pages
+        final RetentionTracker[] retentionTrackers = new RetentionTracker[server.rules().size()];
+        final PolicySimulation.Repository simulation = server.simulation() == null ? null
+                : server.simulation().repository(args.retentionMemoryArtifacts);
 
-        return Mono.just("")  // Start with empty string to trigger initial fetch
+        Mono<Void> pages = Mono.just("")  // Start with empty string to trigger initial fetch
                 .expand(token -> {
                     // Convert empty string to null for the API call
                     String actualToken = token.isEmpty() ? null : token;
@@ -164,17 +313,10 @@ public final class NxCleanupJob {
                     return componentsApi.getComponents(repoName, actualToken)
                             .flatMap(page -> {
                                 if (page != null && page.getItems() != null) {
-                                    List<ComponentXO> allComponents = page.getItems();
-                                    // Apply filter to components
-                                    List<ComponentXO> filteredComponents = allComponents.stream()
-                                            .filter(componentFilter.getComponentFilter())
-                                            .toList();
-
-                                    log.debug("Repository {} page has {} components (filtered from {}) for processing",
-                                            repoName, filteredComponents.size(), allComponents.size());
+                                    PageDecision decision = decidePage(server, repository, page.getItems(), retentionTrackers, simulation);
 
                                     // Process filtered components for this page
-                                    return processFilteredComponents(componentsApi, repository, allComponents, filteredComponents)
+                                    return processFilteredComponents(server, componentsApi, repository, decision.removed(), decision.accounting())
                                             .then(Mono.fromCallable(() -> {
                                                 String nextToken = page.getContinuationToken();
                                                 return (nextToken != null && !nextToken.isEmpty()) ? nextToken : null;
@@ -192,27 +334,127 @@ public final class NxCleanupJob {
                             });
                 })
                 .then();
+
+        return pages.then(Mono.defer(() -> Flux.range(0, retentionTrackers.length)
+                .filter(policy -> retentionTrackers[policy] != null)
+                .concatMap(policy -> Flux.fromIterable(retentionTrackers[policy]::finish)
+                        .concatMap(decision -> {
+                            if (simulation != null) {
+                                decision.deleted().forEach(component -> simulation.decideDeferred(policy, component, true));
+                                decision.kept().forEach(component -> simulation.decideDeferred(policy, component, false));
+                            }
+                            if (policy != 0) {
+                                // Only the first rule set removes components and is reported
+                                return Mono.<Void>empty();
+                            }
+                            PageAccounting accounting = new PageAccounting(server.groupsSummary().isEnabled());
+                            decision.deleted().forEach(accounting::removed);
+                            decision.kept().forEach(accounting::remaining);
+                            return processFilteredComponents(server, componentsApi, repository, decision.deleted(), accounting);
+                        }))
+                .then()
+        )).doFinally(signal -> {
+            for (RetentionTracker tracker : retentionTrackers) {
+                if (tracker != null) {
+                    tracker.close();
+                }
+            }
+            if (simulation != null) {
+                simulation.finish();
+            }
+        });
     }
 
-    private Mono<Void> processFilteredComponents(ComponentsApi componentsApi, AbstractApiRepository repository, List<ComponentXO> allComponents, List<ComponentXO> filteredComponents) {
-        if (allComponents.isEmpty()) {
-            return Mono.empty();
+    /**
+     * Evaluates the rule sets of the server on one page. The asset dates and sizes of the page are summarized once
+     * and shared by all rule sets.
+     *
+     * @param retentionTrackers Retention trackers of the repository by rule set, created when first needed
+     * @param simulation        Records the decisions of all rule sets, null when the server has one rule set
+     * @return Decision of the first rule set
+     */
+    private PageDecision decidePage(ServerContext server, AbstractApiRepository repository, List<ComponentXO> allComponents,
+                                    RetentionTracker[] retentionTrackers, PolicySimulation.@Nullable Repository simulation) {
+        final String repoName = repository.getName();
+        int policies = server.rules().size();
+        ComponentPage componentPage = ComponentPage.of(allComponents);
+        long[] sizes = componentPage.sizes();
+
+        // A page is evaluated with the rules active when it arrives, reloaded rules apply from the next page
+        ComponentFilter.RepositoryFilter[] componentFilters = new ComponentFilter.RepositoryFilter[policies];
+        BitSet[] selected = new BitSet[policies];
+        for (int policy = 0; policy < policies; policy++) {
+            ReloadableRuleSet.Version rules = server.rules().get(policy).current();
+            // Only the rules applicable to this repository are evaluated for its components
+            componentFilters[policy] = rules.filter().getRepositoryFilter(repoName);
+            selected[policy] = componentFilters[policy].select(componentPage);
+            log.debug("Repository {} page has {} components (filtered from {}) for processing with rules {}",
+                    repoName, selected[policy].cardinality(), allComponents.size(), rules.hash());
         }
 
-        final String repoName = repository.getName();
+        // Each component is classified and counted once, only the removed components are collected for deletion
+        List<SizedComponent> removedComponents = new ArrayList<>(selected[0].cardinality());
+        PageAccounting accounting = new PageAccounting(server.groupsSummary().isEnabled());
+        ComponentFilter.Retention[] retentions = new ComponentFilter.Retention[policies];
+        for (int i = 0; i < allComponents.size(); i++) {
+            SizedComponent component = new SizedComponent(allComponents.get(i), sizes[i]);
+            int removedMask = 0;
+            int deferredMask = 0;
+            for (int policy = 0; policy < policies; policy++) {
+                retentions[policy] = null;
+                if (selected[policy].get(i)) {
+                    removedMask |= 1 << policy;
+                } else if (componentFilters[policy].hasRetentionRules()) {
+                    retentions[policy] = componentFilters[policy].retention(componentPage, i);
+                    if (retentions[policy] != null) {
+                        deferredMask |= 1 << policy;
+                    }
+                }
+            }
+            if (simulation != null) {
+                // Recorded before the retention trackers decide it
+                simulation.decide(component, removedMask, deferredMask);
+            }
+            if ((removedMask & 1) != 0) {
+                removedComponents.add(component);
+                accounting.removed(component);
+            } else if ((deferredMask & 1) == 0) {
+                accounting.remaining(component);
+            }
+            for (int policy = 0; deferredMask != 0; policy++, deferredMask >>>= 1) {
+                if ((deferredMask & 1) == 0) {
+                    continue;
+                }
+                if (retentionTrackers[policy] == null) {
+                    retentionTrackers[policy] = new RetentionTracker(repoName, VersionOrdering.forFormat(repository.getFormat()), args.retentionMemoryArtifacts);
+                }
+                // Reported once decided, as deleted when replaced by newer versions or as remaining after the last page
+                SizedComponent replaced = retentionTrackers[policy].offer(component, retentions[policy]);
+                if (replaced != null) {
+                    if (policy == 0) {
+                        removedComponents.add(replaced);
+                        accounting.removed(replaced);
+                    }
+                    if (simulation != null) {
+                        simulation.decideDeferred(policy, replaced, true);
+                    }
+                }
+            }
+        }
+        return new PageDecision(removedComponents, accounting);
+    }
 
-        List<ComponentXO> componentsToRemove = filteredComponents;
-        List<ComponentXO> remainingComponents = allComponents.stream()
-                .filter(c -> !componentsToRemove.contains(c))
-                .toList();
+    private Mono<Void> processFilteredComponents(ServerContext server, ComponentsApi componentsApi, AbstractApiRepository repository, List<SizedComponent> componentsToRemove, PageAccounting accounting) {
+        if (accounting.isEmpty()) {
+            return Mono.empty();
+        }
 
-        long removedSize = calculateTotalSize(componentsToRemove);
-        long remainingSize = calculateTotalSize(remainingComponents);
+        final String repoName = repository.getName();
 
         log.trace("Processing {} filtered components in repository {} with total size of {} bytes",
-                componentsToRemove.size(), repoName, removedSize);
+                componentsToRemove.size(), repoName, accounting.getRemovedBytes());
 
-        addToReports(repository, componentsToRemove, remainingComponents);
+        addToReports(server, repository, componentsToRemove, accounting);
 
         if (args.dryRun) {
             log.debug("DRY RUN: Would delete {} components from repository {}", componentsToRemove.size(), repoName);
@@ -220,7 +462,7 @@ public final class NxCleanupJob {
         } else {
             // Delete components single-threaded execution and add to reports only if deletion is successful
             return Flux.fromIterable(componentsToRemove)
-                    .concatMap(component -> deleteComponent(componentsApi, component, repository))
+                    .concatMap(component -> deleteComponent(componentsApi, component.component(), repository))
                     .then();
         }
     }
@@ -246,71 +488,73 @@ public final class NxCleanupJob {
                 });
     }
 
-    private void addToReports(AbstractApiRepository repository, List<ComponentXO> componentsToRemove, List<ComponentXO> remainingComponents) {
+    private void addToReports(ServerContext server, AbstractApiRepository repository, List<SizedComponent> componentsToRemove, PageAccounting accounting) {
         Objects.requireNonNull(repository, "Repository cannot be null");
 
-        final String repoName = repository.getName();
-        final String repoFormat = repository.getFormat();
-
-        long removedCount = componentsToRemove.size();
-        long removedSize = calculateTotalSize(componentsToRemove);
-        long remainingCount = remainingComponents.size();
-        long remainingSize = calculateTotalSize(remainingComponents);
+        log.trace("Adding to reports for repository {}: {} removed, {} remaining",
+                repository.getName(), accounting.getRemovedCount(), accounting.getRemainingCount());
 
-        log.trace("Adding to reports for repository {}: {} removed, {} remaining", repoName, removedCount, remainingCount);
-
-        // Update repository summary if enabled
-        if (repositoryComponentsSummary.isEnabled()) {
-            repositoryComponentsSummary.addRepositoryStats(repoName, repoFormat, removedCount, removedSize, remainingCount, remainingSize);
-        }
-
-        // Update groups summary if enabled
-        if (groupsSummary.isEnabled()) {
-            // Group components by their group name
-            var removedByGroup = componentsToRemove.stream().filter(c -> c.getGroup() != null).collect(Collectors.groupingBy(ComponentXO::getGroup));
-            var remainingByGroup = remainingComponents.stream().filter(c -> c.getGroup() != null).collect(Collectors.groupingBy(ComponentXO::getGroup));
-            var allGroups = Stream.concat(removedByGroup.keySet().stream(), remainingByGroup.keySet().stream()).collect(Collectors.toSet());
-
-            for (String groupName : allGroups) {
-                List<ComponentXO> removedInGroup = removedByGroup.getOrDefault(groupName, Collections.emptyList());
-                List<ComponentXO> remainingInGroup = remainingByGroup.getOrDefault(groupName, Collections.emptyList());
-                groupsSummary.addGroupStats(groupName,
-                        removedInGroup.size(), calculateTotalSize(removedInGroup),
-                        remainingInGroup.size(), calculateTotalSize(remainingInGroup));
-            }
-        }
+        // Update the repository and groups summaries if enabled
+        accounting.addTo(server.repositoryComponentsSummary(), server.groupsSummary(), repository.getName(), repository.getFormat());
 
         if (componentWriter != null) {
-            try {
-                for (ComponentXO component : componentsToRemove) {
-                    componentWriter.writeComponent(component);
+            // The component writer is shared by all repositories and servers
+            synchronized (componentWriter) {
+                try {
+                    for (SizedComponent component : componentsToRemove) {
+                        componentWriter.writeComponent(component.component(), component.sizeBytes());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
         }
     }
 
     private void writeReports() throws IOException {
         boolean hasPreviousOutput = false;
-        if (repositoryComponentsSummary.isEnabled()) {
-            NxReportConsole.printSummary(repositoryComponentsSummary, args.repositoriesSortBy, args.dryRun);
-            hasPreviousOutput = true;
-        }
-        if (groupsSummary.isEnabled()) {
-            if (hasPreviousOutput) {
-                System.out.println(); // Add blank line between reports
+        for (ServerContext server : servers) {
+            // All versions of the rules used during the run
+            String rulesHash = String.join(",", server.rules().get(0).getHistory());
+            server.repositoryComponentsSummary().setRulesHash(rulesHash);
+            server.groupsSummary().setRulesHash(rulesHash);
+            if (server.repositoryComponentsSummary().isEnabled()) {
+                if (hasPreviousOutput) {
+                    System.out.println(); // Add blank line between reports
+                }
+                NxReportConsole.printSummary(server.repositoryComponentsSummary(), args.repositoriesSortBy, args.dryRun);
+                hasPreviousOutput = true;
+            }
+            if (server.groupsSummary().isEnabled()) {
+                if (hasPreviousOutput) {
+                    System.out.println(); // Add blank line between reports
+                }
+                NxReportConsole.printGroupsSummary(server.groupsSummary(), args.groupSort, args.topGroups, args.dryRun);
+                hasPreviousOutput = true;
+            }
+            if (server.simulation() != null) {
+                if (hasPreviousOutput) {
+                    System.out.println(); // Add blank line between reports
+                }
+                NxReportConsole.printPolicySimulation(server.simulation());
+                hasPreviousOutput = true;
             }
-            NxReportConsole.printGroupsSummary(groupsSummary, args.groupSort, args.topGroups, args.dryRun);
+        }
+        NxReportConsole.printTrafficSummary(httpClients.getWireBytes(), httpClients.getDecodedBytes());
+        for (ServerContext server : servers) {
+            log.debug("Server {} pattern match cache: {}", server.name(), server.componentFilter().getMatchCache());
         }
 
-        try (ReportWriter reportWriter = ReportWriterFactory.create(args.reportOutputFile)) {
+        // Each shard writes its own partial summary
+        try (ReportWriter reportWriter = ReportWriterFactory.create(RepositorySharder.shardFileName(args.reportOutputFile, args.shardIndex, args.shardCount))) {
             if (reportWriter != null) {
-                if (repositoryComponentsSummary.isEnabled()) {
-                    reportWriter.writeRepositoryComponentsSummary(repositoryComponentsSummary, args.repositoriesSortBy);
-                }
-                if (groupsSummary.isEnabled()) {
-                    reportWriter.writeGroupsSummary(groupsSummary, args.groupSort, args.topGroups);
+                for (ServerContext server : servers) {
+                    if (server.repositoryComponentsSummary().isEnabled()) {
+                        reportWriter.writeRepositoryComponentsSummary(server.repositoryComponentsSummary(), args.repositoriesSortBy);
+                    }
+                    if (server.groupsSummary().isEnabled()) {
+                        reportWriter.writeGroupsSummary(server.groupsSummary(), args.groupSort, args.topGroups);
+                    }
                 }
             }
         } finally {
@@ -321,36 +565,50 @@ public final class NxCleanupJob {
     }
 
     /**
-     * Calculates the total size of all components in bytes.
+     * Per-server state: API client, compiled rules and the report sections of that server.
      *
-     * @param components List of components to calculate size for
-     * @return Total size in bytes
+     * @param rules      The rule sets, the first one removes components, all are compared by the simulation
+     * @param simulation Side-by-side removals of the rule sets, null with a single rule set
      */
-    private static long calculateTotalSize(List<ComponentXO> components) {
-        if (components == null || components.isEmpty()) {
-            return 0;
+    private record ServerContext(
+            String name,
+            @Nullable String reportLabel,
+            ApiClient apiClient,
+            List<ReloadableRuleSet> rules,
+            @Nullable PolicySimulation simulation,
+            RepositoryComponentsSummary repositoryComponentsSummary,
+            GroupsSummary groupsSummary
+    ) {
+
+        /**
+         * @return The compiled rules of the first rule set active now
+         */
+        ComponentFilter componentFilter() {
+            return rules.get(0).current().filter();
         }
 
-        return components.stream()
-                .mapToLong(NxCleanupJob::calculateComponentSize)
-                .sum();
+        /**
+         * @return true if a rule set may apply to the repository
+         */
+        boolean matchesRepositoryFilter(@Nullable String repositoryName) {
+            return rules.stream().anyMatch(ruleSet -> ruleSet.current().filter().matchesRepositoryFilter(repositoryName));
+        }
     }
 
     /**
-     * Calculates the total size of a single component in bytes.
-     *
-     * @param component Component to calculate size for
-     * @return Total size in bytes
+     * Components of a page removed by the first rule set, and the removed and remaining components counted for the reports.
      */
-    private static long calculateComponentSize(ComponentXO component) {
-        if (component == null || component.getAssets() == null) {
-            return 0;
-        }
+    private record PageDecision(List<SizedComponent> removed, PageAccounting accounting) {
+    }
 
-        return component.getAssets().stream()
-                .filter(asset -> asset.getFileSize() != null)
-                .mapToLong(asset -> asset.getFileSize() != null ? asset.getFileSize() : 0)
-                .sum();
+    /**
+     * A repository of a specific server queued for processing.
+     */
+    private record RepositoryScan(ServerContext server, AbstractApiRepository repository) {
+
+        String key() {
+            return RepositorySharder.repositoryKey(server.reportLabel(), repository.getName());
+        }
     }
 
 }
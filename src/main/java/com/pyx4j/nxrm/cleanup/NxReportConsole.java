@@ -1,6 +1,7 @@
 package com.pyx4j.nxrm.cleanup;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +29,7 @@ class NxReportConsole {
      * @param out     The PrintStream to write to
      */
     static void printSummary(RepositoryComponentsSummary summary, SortBy sortBy, PrintStream out, boolean dryRun) {
-        out.println("\nRepository Report Summary (" + (dryRun ? "Dry Run" : "Removal") + "):");
+        out.println("\nRepository Report Summary" + serverLabel(summary.getServer()) + " (" + (dryRun ? "Dry Run" : "Removal") + rulesLabel(summary.getRulesHash()) + "):");
         out.println("====================================================================================================================");
 
         // Calculate the maximum repository name length for dynamic formatting
@@ -94,13 +95,18 @@ class NxReportConsole {
      */
     static void printGroupsSummary(GroupsSummary summary, SortBy sortBy, int topGroups, PrintStream out, boolean dryRun) {
         String sortDescription = sortBy == SortBy.SIZE ? "Size" : "Components";
-        out.println("\nTop Consuming Groups (by " + sortDescription + ", " + (dryRun ? "Dry Run" : "Removal") + "):");
+        boolean approximate = summary.getApproximateCapacity() > 0;
+        out.println("\nTop Consuming Groups" + serverLabel(summary.getServer()) + " (by " + sortDescription + ", " + (dryRun ? "Dry Run" : "Removal")
+                + (approximate ? ", approximate" : "") + rulesLabel(summary.getRulesHash()) + "):");
         out.println("====================================================================================================================");
 
-        // Calculate the maximum group name length for dynamic formatting
+        // Select the top groups without sorting all of them
+        List<Map.Entry<String, GroupStats>> top = GroupRanking.top(summary.getGroupStats(), sortBy, topGroups);
+
+        // Calculate the maximum group name length of the printed groups for dynamic formatting
         int maxGroupNameLength = Math.max(30, // minimum width
-                summary.getGroupStats().keySet().stream()
-                        .mapToInt(String::length)
+                top.stream()
+                        .mapToInt(entry -> entry.getKey().length())
                         .max()
                         .orElse(30) + 2); // add some padding
 
@@ -118,19 +124,106 @@ class NxReportConsole {
                 "---------------",
                 "---------------");
 
-        // Sort and print group data (limited to topGroups)
-        getSortedGroupEntries(summary.getGroupStats(), sortBy).stream()
-                .limit(topGroups)
-                .forEach(entry -> {
-                    String groupName = entry.getKey();
-                    GroupStats stats = entry.getValue();
-                    out.printf(dataFormat,
-                            groupName,
-                            stats.getComponentCount(),
-                            formatSize(stats.getSizeBytes()),
-                            stats.getRemainingComponentCount(),
-                            formatSize(stats.getRemainingSizeBytes()));
-                });
+        // Print group data (limited to topGroups)
+        top.forEach(entry -> {
+            String groupName = entry.getKey();
+            GroupStats stats = entry.getValue();
+            out.printf(dataFormat,
+                    groupName,
+                    stats.getComponentCount(),
+                    formatSize(stats.getSizeBytes()),
+                    stats.getRemainingComponentCount(),
+                    formatSize(stats.getRemainingSizeBytes()));
+        });
+
+        if (approximate) {
+            String metric = summary.isApproximateBySize() ? "size" : "components";
+            String bound = summary.isApproximateBySize()
+                    ? formatSize(summary.getApproximateErrorBound())
+                    : String.valueOf(summary.getApproximateErrorBound());
+            out.printf("%nApproximate: %d groups tracked, removed %s of a group is overestimated by at most %s, "
+                    + "groups removing more are always tracked%n", summary.getApproximateCapacity(), metric, bound);
+            top.stream()
+                    .filter(entry -> entry.getValue().getError() > 0)
+                    .forEach(entry -> out.printf("  %s: removed %s overestimated by at most %s%n", entry.getKey(), metric,
+                            summary.isApproximateBySize() ? formatSize(entry.getValue().getError()) : String.valueOf(entry.getValue().getError())));
+        }
+    }
+
+    /**
+     * Prints the side-by-side removals of several rule sets to the console.
+     *
+     * @param simulation The removals recorded during the scan
+     */
+    static void printPolicySimulation(PolicySimulation simulation) {
+        printPolicySimulation(simulation, System.out);
+    }
+
+    /**
+     * Prints the side-by-side removals of several rule sets to the specified PrintStream.
+     *
+     * @param simulation The removals recorded during the scan
+     * @param out        The PrintStream to write to
+     */
+    static void printPolicySimulation(PolicySimulation simulation, PrintStream out) {
+        out.println("\nPolicy Simulation" + serverLabel(simulation.getServer()) + " (Dry Run):");
+        out.println("====================================================================================================================");
+
+        List<String> policies = simulation.getPolicies();
+        List<String> overlaps = new ArrayList<>();
+        for (int i = 0; i < policies.size(); i++) {
+            for (int j = i + 1; j < policies.size(); j++) {
+                overlaps.add(policies.get(i) + " & " + policies.get(j));
+            }
+        }
+
+        // Calculate the maximum policy name length for dynamic formatting
+        int maxPolicyNameLength = Math.max(30, // minimum width
+                overlaps.stream()
+                        .mapToInt(String::length)
+                        .max()
+                        .orElse(30) + 2); // add some padding
+
+        // Create format strings based on calculated width
+        String headerFormat = "%-" + maxPolicyNameLength + "s %-12s %-15s %-15s %-15s%n";
+        String separatorFormat = "%-" + maxPolicyNameLength + "s %-12s %-15s %-15s %-15s%n";
+        String dataFormat = "%-" + maxPolicyNameLength + "s %12d %15s %15d %15s%n";
+
+        // Print header
+        out.printf(headerFormat, "Policy", "Removed #", "Removed Size", "Remaining #", "Remaining Size");
+        out.printf(separatorFormat,
+                "-".repeat(maxPolicyNameLength),
+                "------------",
+                "---------------",
+                "---------------",
+                "---------------");
+
+        long totalCount = simulation.getTotalCount();
+        long totalBytes = simulation.getTotalBytes();
+        for (int i = 0; i < policies.size(); i++) {
+            long removedCount = simulation.getRemovedCount(i, i);
+            long removedBytes = simulation.getRemovedBytes(i, i);
+            out.printf(dataFormat, policies.get(i), removedCount, formatSize(removedBytes),
+                    totalCount - removedCount, formatSize(totalBytes - removedBytes));
+        }
+        out.printf("%n" + dataFormat, "ANY POLICY", simulation.getAnyRemovedCount(), formatSize(simulation.getAnyRemovedBytes()),
+                totalCount - simulation.getAnyRemovedCount(), formatSize(totalBytes - simulation.getAnyRemovedBytes()));
+
+        // Components removed by both policies of each pair
+        out.printf("%n" + headerFormat, "Overlap", "Removed #", "Removed Size", "", "");
+        out.printf(separatorFormat,
+                "-".repeat(maxPolicyNameLength),
+                "------------",
+                "---------------",
+                "",
+                "");
+        int overlap = 0;
+        for (int i = 0; i < policies.size(); i++) {
+            for (int j = i + 1; j < policies.size(); j++) {
+                out.printf("%-" + maxPolicyNameLength + "s %12d %15s%n",
+                        overlaps.get(overlap++), simulation.getRemovedCount(i, j), formatSize(simulation.getRemovedBytes(i, j)));
+            }
+        }
     }
 
     /**
@@ -170,39 +263,68 @@ class NxReportConsole {
     }
 
     /**
-     * Gets group entries sorted according to the specified criteria.
+     * Prints the rules removed from evaluation by the rule set analysis to the console.
      *
-     * @param groupStats The group statistics map
-     * @param sortBy     The sorting criteria
-     * @return Sorted list of map entries
+     * @param serverName   The server the rules are used for
+     * @param eliminations The removed rules with the reason
      */
-    private static List<Map.Entry<String, GroupStats>> getSortedGroupEntries(
-            Map<String, GroupStats> groupStats, SortBy sortBy) {
+    static void printEliminatedRules(String serverName, List<RuleSetAnalyzer.Elimination> eliminations) {
+        printEliminatedRules(serverName, eliminations, System.out);
+    }
 
-        Comparator<Map.Entry<String, GroupStats>> comparator;
+    /**
+     * Prints the rules removed from evaluation by the rule set analysis to the specified PrintStream.
+     *
+     * @param serverName   The server the rules are used for
+     * @param eliminations The removed rules with the reason
+     * @param out          The PrintStream to write to
+     */
+    static void printEliminatedRules(String serverName, List<RuleSetAnalyzer.Elimination> eliminations, PrintStream out) {
+        if (eliminations.isEmpty()) {
+            return;
+        }
+        out.printf("Rules not evaluated for server %s:%n", serverName);
+        for (RuleSetAnalyzer.Elimination elimination : eliminations) {
+            out.printf("  %s: %s%n", elimination.rule(), elimination.reason());
+        }
+    }
 
-        switch (sortBy) {
-            case NAME:
-                comparator = Map.Entry.comparingByKey();
-                break;
-            case SIZE:
-                comparator = Map.Entry.<String, GroupStats>comparingByValue(
-                                Comparator.comparingLong(GroupStats::getSizeBytes)
-                                        .thenComparingLong(GroupStats::getRemainingSizeBytes))
-                        .reversed(); // Largest first
-                break;
-            case COMPONENTS:
-            default:
-                comparator = Map.Entry.<String, GroupStats>comparingByValue(
-                                Comparator.comparingLong(GroupStats::getComponentCount)
-                                        .thenComparingLong(GroupStats::getRemainingComponentCount))
-                        .reversed(); // Most components first
-                break;
+    /**
+     * Prints the Nexus API traffic of the run to the console.
+     *
+     * @param wireBytes    Bytes received from the network
+     * @param decodedBytes Response body bytes after decompression
+     */
+    static void printTrafficSummary(long wireBytes, long decodedBytes) {
+        printTrafficSummary(wireBytes, decodedBytes, System.out);
+    }
+
+    /**
+     * Prints the Nexus API traffic of the run to the specified PrintStream.
+     *
+     * @param wireBytes    Bytes received from the network
+     * @param decodedBytes Response body bytes after decompression
+     * @param out          The PrintStream to write to
+     */
+    static void printTrafficSummary(long wireBytes, long decodedBytes, PrintStream out) {
+        if (decodedBytes <= 0) {
+            out.printf("%nNexus API traffic: %s received%n", formatSize(wireBytes));
+            return;
         }
+        double saved = 100.0 * (decodedBytes - wireBytes) / decodedBytes;
+        out.printf("%nNexus API traffic: %s received, %s decoded (%.1f%% saved by compression)%n",
+                formatSize(wireBytes), formatSize(decodedBytes), Math.max(0, saved));
+    }
 
-        return groupStats.entrySet().stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
+    /**
+     * Formats the server part of a report title, empty when a single server is scanned.
+     */
+    private static String serverLabel(String server) {
+        return server == null ? "" : " for " + server;
+    }
+
+    private static String rulesLabel(String rulesHash) {
+        return rulesHash == null ? "" : ", rules " + rulesHash;
     }
 
     /**
@@ -0,0 +1,111 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Removed and remaining components of a page and their size, in total and by group, counted while each component
+ * is classified. The totals are added to the report summaries once per page.
+ */
+final class PageAccounting {
+
+    private static final int REMOVED_COUNT = 0;
+
+    private static final int REMOVED_BYTES = 1;
+
+    private static final int REMAINING_COUNT = 2;
+
+    private static final int REMAINING_BYTES = 3;
+
+    private final long[] totals = new long[4];
+
+    /**
+     * Totals by group name, null when the groups are not reported.
+     */
+    @Nullable
+    private final Map<String, long[]> groups;
+
+    /**
+     * @param byGroup true to count the components by group as well
+     */
+    PageAccounting(boolean byGroup) {
+        this.groups = byGroup ? new HashMap<>() : null;
+    }
+
+    /**
+     * Counts a component that is removed.
+     */
+    void removed(@NonNull SizedComponent component) {
+        add(component, REMOVED_COUNT);
+    }
+
+    /**
+     * Counts a component that remains in the repository.
+     */
+    void remaining(@NonNull SizedComponent component) {
+        add(component, REMAINING_COUNT);
+    }
+
+    private void add(SizedComponent component, int countIndex) {
+        totals[countIndex]++;
+        totals[countIndex + 1] += component.sizeBytes();
+        if (groups != null) {
+            // Components without group are only counted in the repository totals
+            String group = component.component().getGroup();
+            if (group != null) {
+                long[] groupTotals = groups.computeIfAbsent(group, key -> new long[4]);
+                groupTotals[countIndex]++;
+                groupTotals[countIndex + 1] += component.sizeBytes();
+            }
+        }
+    }
+
+    /**
+     * @return true if no component was counted
+     */
+    boolean isEmpty() {
+        return totals[REMOVED_COUNT] == 0 && totals[REMAINING_COUNT] == 0;
+    }
+
+    long getRemovedCount() {
+        return totals[REMOVED_COUNT];
+    }
+
+    long getRemovedBytes() {
+        return totals[REMOVED_BYTES];
+    }
+
+    long getRemainingCount() {
+        return totals[REMAINING_COUNT];
+    }
+
+    long getRemainingBytes() {
+        return totals[REMAINING_BYTES];
+    }
+
+    /**
+     * Adds the counted components to the enabled summaries.
+     *
+     * @param repositoryName   The repository of the page
+     * @param repositoryFormat The format of the repository
+     */
+    void addTo(@NonNull RepositoryComponentsSummary repositoryComponentsSummary, @NonNull GroupsSummary groupsSummary,
+               String repositoryName, String repositoryFormat) {
+        Objects.requireNonNull(repositoryComponentsSummary, "Repository summary cannot be null");
+        Objects.requireNonNull(groupsSummary, "Groups summary cannot be null");
+        if (repositoryComponentsSummary.isEnabled()) {
+            repositoryComponentsSummary.addRepositoryStats(repositoryName, repositoryFormat,
+                    totals[REMOVED_COUNT], totals[REMOVED_BYTES], totals[REMAINING_COUNT], totals[REMAINING_BYTES]);
+        }
+        if (groupsSummary.isEnabled() && groups != null) {
+            groups.forEach((group, groupTotals) -> groupsSummary.addGroupStats(group,
+                    groupTotals[REMOVED_COUNT], groupTotals[REMOVED_BYTES], groupTotals[REMAINING_COUNT], groupTotals[REMAINING_BYTES]));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Remembers pattern match results of repeating values such as group and component names.
+ * <p>
+ * Each pattern list gets its own result map keyed by the value, so a lookup allocates nothing.
+ * All maps share one entry budget; once it is used up, new values are matched without being remembered.
+ * Values seen first stay cached, which suits groups and names that repeat across the whole run.
+ */
+final class PatternMatchCache {
+
+    /**
+     * Estimated heap used by one entry: map node, boxed key reference and the retained value string.
+     */
+    static final int ESTIMATED_ENTRY_BYTES = 160;
+
+    /**
+     * Part of the maximum heap the cache may use, 1/64.
+     */
+    private static final int HEAP_FRACTION = 64;
+
+    private final long maxEntries;
+
+    private final AtomicLong entries = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    PatternMatchCache(long maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Max entries cannot be negative");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Creates a cache using at most 1/64 of the maximum heap.
+     */
+    @NonNull
+    static PatternMatchCache sizedFromHeap() {
+        return sizedFromHeap(1);
+    }
+
+    /**
+     * Creates one of several caches alive at the same time, together they use at most 1/64 of the maximum heap.
+     *
+     * @param caches Number of caches sharing the heap budget
+     */
+    @NonNull
+    static PatternMatchCache sizedFromHeap(int caches) {
+        if (caches < 1) {
+            throw new IllegalArgumentException("Caches must be at least 1");
+        }
+        return new PatternMatchCache(Runtime.getRuntime().maxMemory() / HEAP_FRACTION / ESTIMATED_ENTRY_BYTES / caches);
+    }
+
+    /**
+     * Wraps a pattern set so its results are remembered in this cache.
+     *
+     * @param patterns The compiled pattern list
+     * @return Memoizing matcher for the pattern list
+     */
+    @NonNull
+    Patterns memoize(@NonNull PatternSet patterns) {
+        Objects.requireNonNull(patterns, "Patterns cannot be null");
+        return new Patterns(patterns);
+    }
+
+    long getMaxEntries() {
+        return maxEntries;
+    }
+
+    long getEntries() {
+        return Math.min(entries.get(), maxEntries);
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Share of lookups answered from the cache, 0 if nothing was looked up
+     */
+    double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d entries, %d hits, %d misses, hit rate %.1f%%",
+                getEntries(), getHits(), getMisses(), getHitRate() * 100);
+    }
+
+    /**
+     * Pattern list with its remembered results.
+     */
+    final class Patterns {
+
+        private final PatternSet patterns;
+
+        private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+
+        private Patterns(PatternSet patterns) {
+            this.patterns = patterns;
+        }
+
+        /**
+         * Tests if a value matches any pattern of the list.
+         *
+         * @param value The value to test
+         * @return true if at least one pattern matches the whole value
+         */
+        boolean matches(@NonNull String value) {
+            if (patterns.isSimple()) {
+                return patterns.matches(value);
+            }
+            Boolean cached = results.get(value);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            boolean matched = patterns.matches(value);
+            if (entries.get() < maxEntries) {
+                if (entries.incrementAndGet() > maxEntries || results.putIfAbsent(value, matched) != null) {
+                    entries.decrementAndGet();
+                }
+            }
+            return matched;
+        }
+
+        @NonNull
+        PatternSet patterns() {
+            return patterns;
+        }
+
+        @Override
+        public String toString() {
+            return patterns.toString();
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A list of wildcard patterns compiled into one matcher, so a value is tested against all of them
+ * in about one pass over the value, independent of the number of patterns.
+ * <ul>
+ * <li>Literal patterns are looked up in a hash set.</li>
+ * <li>Contains patterns ({@code *text*}) are searched together with an Aho-Corasick automaton.</li>
+ * <li>All other patterns are combined into DFAs built eagerly by subset construction, one for patterns
+ * anchored at the start of the value and one for patterns starting with '*'. Keeping them apart avoids
+ * the state explosion of combining prefix tries with suffix searches. If a DFA would exceed its size limit,
+ * its patterns are matched one by one instead.</li>
+ * </ul>
+ * Patterns with the {@value #REGEX_PREFIX} prefix are regular expressions, combined into one {@link LinearRegex}
+ * and tested after the wildcard patterns.
+ * <p>
+ * Both automata use a compressed alphabet: only characters that appear in the patterns get their own
+ * transition column, every other character shares one column. Matching allocates nothing.
+ */
+final class PatternSet {
+
+    private static final Logger log = LoggerFactory.getLogger(PatternSet.class);
+
+    /**
+     * Maximum number of DFA transition table cells, 4 MB of int.
+     */
+    static final int MAX_DFA_TABLE_SIZE = 1 << 20;
+
+    /**
+     * Prefix of patterns that are regular expressions instead of wildcard patterns.
+     */
+    static final String REGEX_PREFIX = "re:";
+
+    private static final int DEAD = -1;
+
+    private final List<String> patterns;
+
+    private final boolean matchesAll;
+
+    private final boolean matchesEmpty;
+
+    private final Set<String> literals;
+
+    @Nullable
+    private final Automaton contains;
+
+    @Nullable
+    private final Automaton anchoredGlobs;
+
+    @Nullable
+    private final Automaton floatingGlobs;
+
+    private final WildcardMatcher[] fallback;
+
+    @Nullable
+    private final LinearRegex regex;
+
+    private PatternSet(List<String> patterns, boolean matchesAll, boolean matchesEmpty, Set<String> literals,
+                       @Nullable Automaton contains, @Nullable Automaton anchoredGlobs, @Nullable Automaton floatingGlobs,
+                       WildcardMatcher[] fallback, @Nullable LinearRegex regex) {
+        this.patterns = patterns;
+        this.matchesAll = matchesAll;
+        this.matchesEmpty = matchesEmpty;
+        this.literals = literals;
+        this.contains = contains;
+        this.anchoredGlobs = anchoredGlobs;
+        this.floatingGlobs = floatingGlobs;
+        this.fallback = fallback;
+        this.regex = regex;
+    }
+
+    /**
+     * Compiles a list of wildcard patterns.
+     *
+     * @param patterns Wildcard patterns, see {@link WildcardMatcher}, or regular expressions with the {@value #REGEX_PREFIX} prefix
+     * @return Compiled pattern set, matching a value if any of the patterns matches it
+     * @throws IllegalArgumentException if a regular expression is invalid
+     */
+    @NonNull
+    static PatternSet compile(@NonNull List<String> patterns) {
+        return compile(patterns, MAX_DFA_TABLE_SIZE);
+    }
+
+    @NonNull
+    static PatternSet compile(@NonNull List<String> patterns, int maxDfaTableSize) {
+        Objects.requireNonNull(patterns, "Patterns cannot be null");
+
+        boolean matchesAll = false;
+        boolean matchesEmpty = false;
+        Set<String> literals = new HashSet<>();
+        List<String> containsTexts = new ArrayList<>();
+        List<WildcardMatcher> anchored = new ArrayList<>();
+        List<WildcardMatcher> floating = new ArrayList<>();
+        List<String> regexes = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (isRegex(pattern)) {
+                regexes.add(pattern.substring(REGEX_PREFIX.length()));
+                continue;
+            }
+            WildcardMatcher matcher = WildcardMatcher.compile(pattern);
+            switch (matcher.kind()) {
+                case EMPTY -> matchesEmpty = true;
+                case ANY -> matchesAll = true;
+                case LITERAL -> literals.add(matcher.literal());
+                case CONTAINS -> containsTexts.add(matcher.literal());
+                default -> (matcher.pattern().charAt(0) == '*' ? floating : anchored).add(matcher);
+            }
+        }
+
+        Automaton contains = containsTexts.isEmpty() ? null : buildAhoCorasick(containsTexts);
+        List<WildcardMatcher> fallback = new ArrayList<>();
+        Automaton anchoredGlobs = buildDfa(anchored, maxDfaTableSize, fallback);
+        Automaton floatingGlobs = buildDfa(floating, maxDfaTableSize, fallback);
+        return new PatternSet(List.copyOf(patterns), matchesAll, matchesEmpty, Set.copyOf(literals), contains,
+                anchoredGlobs, floatingGlobs, fallback.toArray(new WildcardMatcher[0]),
+                regexes.isEmpty() ? null : LinearRegex.compileAny(regexes));
+    }
+
+    /**
+     * @param pattern The pattern, may be null
+     * @return true if the pattern is a regular expression with the {@value #REGEX_PREFIX} prefix
+     */
+    static boolean isRegex(@Nullable String pattern) {
+        return pattern != null && pattern.startsWith(REGEX_PREFIX);
+    }
+
+    /**
+     * Tests if a value matches any pattern of this set.
+     *
+     * @param value The value to test
+     * @return true if at least one pattern matches the whole value
+     */
+    boolean matches(@NonNull String value) {
+        if (matchesAll) {
+            return true;
+        }
+        if (value.isEmpty()) {
+            return matchesEmpty || (regex != null && regex.matches(value));
+        }
+        if (literals.contains(value)) {
+            return true;
+        }
+        if (contains != null && contains.run(value)) {
+            return true;
+        }
+        if (anchoredGlobs != null && anchoredGlobs.run(value)) {
+            return true;
+        }
+        if (floatingGlobs != null && floatingGlobs.run(value)) {
+            return true;
+        }
+        for (WildcardMatcher matcher : fallback) {
+            if (matcher.matches(value)) {
+                return true;
+            }
+        }
+        return regex != null && regex.matches(value);
+    }
+
+    /**
+     * @return true if matching is a constant or a single hash lookup, remembering results would not be faster
+     */
+    boolean isSimple() {
+        return matchesAll || (contains == null && anchoredGlobs == null && floatingGlobs == null && fallback.length == 0 && regex == null);
+    }
+
+    /**
+     * @return true if some patterns are not compiled into the DFA because of its size limit
+     */
+    boolean usesFallback() {
+        return fallback.length > 0;
+    }
+
+    /**
+     * @return The source patterns
+     */
+    @NonNull
+    List<String> patterns() {
+        return patterns;
+    }
+
+    @Override
+    public String toString() {
+        return patterns.toString();
+    }
+
+    /**
+     * Builds a DFA from the Aho-Corasick trie of the texts: every state has a transition for every character class,
+     * and a state accepts if any text ends there or at one of its suffix states.
+     */
+    private static Automaton buildAhoCorasick(List<String> texts) {
+        CharClasses classes = CharClasses.of(texts);
+        int width = classes.count();
+
+        // Trie, state 0 is the root
+        List<int[]> transitions = new ArrayList<>();
+        List<Boolean> accepting = new ArrayList<>();
+        transitions.add(newRow(width, DEAD));
+        accepting.add(false);
+        for (String text : texts) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int c = classes.classOf(text.charAt(i));
+                int next = transitions.get(state)[c];
+                if (next == DEAD) {
+                    next = transitions.size();
+                    transitions.add(newRow(width, DEAD));
+                    accepting.add(false);
+                    transitions.get(state)[c] = next;
+                }
+                state = next;
+            }
+            accepting.set(state, true);
+        }
+
+        // Breadth first: complete missing transitions with those of the failure state
+        int[] failure = new int[transitions.size()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] root = transitions.get(0);
+        for (int c = 0; c < width; c++) {
+            if (root[c] == DEAD) {
+                root[c] = 0;
+            } else {
+                failure[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = transitions.get(state);
+            if (accepting.get(failure[state])) {
+                accepting.set(state, true);
+            }
+            for (int c = 0; c < width; c++) {
+                int fallbackState = transitions.get(failure[state])[c];
+                if (row[c] == DEAD) {
+                    row[c] = fallbackState;
+                } else {
+                    failure[row[c]] = fallbackState;
+                    queue.add(row[c]);
+                }
+            }
+        }
+
+        int[] table = new int[transitions.size() * width];
+        boolean[] accept = new boolean[transitions.size()];
+        for (int state = 0; state < transitions.size(); state++) {
+            System.arraycopy(transitions.get(state), 0, table, state * width, width);
+            accept[state] = accepting.get(state);
+        }
+        // Once a text is found the value matches, accepting states are final
+        return new Automaton(classes, table, accept, accept);
+    }
+
+    /**
+     * Builds a DFA for the glob patterns by subset construction over the pattern positions.
+     * Position j of a pattern means its first j characters are matched; '*' may match nothing, so the
+     * position after a '*' is always included with it.
+     *
+     * @param fallback Receives the matchers if the DFA exceeds the maximum table size
+     * @return The DFA, or null if there are no patterns or the DFA exceeds the maximum table size
+     */
+    @Nullable
+    private static Automaton buildDfa(List<WildcardMatcher> matchers, int maxTableSize, List<WildcardMatcher> fallback) {
+        if (matchers.isEmpty()) {
+            return null;
+        }
+        List<String> patterns = matchers.stream().map(WildcardMatcher::pattern).toList();
+        CharClasses classes = CharClasses.of(patterns);
+        int width = classes.count();
+
+        // Flatten all pattern positions, the end of each pattern is a position too
+        int positionCount = patterns.stream().mapToInt(pattern -> pattern.length() + 1).sum();
+        char[] tokens = new char[positionCount];
+        boolean[] end = new boolean[positionCount];
+        boolean[] anyTail = new boolean[positionCount];
+        BitSet start = new BitSet(positionCount);
+        int base = 0;
+        for (String pattern : patterns) {
+            for (int j = 0; j < pattern.length(); j++) {
+                tokens[base + j] = pattern.charAt(j);
+            }
+            end[base + pattern.length()] = true;
+            // Positions followed only by '*' accept any remaining characters
+            for (int j = pattern.length() - 1; j >= 0 && pattern.charAt(j) == '*'; j--) {
+                anyTail[base + j] = true;
+            }
+            start.set(base);
+            base += pattern.length() + 1;
+        }
+        closure(start, tokens, end);
+
+        Map<BitSet, Integer> stateIds = new HashMap<>();
+        List<BitSet> states = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        stateIds.put(start, 0);
+        states.add(start);
+        for (int state = 0; state < states.size(); state++) {
+            if ((long) states.size() * width > maxTableSize) {
+                log.debug("Pattern DFA exceeds {} cells, matching {} patterns one by one", maxTableSize, matchers.size());
+                fallback.addAll(matchers);
+                return null;
+            }
+            BitSet current = states.get(state);
+            int[] row = new int[width];
+            for (int c = 0; c < width; c++) {
+                BitSet next = new BitSet(positionCount);
+                char representative = classes.representative(c);
+                for (int position = current.nextSetBit(0); position >= 0; position = current.nextSetBit(position + 1)) {
+                    if (end[position]) {
+                        continue;
+                    }
+                    char token = tokens[position];
+                    if (token == '*') {
+                        next.set(position);
+                    } else if (token == '?' || (c != CharClasses.OTHER && token == representative)) {
+                        next.set(position + 1);
+                    }
+                }
+                if (next.isEmpty()) {
+                    row[c] = DEAD;
+                    continue;
+                }
+                closure(next, tokens, end);
+                Integer id = stateIds.get(next);
+                if (id == null) {
+                    id = states.size();
+                    stateIds.put(next, id);
+                    states.add(next);
+                }
+                row[c] = id;
+            }
+            rows.add(row);
+        }
+
+        int[] table = new int[states.size() * width];
+        boolean[] accept = new boolean[states.size()];
+        boolean[] acceptAll = new boolean[states.size()];
+        for (int state = 0; state < states.size(); state++) {
+            System.arraycopy(rows.get(state), 0, table, state * width, width);
+            BitSet positions = states.get(state);
+            for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+                accept[state] |= end[position];
+                acceptAll[state] |= anyTail[position];
+            }
+        }
+        log.trace("Compiled {} patterns into a DFA of {} states and {} character classes", patterns.size(), states.size(), width);
+        return new Automaton(classes, table, accept, acceptAll);
+    }
+
+    private static void closure(BitSet positions, char[] tokens, boolean[] end) {
+        for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+            if (!end[position] && tokens[position] == '*') {
+                positions.set(position + 1);
+            }
+        }
+    }
+
+    private static int[] newRow(int width, int value) {
+        int[] row = new int[width];
+        Arrays.fill(row, value);
+        return row;
+    }
+
+    /**
+     * Deterministic automaton over character classes, state 0 is the start state.
+     *
+     * @param transitions Next state for each state and character class, {@link #DEAD} when no pattern can match
+     * @param accept      States in which the value read so far matches
+     * @param acceptAll   States from which any continuation matches
+     */
+    private record Automaton(CharClasses classes, int[] transitions, boolean[] accept, boolean[] acceptAll) {
+
+        boolean run(String value) {
+            int width = classes.count();
+            int state = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (acceptAll[state]) {
+                    return true;
+                }
+                state = transitions[state * width + classes.classOf(value.charAt(i))];
+                if (state == DEAD) {
+                    return false;
+                }
+            }
+            return accept[state];
+        }
+    }
+
+    /**
+     * Compressed alphabet: each character used in the patterns has its own class, all other characters are class 0.
+     * ASCII characters are looked up in a table, others by binary search.
+     */
+    private static final class CharClasses {
+
+        static final int OTHER = 0;
+
+        private final int[] ascii = new int[128];
+
+        private final char[] nonAscii;
+
+        private final char[] representatives;
+
+        private CharClasses(TreeSet<Character> chars) {
+            this.representatives = new char[chars.size() + 1];
+            int asciiCount = 0;
+            int next = 1;
+            for (char c : chars) {
+                representatives[next] = c;
+                if (c < 128) {
+                    ascii[c] = next;
+                    asciiCount++;
+                }
+                next++;
+            }
+            this.nonAscii = new char[chars.size() - asciiCount];
+            int i = 0;
+            for (char c : chars) {
+                if (c >= 128) {
+                    nonAscii[i++] = c;
+                }
+            }
+        }
+
+        /**
+         * Collects the characters of the patterns, wildcards are not characters of the alphabet.
+         */
+        static CharClasses of(List<String> patterns) {
+            TreeSet<Character> chars = new TreeSet<>();
+            for (String pattern : patterns) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (c != '*' && c != '?') {
+                        chars.add(c);
+                    }
+                }
+            }
+            return new CharClasses(chars);
+        }
+
+        int count() {
+            return representatives.length;
+        }
+
+        char representative(int characterClass) {
+            return representatives[characterClass];
+        }
+
+        int classOf(char c) {
+            if (c < 128) {
+                return ascii[c];
+            }
+            int index = Arrays.binarySearch(nonAscii, c);
+            return index < 0 ? OTHER : 1 + (representatives.length - 1 - nonAscii.length) + index;
+        }
+    }
+}
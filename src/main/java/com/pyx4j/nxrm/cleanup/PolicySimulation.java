@@ -0,0 +1,398 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonatype.nexus.model.ComponentXO;
+
+/**
+ * Removals of several rule sets (policies) evaluated during one dry-run scan, see {@code --rules} with several files.
+ * <p>
+ * Each component is recorded once with the policies that would remove it as a bit mask. This gives the components
+ * and bytes removed by each policy, by any policy, and by every pair of policies (the overlap).
+ * <p>
+ * Components matching a {@code retainLatest} rule of a policy are only decided by that policy after the last page
+ * of their repository, they are held by {@link Repository} until all policies decided them, in memory up to a limit
+ * and on disk beyond it.
+ */
+final class PolicySimulation {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicySimulation.class);
+
+    /**
+     * Maximum number of policies, one bit of the mask each.
+     */
+    static final int MAX_POLICIES = Integer.SIZE;
+
+    /**
+     * Default maximum number of components per repository waiting for retention decisions in memory.
+     */
+    static final int DEFAULT_MAX_PENDING_IN_MEMORY = RetentionTracker.DEFAULT_MAX_ARTIFACTS_IN_MEMORY;
+
+    private static final int SPILL_PARTITIONS = RetentionTracker.SPILL_PARTITIONS;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String server;
+
+    private final List<String> policies;
+
+    /**
+     * Removed components by pair of policies, the diagonal holds the removals of each policy.
+     */
+    private final long[][] overlapCount;
+
+    private final long[][] overlapBytes;
+
+    private long totalCount;
+
+    private long totalBytes;
+
+    private long anyCount;
+
+    private long anyBytes;
+
+    /**
+     * @param server   The server label of the reports, null when a single server is scanned
+     * @param policies Names of the policies, in the order of the bits of the masks
+     */
+    PolicySimulation(@Nullable String server, @NonNull List<String> policies) {
+        Objects.requireNonNull(policies, "Policies cannot be null");
+        if (policies.isEmpty() || policies.size() > MAX_POLICIES) {
+            throw new IllegalArgumentException("Policy simulation supports 1 to " + MAX_POLICIES + " policies");
+        }
+        this.server = server;
+        this.policies = List.copyOf(policies);
+        this.overlapCount = new long[policies.size()][policies.size()];
+        this.overlapBytes = new long[policies.size()][policies.size()];
+    }
+
+    /**
+     * Records a decided component.
+     *
+     * @param removedMask Policies removing the component, bit {@code i} for policy {@code i}
+     * @param sizeBytes   Size of the component
+     */
+    synchronized void add(int removedMask, long sizeBytes) {
+        totalCount++;
+        totalBytes += sizeBytes;
+        if (removedMask == 0) {
+            return;
+        }
+        anyCount++;
+        anyBytes += sizeBytes;
+        for (int first = removedMask; first != 0; first &= first - 1) {
+            int i = Integer.numberOfTrailingZeros(first);
+            for (int second = first; second != 0; second &= second - 1) {
+                int j = Integer.numberOfTrailingZeros(second);
+                overlapCount[i][j]++;
+                overlapBytes[i][j] += sizeBytes;
+            }
+        }
+    }
+
+    /**
+     * @return Decisions of one repository, used by the scan of that repository only
+     */
+    @NonNull
+    Repository repository() {
+        return repository(DEFAULT_MAX_PENDING_IN_MEMORY);
+    }
+
+    /**
+     * @param maxPendingInMemory Number of components waiting for retention decisions kept in memory before spilling to disk
+     * @return Decisions of one repository, used by the scan of that repository only
+     */
+    @NonNull
+    Repository repository(int maxPendingInMemory) {
+        if (maxPendingInMemory < 0) {
+            throw new IllegalArgumentException("Maximum pending components in memory cannot be negative");
+        }
+        return new Repository(maxPendingInMemory);
+    }
+
+    @Nullable
+    String getServer() {
+        return server;
+    }
+
+    @NonNull
+    List<String> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * @return Components removed by both policies, or by the policy when {@code first == second}
+     */
+    synchronized long getRemovedCount(int first, int second) {
+        return overlapCount[Math.min(first, second)][Math.max(first, second)];
+    }
+
+    /**
+     * @return Bytes removed by both policies, or by the policy when {@code first == second}
+     */
+    synchronized long getRemovedBytes(int first, int second) {
+        return overlapBytes[Math.min(first, second)][Math.max(first, second)];
+    }
+
+    /**
+     * @return Components removed by at least one policy
+     */
+    synchronized long getAnyRemovedCount() {
+        return anyCount;
+    }
+
+    synchronized long getAnyRemovedBytes() {
+        return anyBytes;
+    }
+
+    /**
+     * @return All components decided, removed or not
+     */
+    synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Decisions of the components of one repository. Components waiting for a {@code retainLatest} decision are
+     * recorded once all their policies decided them.
+     * <p>
+     * Memory use is bounded by the number of components waiting in memory. Components first deferred after that limit
+     * is reached are appended to partition files on disk by hash of their key, like {@link RetentionTracker}, together
+     * with their later retention decisions. Each partition is decided on its own by {@link #finish()}.
+     */
+    final class Repository {
+
+        private final int maxPendingInMemory;
+
+        private final Map<String, Pending> pending = new HashMap<>();
+
+        @Nullable
+        private Path spillDirectory;
+
+        private final BufferedWriter[] spillWriters = new BufferedWriter[SPILL_PARTITIONS];
+
+        private long spilledDecisions;
+
+        private static final class Pending {
+
+            private int removedMask;
+
+            private int waitingMask;
+
+            private final long sizeBytes;
+
+            private Pending(int removedMask, int waitingMask, long sizeBytes) {
+                this.removedMask = removedMask;
+                this.waitingMask = waitingMask;
+                this.sizeBytes = sizeBytes;
+            }
+
+            /**
+             * @return true once all policies decided the component
+             */
+            private boolean decide(int policyMask, boolean removed) {
+                if (removed) {
+                    removedMask |= policyMask;
+                }
+                waitingMask &= ~policyMask;
+                return waitingMask == 0;
+            }
+        }
+
+        /**
+         * A spilled decision, written as one JSON line. The first decision of a component holds its size and the
+         * policies it waits for, a retention decision holds the bit of its policy.
+         */
+        private record SpilledDecision(String key, boolean retention, int removedMask, int waitingMask, long sizeBytes) {
+        }
+
+        private Repository(int maxPendingInMemory) {
+            this.maxPendingInMemory = maxPendingInMemory;
+        }
+
+        /**
+         * Records the decisions of all policies for a component of a page.
+         *
+         * @param component    The component
+         * @param removedMask  Policies removing the component
+         * @param deferredMask Policies that decide it later with their retention rules, see {@link #decideDeferred}
+         */
+        void decide(@NonNull SizedComponent component, int removedMask, int deferredMask) {
+            if (deferredMask == 0) {
+                add(removedMask, component.sizeBytes());
+            } else if (pending.size() >= maxPendingInMemory) {
+                spill(new SpilledDecision(key(component.component()), false, removedMask, deferredMask, component.sizeBytes()));
+            } else {
+                pending.put(key(component.component()), new Pending(removedMask, deferredMask, component.sizeBytes()));
+            }
+        }
+
+        /**
+         * Records the retention decision of one policy for a component passed to {@link #decide} before.
+         *
+         * @param policy    The policy
+         * @param component The component
+         * @param removed   true when the component is not among the latest versions kept by the policy
+         */
+        void decideDeferred(int policy, @NonNull SizedComponent component, boolean removed) {
+            String key = key(component.component());
+            Pending decision = pending.get(key);
+            if (decision == null) {
+                if (spilledDecisions > 0) {
+                    // The component may be waiting on disk, unknown components are ignored when the partition is read
+                    spill(new SpilledDecision(key, true, removed ? 1 << policy : 0, 1 << policy, 0));
+                }
+                return;
+            }
+            if (decision.decide(1 << policy, removed)) {
+                pending.remove(key);
+                add(decision.removedMask, decision.sizeBytes);
+            }
+        }
+
+        /**
+         * Decides the spilled components one partition at a time, then records the components still waiting as
+         * not removed by the policies that did not decide them. Components only keep waiting when the scan of
+         * the repository stopped on an error. Spill files are deleted.
+         */
+        void finish() {
+            closeWriters();
+            try {
+                for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                    decidePartition(partition);
+                }
+            } finally {
+                deleteSpillFiles();
+            }
+            for (Pending decision : pending.values()) {
+                add(decision.removedMask, decision.sizeBytes);
+            }
+            pending.clear();
+        }
+
+        /**
+         * @return Number of components waiting for retention decisions in memory
+         */
+        int getPending() {
+            return pending.size();
+        }
+
+        /**
+         * @return Number of decisions written to disk
+         */
+        long getSpilledDecisions() {
+            return spilledDecisions;
+        }
+
+        private static String key(ComponentXO component) {
+            if (component.getId() != null) {
+                return component.getId();
+            }
+            return component.getGroup() + ':' + component.getName() + ':' + component.getVersion();
+        }
+
+        private void spill(SpilledDecision decision) {
+            int partition = Math.floorMod(decision.key().hashCode(), SPILL_PARTITIONS);
+            try {
+                if (spillWriters[partition] == null) {
+                    if (spillDirectory == null) {
+                        spillDirectory = Files.createTempDirectory("nxrm-simulation-");
+                        log.debug("More than {} components waiting for retention decisions, spilling to {}", maxPendingInMemory, spillDirectory);
+                    }
+                    spillWriters[partition] = Files.newBufferedWriter(partitionFile(partition), StandardCharsets.UTF_8);
+                }
+                spillWriters[partition].write(objectMapper.writeValueAsString(decision));
+                spillWriters[partition].newLine();
+                spilledDecisions++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to spill policy simulation state", e);
+            }
+        }
+
+        /**
+         * Reads one spill partition back, it holds all decisions of its components in the order they were made.
+         * Components still waiting at the end of the partition stay pending.
+         */
+        private void decidePartition(int partition) {
+            if (spillDirectory == null || !Files.exists(partitionFile(partition))) {
+                return;
+            }
+            Map<String, Pending> partitionPending = new HashMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(partitionFile(partition), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    SpilledDecision spilled = objectMapper.readValue(line, SpilledDecision.class);
+                    if (!spilled.retention()) {
+                        partitionPending.put(spilled.key(), new Pending(spilled.removedMask(), spilled.waitingMask(), spilled.sizeBytes()));
+                        continue;
+                    }
+                    Pending decision = partitionPending.get(spilled.key());
+                    if (decision != null && decision.decide(spilled.waitingMask(), spilled.removedMask() != 0)) {
+                        partitionPending.remove(spilled.key());
+                        add(decision.removedMask, decision.sizeBytes);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read policy simulation state", e);
+            }
+            for (Pending decision : partitionPending.values()) {
+                add(decision.removedMask, decision.sizeBytes);
+            }
+        }
+
+        private Path partitionFile(int partition) {
+            return Objects.requireNonNull(spillDirectory).resolve("partition-" + partition + ".jsonl");
+        }
+
+        private void closeWriters() {
+            for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                if (spillWriters[partition] != null) {
+                    try {
+                        spillWriters[partition].close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to spill policy simulation state", e);
+                    }
+                    spillWriters[partition] = null;
+                }
+            }
+        }
+
+        private void deleteSpillFiles() {
+            if (spillDirectory == null) {
+                return;
+            }
+            for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                try {
+                    Files.deleteIfExists(partitionFile(partition));
+                } catch (IOException e) {
+                    log.warn("Failed to delete policy simulation spill file {}", partitionFile(partition), e);
+                }
+            }
+            try {
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException e) {
+                log.warn("Failed to delete policy simulation spill directory {}", spillDirectory, e);
+            }
+            spillDirectory = null;
+        }
+    }
+}
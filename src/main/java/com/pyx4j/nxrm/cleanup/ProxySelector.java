@@ -88,9 +88,37 @@ public final class ProxySelector {
             return webClientBuilder;
         }
 
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(applyProxy(HttpClient.create(), proxyConfig)));
+    }
+
+    /**
+     * Configures WebClient builder to use the given shared HTTP client, with proxy settings if available.
+     * Proxied and direct connections are both created from the same HTTP client and its resources,
+     * so they share its connection pool, transport options and protocol settings.
+     *
+     * @param webClientBuilder WebClient builder to configure
+     * @param httpClient       Shared HTTP client to derive the connector from
+     * @param proxyConfig      Proxy configuration (nullable)
+     * @return The configured WebClient builder
+     */
+    public static WebClient.Builder configureProxy(WebClient.Builder webClientBuilder, HttpClient httpClient, @Nullable ProxyConfig proxyConfig) {
+        Objects.requireNonNull(webClientBuilder, "WebClient builder cannot be null");
+        Objects.requireNonNull(httpClient, "HTTP client cannot be null");
+
+        HttpClient client = httpClient;
+        if (proxyConfig == null) {
+            log.trace("No proxy configuration provided, using direct connection");
+        } else {
+            client = applyProxy(httpClient, proxyConfig);
+        }
+
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(client));
+    }
+
+    private static HttpClient applyProxy(HttpClient httpClient, ProxyConfig proxyConfig) {
         log.info("Configuring HTTP client with proxy: {}:{}", proxyConfig.getHost(), proxyConfig.getPort());
 
-        HttpClient httpClient = HttpClient.create()
+        return httpClient
                 .proxy(proxy -> {
                     ProxyProvider.Builder proxyBuilder = proxy.type(ProxyProvider.Proxy.HTTP)
                             .host(proxyConfig.getHost())
@@ -101,8 +129,6 @@ public final class ProxySelector {
                                 .password(unused -> proxyConfig.getPassword());
                     }
                 });
-
-        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient));
     }
 
     @Nullable
@@ -0,0 +1,225 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.pyx4j.nxrm.cleanup.model.CleanupRuleSet;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The compiled rules of a rules file, optionally reloaded when the file changes.
+ * <p>
+ * Each version of the file is parsed and validated with {@link CleanupRuleParser} and compiled into a new
+ * {@link ComponentFilter}, then published with a single reference swap. Callers take the {@link #current()}
+ * version once per page, so a page in flight finishes with the rules it started with and the next page uses
+ * the new ones. A file that fails to parse or validate is reported and the previous rules stay active.
+ * <p>
+ * Versions are identified by the hash of the file content, shown in logs and reports.
+ * <p>
+ * The watcher reloads on any change in the directory of the file, not only on events naming the file:
+ * a Kubernetes ConfigMap volume links {@code rules.yml} to {@code ..data/rules.yml} and updates it by swapping
+ * the {@code ..data} symlink, so no event names the rules file. Reloading unchanged content is a no-op.
+ */
+final class ReloadableRuleSet implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableRuleSet.class);
+
+    /**
+     * Number of hexadecimal digits of the SHA-256 content hash used as version.
+     */
+    static final int HASH_LENGTH = 12;
+
+    /**
+     * Delay after a change event before reading the file, lets the editor finish writing it.
+     */
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path rulesFile;
+
+    private final Function<CleanupRuleSet, ComponentFilter> compiler;
+
+    private final AtomicReference<Version> current = new AtomicReference<>();
+
+    /**
+     * Hashes of all versions activated so far, in activation order.
+     */
+    private final List<String> history = new ArrayList<>();
+
+    @Nullable
+    private WatchService watchService;
+
+    /**
+     * A compiled version of the rules file.
+     *
+     * @param filter The compiled rules
+     * @param hash   Content hash of the rules file, see {@link #hash(byte[])}
+     */
+    record Version(@NonNull ComponentFilter filter, @NonNull String hash) {
+    }
+
+    private ReloadableRuleSet(Path rulesFile, Function<CleanupRuleSet, ComponentFilter> compiler) {
+        this.rulesFile = rulesFile;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Loads and compiles the rules file.
+     *
+     * @param rulesFile The YAML rules file
+     * @param compiler  Creates the filter of a validated rule set
+     * @return The loaded rules, not watched yet
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the rules are invalid
+     */
+    @NonNull
+    static ReloadableRuleSet load(@NonNull Path rulesFile, @NonNull Function<CleanupRuleSet, ComponentFilter> compiler) throws IOException {
+        Objects.requireNonNull(rulesFile, "Rules file cannot be null");
+        Objects.requireNonNull(compiler, "Compiler cannot be null");
+        ReloadableRuleSet rules = new ReloadableRuleSet(rulesFile, compiler);
+        Version version = rules.compile(Files.readAllBytes(rulesFile));
+        rules.activate(version);
+        log.info("Loaded cleanup rules {} (hash {})", rulesFile, version.hash());
+        return rules;
+    }
+
+    /**
+     * @return The active version, take it once per unit of work to use consistent rules
+     */
+    @NonNull
+    Version current() {
+        return current.get();
+    }
+
+    /**
+     * @return Hashes of the versions activated since loading, the first is the initial version
+     */
+    @NonNull
+    synchronized List<String> getHistory() {
+        return List.copyOf(history);
+    }
+
+    /**
+     * Reads the rules file again and activates it if its content changed and it is valid.
+     *
+     * @return true if a new version was activated
+     */
+    synchronized boolean reload() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(rulesFile);
+        } catch (IOException e) {
+            log.warn("Cannot read cleanup rules {}, keeping rules {}: {}", rulesFile, current().hash(), e.getMessage());
+            return false;
+        }
+        String hash = hash(content);
+        Version previous = current();
+        if (hash.equals(previous.hash())) {
+            return false;
+        }
+        Version version;
+        try {
+            version = compile(content);
+        } catch (IOException | RuntimeException e) {
+            // Parse errors, empty files and validation errors
+            log.warn("Invalid cleanup rules {}, keeping rules {}: {}", rulesFile, previous.hash(), e.getMessage());
+            return false;
+        }
+        activate(version);
+        log.info("Reloaded cleanup rules {} (hash {} replaces {})", rulesFile, version.hash(), previous.hash());
+        return true;
+    }
+
+    /**
+     * Starts watching the directory of the rules file, changes are reloaded by a daemon thread until closed.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        Path directory = rulesFile.toAbsolutePath().getParent();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        // Editors replace files by creating a new one or write in place, ConfigMap volumes rename a symlink
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watchService = service;
+        Thread thread = new Thread(() -> watchLoop(service), "rules-watcher-" + rulesFile.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching cleanup rules {} for changes", rulesFile);
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                // The rules file may be a symlink through an entry of the directory, any event may change it
+                List<WatchEvent<?>> events = key.pollEvents();
+                if (!events.isEmpty()) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    // Unchanged content is ignored, several events of one save or swap activate one version
+                    reload();
+                }
+                if (!key.reset()) {
+                    log.warn("Stopped watching cleanup rules {}, the directory is no longer accessible", rulesFile);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    private Version compile(byte[] content) throws IOException {
+        CleanupRuleSet ruleSet = new CleanupRuleParser().parseFromStream(new ByteArrayInputStream(content));
+        return new Version(compiler.apply(ruleSet), hash(content));
+    }
+
+    private synchronized void activate(Version version) {
+        current.set(version);
+        history.add(version.hash());
+    }
+
+    /**
+     * @return The first {@link #HASH_LENGTH} hexadecimal digits of the SHA-256 hash of the content
+     */
+    @NonNull
+    static String hash(byte @NonNull [] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combines partial JSON/CSV reports of sharded or per-server runs into one summary per server.
+ * <p>
+ * Reports are read in a streaming fashion, one repository or group entry at a time,
+ * so memory depends on the number of distinct repositories and groups, not on the size of the inputs.
+ */
+final class ReportMerger {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportMerger.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, MergedServer> servers = new LinkedHashMap<>();
+
+    /**
+     * Merges one partial report, the format is selected by the file extension.
+     *
+     * @param reportFile JSON or CSV report written with --report-output-file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file format is not supported or the report has approximate groups
+     */
+    void merge(@NonNull Path reportFile) throws IOException {
+        Objects.requireNonNull(reportFile, "Report file cannot be null");
+
+        String fileName = reportFile.getFileName().toString();
+        log.debug("Merging report {}", reportFile);
+        if (fileName.endsWith(".json")) {
+            mergeJson(reportFile);
+        } else if (fileName.endsWith(".csv")) {
+            mergeCsv(reportFile);
+        } else {
+            throw new IllegalArgumentException("Unsupported file format: " + reportFile);
+        }
+    }
+
+    /**
+     * @return Merged repository summaries by server, in the order servers were first seen
+     */
+    @NonNull
+    Collection<RepositoryComponentsSummary> getRepositorySummaries() {
+        return servers.values().stream()
+                .map(MergedServer::repositories)
+                .filter(RepositoryComponentsSummary::isEnabled)
+                .toList();
+    }
+
+    /**
+     * @return Merged group summaries by server, in the order servers were first seen
+     */
+    @NonNull
+    Collection<GroupsSummary> getGroupSummaries() {
+        return servers.values().stream()
+                .map(MergedServer::groups)
+                .filter(GroupsSummary::isEnabled)
+                .toList();
+    }
+
+    /**
+     * @return true if no report section was merged
+     */
+    boolean isEmpty() {
+        return getRepositorySummaries().isEmpty() && getGroupSummaries().isEmpty();
+    }
+
+    private void mergeJson(Path reportFile) throws IOException {
+        // A report file is a sequence of root level JSON objects, one per report section
+        try (JsonParser parser = objectMapper.getFactory().createParser(reportFile.toFile())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Unexpected JSON content in report " + reportFile + ": " + token);
+                }
+                mergeJsonSection(parser);
+            }
+        }
+    }
+
+    private void mergeJsonSection(JsonParser parser) throws IOException {
+        String server = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "server" -> server = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "repositoryStats" -> {
+                    RepositoryComponentsSummary summary = server(server).repositories();
+                    summary.setEnabled(true);
+                    readJsonEntries(parser, (repository, stats) -> summary.addRepositoryStats(repository,
+                            stats.path("format").asText("-"),
+                            stats.path("componentCount").asLong(),
+                            stats.path("sizeBytes").asLong(),
+                            stats.path("remainingComponentCount").asLong(),
+                            stats.path("remainingSizeBytes").asLong()));
+                }
+                case "groupStats" -> {
+                    GroupsSummary summary = server(server).groups();
+                    summary.setEnabled(true);
+                    readJsonEntries(parser, (group, stats) -> summary.addGroupStats(group,
+                            stats.path("componentCount").asLong(),
+                            stats.path("sizeBytes").asLong(),
+                            stats.path("remainingComponentCount").asLong(),
+                            stats.path("remainingSizeBytes").asLong()));
+                }
+                case "approximateCapacity" -> {
+                    if (parser.getValueAsLong() > 0) {
+                        throw approximateGroups(server);
+                    }
+                }
+                // Totals are recalculated from the merged entries
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the entries of a JSON object one at a time.
+     */
+    private void readJsonEntries(JsonParser parser, BiConsumer<String, JsonNode> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            consumer.accept(key, objectMapper.readTree(parser));
+        }
+    }
+
+    private void mergeCsv(Path reportFile) throws IOException {
+        String server = null;
+        CsvSection section = CsvSection.NONE;
+        boolean warnedAboutGroups = false;
+        try (Reader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReader(reader)) {
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                if (row.length == 2 && CsvReportWriter.SERVER.equals(row[0])) {
+                    server = row[1];
+                } else if (isHeader(row, CsvReportWriter.REPOSITORY_HEADER)) {
+                    section = CsvSection.REPOSITORIES;
+                    server(server).repositories().setEnabled(true);
+                } else if (Arrays.equals(row, CsvReportWriter.APPROXIMATE_GROUP_HEADER)) {
+                    throw approximateGroups(server);
+                } else if (isHeader(row, CsvReportWriter.GROUP_HEADER)) {
+                    section = CsvSection.GROUPS;
+                    server(server).groups().setEnabled(true);
+                    if (!warnedAboutGroups) {
+                        log.warn("CSV report {} contains only the top groups, use JSON reports to merge all groups", reportFile);
+                        warnedAboutGroups = true;
+                    }
+                } else if (section == CsvSection.REPOSITORIES && row.length >= 4 && !CsvReportWriter.TOTAL.equals(row[0])) {
+                    server(server).repositories().addRepositoryStats(row[0], row[1],
+                            parseLong(row, 2), parseLong(row, 3), parseLong(row, 4), parseLong(row, 5));
+                } else if (section == CsvSection.GROUPS && row.length >= 3) {
+                    server(server).groups().addGroupStats(row[0],
+                            parseLong(row, 1), parseLong(row, 2), parseLong(row, 3), parseLong(row, 4));
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV report " + reportFile, e);
+        }
+    }
+
+    /**
+     * Space-Saving keeps different groups in each report, their merged statistics would have no error bound.
+     */
+    private static IllegalArgumentException approximateGroups(@Nullable String server) {
+        return new IllegalArgumentException("Approximate group statistics" + (server == null ? "" : " of server " + server)
+                + " cannot be merged, run the partial reports without --approximate-groups");
+    }
+
+    private static boolean isHeader(String[] row, String[] header) {
+        // Reports of older versions have no remaining columns
+        return row.length >= 3 && row.length <= header.length
+                && Arrays.equals(row, Arrays.copyOf(header, row.length));
+    }
+
+    private static long parseLong(String[] row, int index) {
+        if (index >= row.length || row[index].isEmpty()) {
+            return 0;
+        }
+        return Long.parseLong(row[index].trim());
+    }
+
+    private MergedServer server(@Nullable String server) {
+        return servers.computeIfAbsent(server == null ? "" : server, key -> new MergedServer(server));
+    }
+
+    private enum CsvSection {
+        NONE, REPOSITORIES, GROUPS
+    }
+
+    /**
+     * Merged report sections of one server.
+     */
+    private record MergedServer(RepositoryComponentsSummary repositories, GroupsSummary groups) {
+
+        MergedServer(@Nullable String server) {
+            this(new RepositoryComponentsSummary(), new GroupsSummary());
+            repositories.setServer(server);
+            repositories.setEnabled(false);
+            groups.setServer(server);
+            groups.setEnabled(false);
+        }
+    }
+}
@@ -13,7 +13,20 @@ public interface ReportWriter extends AutoCloseable {
 
     void writeGroupsSummary(GroupsSummary summary, SortBy sortBy, int topGroups) throws IOException;
 
-    void writeComponent(ComponentXO component) throws IOException;
+    /**
+     * Writes a component with its size computed from its assets.
+     */
+    default void writeComponent(ComponentXO component) throws IOException {
+        writeComponent(component, component.getAssets() == null ? 0 : ComponentFilter.componentSize(component.getAssets()));
+    }
+
+    /**
+     * Writes a component with its precomputed size, see {@link ComponentPage#sizes()}.
+     *
+     * @param component The component
+     * @param sizeBytes Sum of the asset file sizes of the component
+     */
+    void writeComponent(ComponentXO component, long sizeBytes) throws IOException;
 
     @Override
     void close() throws IOException;
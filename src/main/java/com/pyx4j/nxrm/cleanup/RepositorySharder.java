@@ -0,0 +1,230 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deterministic partitioning of repositories between several independent cleanup processes (shards).
+ * <p>
+ * Uses consistent hashing with bounded loads: each repository is hashed onto a ring of shard virtual nodes
+ * and assigned to the first shard clockwise that still has capacity for its weight.
+ * Weights are the component counts of a previous run, so large repositories are spread between shards,
+ * and adding or removing a repository moves only a few others.
+ * Every shard computes the same assignment independently from the same repository list and weights.
+ */
+final class RepositorySharder {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositorySharder.class);
+
+    private static final int VIRTUAL_NODES_PER_SHARD = 64;
+
+    /**
+     * Allowed shard load above the average, as a fraction of the average.
+     */
+    private static final double LOAD_FACTOR = 0.25;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final int shardCount;
+
+    private final Map<String, Long> previousWeights;
+
+    private final long[] ringPositions;
+
+    private final int[] ringShards;
+
+    RepositorySharder(int shardCount, @NonNull Map<String, Long> previousWeights) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+        this.shardCount = shardCount;
+        this.previousWeights = Map.copyOf(Objects.requireNonNull(previousWeights, "Weights cannot be null"));
+
+        // Build the ring of virtual nodes sorted by position
+        int ringSize = shardCount * VIRTUAL_NODES_PER_SHARD;
+        long[][] nodes = new long[ringSize][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES_PER_SHARD; node++) {
+                nodes[shard * VIRTUAL_NODES_PER_SHARD + node] = new long[]{hash("shard-" + shard + "#" + node), shard};
+            }
+        }
+        Arrays.sort(nodes, Comparator.<long[]>comparingLong(n -> n[0]).thenComparingLong(n -> n[1]));
+        this.ringPositions = new long[ringSize];
+        this.ringShards = new int[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ringPositions[i] = nodes[i][0];
+            ringShards[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * Assigns every repository key to a shard.
+     *
+     * @param repositoryKeys Keys of all repositories to scan, the same in every shard
+     * @return Map of repository key to shard index
+     */
+    @NonNull
+    Map<String, Integer> assign(@NonNull Collection<String> repositoryKeys) {
+        Objects.requireNonNull(repositoryKeys, "Repository keys cannot be null");
+
+        List<String> keys = repositoryKeys.stream().distinct().toList();
+        long defaultWeight = defaultWeight(keys);
+        Map<String, Long> weights = new HashMap<>();
+        long totalWeight = 0;
+        long maxWeight = 0;
+        for (String key : keys) {
+            long weight = Math.max(1, previousWeights.getOrDefault(key, defaultWeight));
+            weights.put(key, weight);
+            totalWeight += weight;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        long capacity = Math.max(maxWeight, (long) Math.ceil(totalWeight * (1 + LOAD_FACTOR) / shardCount));
+
+        // Place heavy repositories first, so they get their preferred shard, ties broken by name for determinism
+        List<String> ordered = new ArrayList<>(keys);
+        ordered.sort(Comparator.<String>comparingLong(weights::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        long[] loads = new long[shardCount];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String key : ordered) {
+            long weight = weights.get(key);
+            int shard = selectShard(hash(key), weight, loads, capacity);
+            loads[shard] += weight;
+            assignment.put(key, shard);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Assigned {} repositories to {} shards, capacity {}, loads {}", keys.size(), shardCount, capacity, Arrays.toString(loads));
+        }
+        return assignment;
+    }
+
+    private int selectShard(long position, long weight, long[] loads, long capacity) {
+        int start = Arrays.binarySearch(ringPositions, position);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = 0; i < ringPositions.length; i++) {
+            int shard = ringShards[(start + i) % ringPositions.length];
+            if (loads[shard] + weight <= capacity) {
+                return shard;
+            }
+        }
+        // Capacity is never smaller than the heaviest repository, fallback for safety
+        int leastLoaded = 0;
+        for (int shard = 1; shard < shardCount; shard++) {
+            if (loads[shard] < loads[leastLoaded]) {
+                leastLoaded = shard;
+            }
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * Repositories not present in the previous run are weighted as an average known repository.
+     */
+    private long defaultWeight(List<String> keys) {
+        return Math.max(1, (long) keys.stream()
+                .filter(previousWeights::containsKey)
+                .mapToLong(previousWeights::get)
+                .average()
+                .orElse(1));
+    }
+
+    private static long hash(String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Builds the repository key used for sharding.
+     *
+     * @param server         Server name, null when a single server is scanned
+     * @param repositoryName Repository name
+     * @return Key unique across all scanned servers
+     */
+    @NonNull
+    static String repositoryKey(@Nullable String server, @NonNull String repositoryName) {
+        return server == null ? repositoryName : server + "/" + repositoryName;
+    }
+
+    /**
+     * Gives each shard its own output file: {@code {shard}} in the path is replaced by the shard index,
+     * otherwise the index is added before the file extension, e.g. {@code report-shard-2.json}.
+     *
+     * @param filePath   Output file path, may be null
+     * @param shardIndex Index of this shard
+     * @param shardCount Number of shards, paths are unchanged when there is a single shard
+     * @return Output file path of this shard
+     */
+    @Nullable
+    static String shardFileName(@Nullable String filePath, int shardIndex, int shardCount) {
+        if (filePath == null || filePath.isEmpty() || shardCount <= 1) {
+            return filePath;
+        }
+        if (filePath.contains("{shard}")) {
+            return filePath.replace("{shard}", String.valueOf(shardIndex));
+        }
+        int extension = filePath.lastIndexOf('.');
+        int separator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
+        if (extension <= separator) {
+            return filePath + "-shard-" + shardIndex;
+        }
+        return filePath.substring(0, extension) + "-shard-" + shardIndex + filePath.substring(extension);
+    }
+
+    /**
+     * Reads repository weights (total component count) from a JSON report of a previous run.
+     *
+     * @param reportFile JSON report written with --report-output-file and --report-repositories-summary
+     * @return Map of repository key to previous component count
+     * @throws IOException if the report cannot be read
+     */
+    @NonNull
+    static Map<String, Long> readWeights(@NonNull Path reportFile) throws IOException {
+        Objects.requireNonNull(reportFile, "Report file cannot be null");
+
+        Map<String, Long> weights = new HashMap<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (InputStream inputStream = Files.newInputStream(reportFile);
+             JsonParser parser = objectMapper.getFactory().createParser(inputStream);
+             MappingIterator<JsonNode> sections = objectMapper.readValues(parser, JsonNode.class)) {
+            while (sections.hasNext()) {
+                JsonNode section = sections.next();
+                JsonNode repositoryStats = section.get("repositoryStats");
+                if (repositoryStats == null) {
+                    continue;
+                }
+                String server = section.hasNonNull("server") ? section.get("server").asText() : null;
+                repositoryStats.fields().forEachRemaining(entry -> {
+                    JsonNode stats = entry.getValue();
+                    long count = stats.path("componentCount").asLong() + stats.path("remainingComponentCount").asLong();
+                    weights.merge(repositoryKey(server, entry.getKey()), count, Long::sum);
+                });
+            }
+        }
+        log.debug("Read weights of {} repositories from {}", weights.size(), reportFile);
+        return weights;
+    }
+}
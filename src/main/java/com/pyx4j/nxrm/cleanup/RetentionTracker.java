@@ -0,0 +1,318 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonatype.nexus.ApiClient;
+import org.sonatype.nexus.model.ComponentXO;
+
+/**
+ * Keeps the latest versions of each artifact of one repository while its pages are streamed, for delete rules
+ * with {@code retainLatest}. An artifact is identified by the rule, group and name of its components.
+ * <p>
+ * Each artifact tracked in memory holds a min-heap of at most {@code retainLatest} components. A component
+ * that is older than all of them, or that is pushed out of a full heap by a newer one, can never be among
+ * the latest versions and is returned for deletion immediately. The components remaining in the heaps
+ * are kept, they are returned by {@link #finish()} after the last page.
+ * <p>
+ * Memory use is bounded by the number of artifacts tracked in memory. Components of artifacts first seen
+ * after that limit is reached are appended to partition files on disk, by hash of the artifact, and each
+ * partition is decided on its own by {@link #finish()}.
+ */
+final class RetentionTracker implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionTracker.class);
+
+    /**
+     * Default maximum number of artifacts tracked in memory per repository.
+     */
+    static final int DEFAULT_MAX_ARTIFACTS_IN_MEMORY = 100_000;
+
+    static final int SPILL_PARTITIONS = 16;
+
+    /**
+     * Oldest first: lowest version, then earliest created, components without creation date are treated as the newest.
+     * Ties are ordered by id so that the decision does not depend on the page order.
+     */
+    static final Comparator<Candidate> OLDEST_FIRST = Comparator.comparing(Candidate::version)
+            .thenComparingLong(Candidate::lastCreated)
+            .thenComparing(candidate -> candidate.component().getId(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final String repositoryName;
+
+    private final VersionOrdering versionOrdering;
+
+    private final int maxArtifactsInMemory;
+
+    private final Map<String, PriorityQueue<Candidate>> artifacts = new HashMap<>();
+
+    private final ObjectMapper objectMapper = ApiClient.createDefaultObjectMapper(null);
+
+    @Nullable
+    private Path spillDirectory;
+
+    private final BufferedWriter[] spillWriters = new BufferedWriter[SPILL_PARTITIONS];
+
+    private long spilledComponents;
+
+    /**
+     * @param repositoryName       The repository the components belong to, for logging
+     * @param versionOrdering      Ordering of the versions of the repository format
+     * @param maxArtifactsInMemory Number of artifacts tracked in memory before spilling to disk
+     */
+    RetentionTracker(@Nullable String repositoryName, @NonNull VersionOrdering versionOrdering, int maxArtifactsInMemory) {
+        if (maxArtifactsInMemory < 0) {
+            throw new IllegalArgumentException("Maximum artifacts in memory cannot be negative");
+        }
+        this.repositoryName = repositoryName;
+        this.versionOrdering = Objects.requireNonNull(versionOrdering, "Version ordering cannot be null");
+        this.maxArtifactsInMemory = maxArtifactsInMemory;
+    }
+
+    /**
+     * A component with the version and date it is ordered by.
+     *
+     * @param version     Parsed version of the component
+     * @param lastCreated Latest asset creation in epoch millis, see {@link ComponentFilter#lastCreated}
+     */
+    record Candidate(@NonNull SizedComponent sized, VersionOrdering.@NonNull Key version, long lastCreated) {
+
+        ComponentXO component() {
+            return sized.component();
+        }
+    }
+
+    /**
+     * Components of one retention decision.
+     *
+     * @param deleted Components that are not among the latest versions of their artifact
+     * @param kept    Latest versions, only returned by {@link #finish()}
+     */
+    record Decision(@NonNull List<SizedComponent> deleted, @NonNull List<SizedComponent> kept) {
+    }
+
+    /**
+     * A spilled component, written as one JSON line.
+     */
+    private record SpilledComponent(String rule, int retainLatest, ComponentXO component, long sizeBytes) {
+    }
+
+    /**
+     * Adds a component matching a retention rule.
+     *
+     * @param sized     The component with its size
+     * @param retention The retention rule the component matches
+     * @return The component to delete now, either this component or an older one it replaces, null if none
+     */
+    @Nullable
+    SizedComponent offer(@NonNull SizedComponent sized, ComponentFilter.@NonNull Retention retention) {
+        Objects.requireNonNull(sized, "Component cannot be null");
+        Objects.requireNonNull(retention, "Retention cannot be null");
+        ComponentXO component = sized.component();
+        String key = artifactKey(retention.rule(), component);
+        PriorityQueue<Candidate> latest = artifacts.get(key);
+        if (latest == null) {
+            if (artifacts.size() >= maxArtifactsInMemory) {
+                spill(key, new SpilledComponent(retention.rule(), retention.retainLatest(), component, sized.sizeBytes()));
+                return null;
+            }
+            latest = new PriorityQueue<>(retention.retainLatest(), OLDEST_FIRST);
+            artifacts.put(key, latest);
+        }
+        return retain(latest, retention.retainLatest(), candidate(sized));
+    }
+
+    /**
+     * Decides the artifacts after the last page: first the artifacts tracked in memory, then one spilled
+     * partition at a time. Spill files are deleted once read.
+     *
+     * @return Decisions of all artifacts, read lazily, the iterator can only be used once
+     */
+    @NonNull
+    Iterator<Decision> finish() {
+        closeWriters();
+        if (spilledComponents > 0) {
+            log.debug("Repository {}: {} retention artifacts in memory, {} components spilled to disk",
+                    repositoryName, artifacts.size(), spilledComponents);
+        }
+        return new Iterator<>() {
+
+            private int partition = -1;
+
+            @Override
+            public boolean hasNext() {
+                return partition < SPILL_PARTITIONS;
+            }
+
+            @Override
+            public Decision next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                partition++;
+                if (partition == 0) {
+                    Decision decision = decide(artifacts, new ArrayList<>());
+                    artifacts.clear();
+                    return decision;
+                }
+                return decidePartition(partition - 1);
+            }
+        };
+    }
+
+    /**
+     * @return Number of components written to disk
+     */
+    long getSpilledComponents() {
+        return spilledComponents;
+    }
+
+    @Override
+    public void close() {
+        closeWriters();
+        if (spillDirectory != null) {
+            for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                try {
+                    Files.deleteIfExists(partitionFile(partition));
+                } catch (IOException e) {
+                    log.warn("Failed to delete retention spill file {}", partitionFile(partition), e);
+                }
+            }
+            try {
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException e) {
+                log.warn("Failed to delete retention spill directory {}", spillDirectory, e);
+            }
+            spillDirectory = null;
+        }
+    }
+
+    /**
+     * Adds a candidate to the latest versions of its artifact.
+     *
+     * @return The candidate component or the one it replaces if it is not among the latest, null if the heap is not full
+     */
+    @Nullable
+    private static SizedComponent retain(PriorityQueue<Candidate> latest, int retainLatest, Candidate candidate) {
+        if (latest.size() < retainLatest) {
+            latest.add(candidate);
+            return null;
+        }
+        Candidate oldest = latest.peek();
+        if (oldest == null || OLDEST_FIRST.compare(candidate, oldest) <= 0) {
+            return candidate.sized();
+        }
+        latest.poll();
+        latest.add(candidate);
+        return oldest.sized();
+    }
+
+    private Candidate candidate(SizedComponent sized) {
+        ComponentXO component = sized.component();
+        long lastCreated = component.getAssets() == null || component.getAssets().isEmpty()
+                ? Long.MAX_VALUE
+                : ComponentFilter.lastCreated(component.getAssets());
+        return new Candidate(sized, versionOrdering.key(component.getVersion()), lastCreated);
+    }
+
+    private static String artifactKey(String rule, ComponentXO component) {
+        return rule + '\u0000' + Objects.requireNonNullElse(component.getGroup(), "") + '\u0000'
+                + Objects.requireNonNullElse(component.getName(), "");
+    }
+
+    private static Decision decide(Map<String, PriorityQueue<Candidate>> artifacts, List<SizedComponent> deleted) {
+        List<SizedComponent> kept = new ArrayList<>();
+        for (PriorityQueue<Candidate> latest : artifacts.values()) {
+            for (Candidate candidate : latest) {
+                kept.add(candidate.sized());
+            }
+        }
+        return new Decision(deleted, kept);
+    }
+
+    private void spill(String key, SpilledComponent spilled) {
+        int partition = Math.floorMod(key.hashCode(), SPILL_PARTITIONS);
+        try {
+            if (spillWriters[partition] == null) {
+                if (spillDirectory == null) {
+                    spillDirectory = Files.createTempDirectory("nxrm-retention-");
+                    log.debug("Repository {}: more than {} retention artifacts, spilling to {}", repositoryName, maxArtifactsInMemory, spillDirectory);
+                }
+                spillWriters[partition] = Files.newBufferedWriter(partitionFile(partition), StandardCharsets.UTF_8);
+            }
+            spillWriters[partition].write(objectMapper.writeValueAsString(spilled));
+            spillWriters[partition].newLine();
+            spilledComponents++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill retention state of repository " + repositoryName, e);
+        }
+    }
+
+    /**
+     * Reads one spill partition back and decides its artifacts, the partition holds all components of its artifacts.
+     */
+    private Decision decidePartition(int partition) {
+        if (spillDirectory == null || !Files.exists(partitionFile(partition))) {
+            return new Decision(List.of(), List.of());
+        }
+        Map<String, PriorityQueue<Candidate>> partitionArtifacts = new HashMap<>();
+        List<SizedComponent> deleted = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(partitionFile(partition), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                SpilledComponent spilled = objectMapper.readValue(line, SpilledComponent.class);
+                PriorityQueue<Candidate> latest = partitionArtifacts.computeIfAbsent(artifactKey(spilled.rule(), spilled.component()),
+                        key -> new PriorityQueue<>(spilled.retainLatest(), OLDEST_FIRST));
+                SizedComponent removed = retain(latest, spilled.retainLatest(),
+                        candidate(new SizedComponent(spilled.component(), spilled.sizeBytes())));
+                if (removed != null) {
+                    deleted.add(removed);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read retention state of repository " + repositoryName, e);
+        }
+        try {
+            Files.delete(partitionFile(partition));
+        } catch (IOException e) {
+            log.warn("Failed to delete retention spill file {}", partitionFile(partition), e);
+        }
+        return decide(partitionArtifacts, deleted);
+    }
+
+    private Path partitionFile(int partition) {
+        return Objects.requireNonNull(spillDirectory).resolve("partition-" + partition + ".jsonl");
+    }
+
+    private void closeWriters() {
+        for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+            if (spillWriters[partition] != null) {
+                try {
+                    spillWriters[partition].close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to spill retention state of repository " + repositoryName, e);
+                }
+                spillWriters[partition] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.jspecify.annotations.NonNull;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.sonatype.nexus.model.ComponentXO;
+
+/**
+ * Compiles the ordered keep and delete rules of a repository into a hidden class.
+ * <p>
+ * Every rule becomes straight-line code: only the checks the rule defines are emitted, date cutoffs and size bounds are
+ * constants and pattern lists are loaded as dynamic constants from the class data, so the JIT can inline
+ * the whole decision. The generated method is equivalent to
+ * <pre>
+ * if (keep rule 1 matches || keep rule 2 matches ...) return false;
+ * if (delete rule 1 matches || delete rule 2 matches ...) return true;
+ * return false;
+ * </pre>
+ * Only single components are decided by the compiled rules, pages are evaluated column by column by
+ * {@link ComponentFilter}, so compilation is disabled unless requested. It keeps interpreting the rules when
+ * compilation is disabled or fails.
+ */
+final class RuleCompiler {
+
+    /**
+     * Decision of the compiled rules, see {@link ComponentFilter#lastCreated}, {@link ComponentFilter#lastDownloaded}
+     * and {@link ComponentFilter#componentSize} for the asset date and size arguments.
+     */
+    interface CompiledRules {
+
+        boolean test(@NonNull ComponentXO component, long lastCreated, long lastDownloaded, long size);
+    }
+
+    private static final String CLASS_NAME = Type.getInternalName(RuleCompiler.class) + "$Generated";
+
+    private static final String COMPONENT = Type.getInternalName(ComponentXO.class);
+
+    private static final String FILTER = Type.getInternalName(ComponentFilter.class);
+
+    private static final String STRING_DESCRIPTOR = Type.getDescriptor(String.class);
+
+    private static final Handle CLASS_DATA_AT = new Handle(Opcodes.H_INVOKESTATIC,
+            Type.getInternalName(MethodHandles.class), "classDataAt",
+            MethodType.methodType(Object.class, MethodHandles.Lookup.class, String.class, Class.class, int.class).toMethodDescriptorString(),
+            false);
+
+    // Local variable slots of the generated test method
+    private static final int COMPONENT_SLOT = 1;
+
+    private static final int LAST_CREATED_SLOT = 2;
+
+    private static final int LAST_DOWNLOADED_SLOT = 4;
+
+    private static final int SIZE_SLOT = 6;
+
+    private final List<Object> constants = new ArrayList<>();
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * @param keepRules   Keep rules in evaluation order
+     * @param deleteRules Delete rules in evaluation order
+     * @return A new instance of the generated class
+     */
+    @NonNull
+    static CompiledRules compile(ComponentFilter.@NonNull OrderedRule[] keepRules,
+                                 ComponentFilter.@NonNull OrderedRule[] deleteRules) {
+        Objects.requireNonNull(keepRules, "Keep rules cannot be null");
+        Objects.requireNonNull(deleteRules, "Delete rules cannot be null");
+        RuleCompiler compiler = new RuleCompiler();
+        byte[] bytes = compiler.generate(keepRules, deleteRules);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, List.copyOf(compiler.constants), true);
+            return (CompiledRules) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to define compiled rules", e);
+        }
+    }
+
+    private byte[] generate(ComponentFilter.OrderedRule[] keepRules, ComponentFilter.OrderedRule[] deleteRules) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null,
+                Type.getInternalName(Object.class), new String[]{Type.getInternalName(CompiledRules.class)});
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "test",
+                MethodType.methodType(boolean.class, ComponentXO.class, long.class, long.class, long.class).toMethodDescriptorString(), null, null);
+        method.visitCode();
+        for (ComponentFilter.OrderedRule rule : keepRules) {
+            emitRule(method, rule, false);
+        }
+        for (ComponentFilter.OrderedRule rule : deleteRules) {
+            emitRule(method, rule, true);
+        }
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Emits the checks of a rule, each failing check jumps to the next rule. When all checks pass the rule decides.
+     */
+    private void emitRule(MethodVisitor method, ComponentFilter.OrderedRule rule, boolean delete) {
+        Label nextRule = new Label();
+        ComponentFilter.ParsedRule parsed = rule.rule();
+        for (ComponentFilter.Check check : rule.checks()) {
+            switch (check) {
+                case GROUP -> emitPatternCheck(method, "getGroup", Objects.requireNonNull(parsed.groups()), nextRule);
+                case NAME -> emitPatternCheck(method, "getName", Objects.requireNonNull(parsed.names()), nextRule);
+                case FORMAT -> emitPatternCheck(method, "getFormat", Objects.requireNonNull(parsed.formats()), nextRule);
+                case VERSION -> emitPatternCheck(method, "getVersion", Objects.requireNonNull(parsed.versions()), nextRule);
+                // lastCreated < updatedBefore
+                case UPDATED -> emitLongCheck(method, LAST_CREATED_SLOT, parsed.updatedBefore(), Opcodes.IFGE, nextRule);
+                case DOWNLOADED -> {
+                    if (parsed.isNeverDownloaded()) {
+                        // lastDownloaded == Long.MIN_VALUE
+                        emitLongCheck(method, LAST_DOWNLOADED_SLOT, Long.MIN_VALUE, Opcodes.IFNE, nextRule);
+                    } else {
+                        // lastDownloaded < downloadedBefore
+                        emitLongCheck(method, LAST_DOWNLOADED_SLOT, parsed.downloadedBefore(), Opcodes.IFGE, nextRule);
+                    }
+                }
+                case SIZE -> {
+                    // size >= minSize && size <= maxSize, unset bounds are not emitted
+                    if (parsed.minSize() > 0) {
+                        emitLongCheck(method, SIZE_SLOT, parsed.minSize(), Opcodes.IFLT, nextRule);
+                    }
+                    if (parsed.maxSize() != Long.MAX_VALUE) {
+                        emitLongCheck(method, SIZE_SLOT, parsed.maxSize(), Opcodes.IFGT, nextRule);
+                    }
+                }
+            }
+        }
+        method.visitInsn(delete ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(nextRule);
+    }
+
+    private void emitPatternCheck(MethodVisitor method, String getter, Object patterns, Label failed) {
+        method.visitVarInsn(Opcodes.ALOAD, COMPONENT_SLOT);
+        method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, COMPONENT, getter, "()" + STRING_DESCRIPTOR, false);
+        String patternsDescriptor = Type.getDescriptor(patterns.getClass());
+        // The class data bootstrap requires the constant name "_"
+        method.visitLdcInsn(new ConstantDynamic("_", patternsDescriptor, CLASS_DATA_AT, constants.size()));
+        constants.add(patterns);
+        method.visitMethodInsn(Opcodes.INVOKESTATIC, FILTER, "matchesAnyPattern",
+                "(" + STRING_DESCRIPTOR + patternsDescriptor + ")Z", false);
+        method.visitJumpInsn(Opcodes.IFEQ, failed);
+    }
+
+    private static void emitLongCheck(MethodVisitor method, int slot, long bound, int failOpcode, Label failed) {
+        method.visitVarInsn(Opcodes.LLOAD, slot);
+        method.visitLdcInsn(bound);
+        method.visitInsn(Opcodes.LCMP);
+        method.visitJumpInsn(failOpcode, failed);
+    }
+}
@@ -0,0 +1,441 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.pyx4j.nxrm.cleanup.model.CleanupRule;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Static analysis of the enabled rules of a rule set, removing rules that cannot change any decision.
+ * <ul>
+ * <li>A rule with a filter of only empty patterns never matches, empty values never match a pattern.</li>
+ * <li>A delete rule matching only components that a keep rule also matches is shadowed and never deletes.</li>
+ * <li>A rule matching only components that another rule of the same action matches is redundant.</li>
+ * <li>Rules of the same action that differ in one pattern filter only are merged into one rule.</li>
+ * <li>Keep rules are not needed when no delete rule remains.</li>
+ * </ul>
+ * Delete rules with {@code retainLatest} keep some of the components they match, so they never cover another rule.
+ * They are covered by delete rules without retention, which delete their components first, and only merge
+ * with rules of the same retention when the components of an artifact stay in the same rule and no other retention
+ * rule is between them.
+ * Subsumption is decided conservatively: a rule is only removed when every component it matches is proven
+ * to match the other rule. Wildcard patterns are compared by their literal prefix, suffix and text,
+ * see {@link #patternCovers}. Date cutoffs are compared as parsed relative to the same time, size bounds in bytes.
+ */
+final class RuleSetAnalyzer {
+
+    /**
+     * A rule removed from evaluation.
+     *
+     * @param rule   The rule name
+     * @param reason Why the rule does not need to be evaluated
+     */
+    record Elimination(@NonNull String rule, @NonNull String reason) {
+    }
+
+    /**
+     * @param rules        Rules to evaluate, in rule set order
+     * @param eliminations Removed rules
+     */
+    record Result(@NonNull List<CleanupRule> rules, @NonNull List<Elimination> eliminations) {
+    }
+
+    private static final String DELETE = "delete";
+
+    private static final long NO_CUTOFF = Long.MIN_VALUE;
+
+    private RuleSetAnalyzer() {
+    }
+
+    /**
+     * @param rules Enabled rules in rule set order
+     * @param now   The time relative dates of all rules are parsed with
+     * @return Rules that can change a decision and the eliminated rules
+     */
+    @NonNull
+    static Result analyze(@NonNull List<CleanupRule> rules, @NonNull OffsetDateTime now) {
+        Objects.requireNonNull(rules, "Rules cannot be null");
+        Objects.requireNonNull(now, "Now cannot be null");
+
+        List<Shape> shapes = new ArrayList<>();
+        List<Elimination> eliminations = new ArrayList<>();
+        for (CleanupRule rule : rules) {
+            Shape shape = Shape.of(rule, now);
+            String emptyFilter = shape.emptyFilter();
+            if (emptyFilter != null) {
+                eliminations.add(new Elimination(rule.getName(), "never matches, filter '" + emptyFilter + "' has only empty patterns"));
+            } else {
+                shapes.add(shape);
+            }
+        }
+
+        // Delete rules shadowed by a keep rule
+        for (Shape delete : List.copyOf(shapes)) {
+            if (!delete.isDelete()) {
+                continue;
+            }
+            for (Shape keep : shapes) {
+                if (!keep.isDelete() && keep.covers(delete)) {
+                    shapes.remove(delete);
+                    eliminations.add(new Elimination(delete.name(), "never deletes, shadowed by keep rule '" + keep.name() + "'"));
+                    break;
+                }
+            }
+        }
+
+        removeCovered(shapes, eliminations);
+        mergeSiblings(shapes, eliminations);
+
+        if (shapes.stream().noneMatch(Shape::isDelete)) {
+            for (Shape keep : List.copyOf(shapes)) {
+                shapes.remove(keep);
+                eliminations.add(new Elimination(keep.name(), "has no effect, no delete rule remains"));
+            }
+        }
+
+        return new Result(shapes.stream().map(Shape::rule).toList(), List.copyOf(eliminations));
+    }
+
+    /**
+     * Removes rules covered by another rule of the same action. Of two equivalent rules the first one is kept.
+     */
+    private static void removeCovered(List<Shape> shapes, List<Elimination> eliminations) {
+        for (int i = 0; i < shapes.size(); ) {
+            Shape shape = shapes.get(i);
+            Shape coveredBy = null;
+            for (int j = 0; j < shapes.size() && coveredBy == null; j++) {
+                Shape other = shapes.get(j);
+                if (j != i && other.removes(shape) && (j < i || !shape.removes(other))) {
+                    coveredBy = other;
+                }
+            }
+            if (coveredBy != null) {
+                shapes.remove(i);
+                eliminations.add(new Elimination(shape.name(), "redundant, covered by " + shape.action() + " rule '" + coveredBy.name() + "'"));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Merges rules of the same action differing in one pattern filter only, the merged rule matches
+     * the union of both. The merged rule takes the place of the first rule.
+     * <p>
+     * The first matching retention rule decides the retention of a component, so two retention rules are only merged
+     * when no other retention rule is between them: the components of the second rule would otherwise be retained by
+     * the merged rule instead of an earlier rule of a different retention.
+     */
+    private static void mergeSiblings(List<Shape> shapes, List<Elimination> eliminations) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < shapes.size() && !merged; i++) {
+                for (int j = i + 1; j < shapes.size() && !merged; j++) {
+                    Shape first = shapes.get(i);
+                    Shape second = shapes.get(j);
+                    Shape union = first.retainLatest > 0 && hasRetentionBetween(shapes, i, j) ? null : first.mergeWith(second);
+                    if (union != null) {
+                        shapes.set(i, union);
+                        shapes.remove(j);
+                        eliminations.add(new Elimination(second.name(), "merged into rule '" + first.name() + "'"));
+                        merged = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean hasRetentionBetween(List<Shape> shapes, int first, int second) {
+        for (int k = first + 1; k < second; k++) {
+            if (shapes.get(k).retainLatest > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests if a pattern list matches every value a second pattern list matches.
+     *
+     * @param covering Patterns of the broader rule, null if the filter is not set
+     * @param covered  Patterns of the narrower rule, null if the filter is not set
+     */
+    static boolean patternsCover(@Nullable Set<String> covering, @Nullable Set<String> covered) {
+        if (covering == null) {
+            return true;
+        }
+        if (covered == null) {
+            // Null and empty values pass a missing filter but never match patterns
+            return false;
+        }
+        for (String pattern : covered) {
+            if (pattern.isEmpty()) {
+                continue; // Matches only empty values, which never match
+            }
+            if (covering.stream().noneMatch(candidate -> patternCovers(candidate, pattern))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests if a wildcard pattern matches every value a second pattern matches.
+     * Only decides the common shapes: identical patterns, '*', and literal, prefix, suffix or contains patterns
+     * covering the literal parts of the second pattern. Other cases are reported as not covered.
+     * Regular expressions are only covered by '*' or by the identical expression.
+     */
+    static boolean patternCovers(@NonNull String covering, @NonNull String covered) {
+        if (covering.equals(covered)) {
+            return true;
+        }
+        if (PatternSet.isRegex(covering)) {
+            return false;
+        }
+        WildcardMatcher matcher = WildcardMatcher.compile(covering);
+        if (PatternSet.isRegex(covered)) {
+            return matcher.kind() == WildcardMatcher.Kind.ANY;
+        }
+        return switch (matcher.kind()) {
+            case ANY -> true;
+            case PREFIX -> literalPrefix(covered).startsWith(matcher.literal());
+            case SUFFIX -> literalSuffix(covered).endsWith(matcher.literal());
+            case CONTAINS -> literalParts(covered).stream().anyMatch(part -> part.contains(matcher.literal()));
+            default -> false;
+        };
+    }
+
+    /**
+     * Text every value matching the pattern starts with.
+     */
+    private static String literalPrefix(String pattern) {
+        int end = 0;
+        while (end < pattern.length() && !isWildcard(pattern.charAt(end))) {
+            end++;
+        }
+        return pattern.substring(0, end);
+    }
+
+    /**
+     * Text every value matching the pattern ends with.
+     */
+    private static String literalSuffix(String pattern) {
+        int start = pattern.length();
+        while (start > 0 && !isWildcard(pattern.charAt(start - 1))) {
+            start--;
+        }
+        return pattern.substring(start);
+    }
+
+    /**
+     * Texts between wildcards, every value matching the pattern contains each of them.
+     */
+    private static List<String> literalParts(String pattern) {
+        List<String> parts = new ArrayList<>();
+        for (String part : pattern.split("[*?]")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    private static boolean isWildcard(char c) {
+        return c == '*' || c == '?';
+    }
+
+    /**
+     * The matching conditions of a rule in comparable form.
+     */
+    private record Shape(@NonNull CleanupRule rule,
+                         @Nullable Set<String> repositories,
+                         @Nullable Set<String> formats,
+                         @Nullable Set<String> groups,
+                         @Nullable Set<String> names,
+                         @Nullable Set<String> versions,
+                         long updatedBefore,
+                         long downloadedBefore,
+                         boolean neverDownloaded,
+                         long minSize,
+                         long maxSize,
+                         int retainLatest) {
+
+        static Shape of(CleanupRule rule, OffsetDateTime now) {
+            CleanupRule.CleanupFilters filters = rule.getFilters();
+            long updatedBefore = NO_CUTOFF;
+            if (filters.getUpdated() != null) {
+                updatedBefore = ComponentFilter.toEpochMillis(Objects.requireNonNull(DateFilterParser.parseDate(filters.getUpdated(), now)));
+            }
+            long downloadedBefore = NO_CUTOFF;
+            boolean neverDownloaded = false;
+            if (filters.getDownloaded() != null) {
+                if (CleanupRuleParser.isNeverDownloaded(filters.getDownloaded())) {
+                    neverDownloaded = true;
+                } else {
+                    downloadedBefore = ComponentFilter.toEpochMillis(CleanupRuleParser.parseDownloadedFilter(filters.getDownloaded(), now));
+                }
+            }
+            return new Shape(rule, toSet(filters.getRepositories()), toSet(filters.getFormats()), toSet(filters.getGroups()),
+                    toSet(filters.getNames()), toSet(filters.getVersions()), updatedBefore, downloadedBefore, neverDownloaded,
+                    Objects.requireNonNullElse(SizeFilterParser.parseSize(filters.getMinSize()), 0L),
+                    Objects.requireNonNullElse(SizeFilterParser.parseSize(filters.getMaxSize()), Long.MAX_VALUE),
+                    Objects.requireNonNullElse(filters.getRetainLatest(), 0));
+        }
+
+        @Nullable
+        private static Set<String> toSet(@Nullable List<String> patterns) {
+            return patterns == null || patterns.isEmpty() ? null : new LinkedHashSet<>(patterns);
+        }
+
+        String name() {
+            return rule.getName();
+        }
+
+        String action() {
+            return rule.getAction();
+        }
+
+        boolean isDelete() {
+            return DELETE.equals(rule.getAction());
+        }
+
+        /**
+         * @return The name of a filter that cannot match any value, null if there is none
+         */
+        @Nullable
+        String emptyFilter() {
+            String[] filterNames = {"repositories", "formats", "groups", "names", "versions"};
+            List<Set<String>> filters = patternFilters();
+            for (int i = 0; i < filters.size(); i++) {
+                Set<String> patterns = filters.get(i);
+                if (patterns != null && patterns.stream().allMatch(String::isEmpty)) {
+                    return filterNames[i];
+                }
+            }
+            return null;
+        }
+
+        private List<Set<String>> patternFilters() {
+            List<Set<String>> filters = new ArrayList<>();
+            filters.add(repositories);
+            filters.add(formats);
+            filters.add(groups);
+            filters.add(names);
+            filters.add(versions);
+            return filters;
+        }
+
+        /**
+         * Tests if this rule makes the other rule redundant, a rule with the same action matching all its components.
+         */
+        boolean removes(Shape other) {
+            return action().equals(other.action()) && retainLatest == 0 && covers(other);
+        }
+
+        /**
+         * Tests if this rule matches every component the other rule matches.
+         */
+        boolean covers(Shape other) {
+            List<Set<String>> filters = patternFilters();
+            List<Set<String>> otherFilters = other.patternFilters();
+            for (int i = 0; i < filters.size(); i++) {
+                if (!patternsCover(filters.get(i), otherFilters.get(i))) {
+                    return false;
+                }
+            }
+            return coversUpdated(other) && coversDownloaded(other)
+                    && minSize <= other.minSize && maxSize >= other.maxSize;
+        }
+
+        private boolean coversUpdated(Shape other) {
+            if (updatedBefore == NO_CUTOFF) {
+                return true;
+            }
+            return other.updatedBefore != NO_CUTOFF && other.updatedBefore <= updatedBefore;
+        }
+
+        private boolean coversDownloaded(Shape other) {
+            if (neverDownloaded) {
+                return other.neverDownloaded;
+            }
+            if (downloadedBefore == NO_CUTOFF) {
+                return true;
+            }
+            // Never downloaded components pass any downloaded cutoff
+            return other.neverDownloaded || (other.downloadedBefore != NO_CUTOFF && other.downloadedBefore <= downloadedBefore);
+        }
+
+        /**
+         * @return A rule matching the components of both rules, or null if they differ in more than one pattern filter
+         */
+        @Nullable
+        Shape mergeWith(Shape other) {
+            if (!action().equals(other.action()) || updatedBefore != other.updatedBefore
+                    || downloadedBefore != other.downloadedBefore || neverDownloaded != other.neverDownloaded
+                    || minSize != other.minSize || maxSize != other.maxSize
+                    || retainLatest != other.retainLatest) {
+                return null;
+            }
+            List<Set<String>> filters = patternFilters();
+            List<Set<String>> otherFilters = other.patternFilters();
+            int different = -1;
+            for (int i = 0; i < filters.size(); i++) {
+                if (!Objects.equals(filters.get(i), otherFilters.get(i))) {
+                    if (different >= 0 || filters.get(i) == null || otherFilters.get(i) == null) {
+                        return null;
+                    }
+                    different = i;
+                }
+            }
+            if (different < 0) {
+                return null; // Identical rules are removed as covered
+            }
+            if (retainLatest > 0 && different == 4) {
+                return null; // Versions of one artifact would be retained together instead of per rule
+            }
+
+            Set<String> union = new LinkedHashSet<>(filters.get(different));
+            union.addAll(otherFilters.get(different));
+            CleanupRule.CleanupFilters source = rule.getFilters();
+            CleanupRule.CleanupFilters mergedFilters = new CleanupRule.CleanupFilters();
+            mergedFilters.setRepositories(source.getRepositories());
+            mergedFilters.setFormats(source.getFormats());
+            mergedFilters.setGroups(source.getGroups());
+            mergedFilters.setNames(source.getNames());
+            mergedFilters.setVersions(source.getVersions());
+            mergedFilters.setUpdated(source.getUpdated());
+            mergedFilters.setDownloaded(source.getDownloaded());
+            mergedFilters.setMinSize(source.getMinSize());
+            mergedFilters.setMaxSize(source.getMaxSize());
+            mergedFilters.setRetainLatest(source.getRetainLatest());
+            List<String> unionList = List.copyOf(union);
+            switch (different) {
+                case 0 -> mergedFilters.setRepositories(unionList);
+                case 1 -> mergedFilters.setFormats(unionList);
+                case 2 -> mergedFilters.setGroups(unionList);
+                case 3 -> mergedFilters.setNames(unionList);
+                default -> mergedFilters.setVersions(unionList);
+            }
+            CleanupRule merged = new CleanupRule(rule.getName(), rule.getDescription(), true, rule.getAction(), mergedFilters);
+            return new Shape(merged, repositories, formats, groups, names, versions, updatedBefore, downloadedBefore, neverDownloaded,
+                    minSize, maxSize, retainLatest).withFilter(different, union);
+        }
+
+        private Shape withFilter(int index, Set<String> patterns) {
+            return new Shape(rule,
+                    index == 0 ? patterns : repositories,
+                    index == 1 ? patterns : formats,
+                    index == 2 ? patterns : groups,
+                    index == 3 ? patterns : names,
+                    index == 4 ? patterns : versions,
+                    updatedBefore, downloadedBefore, neverDownloaded, minSize, maxSize, retainLatest);
+        }
+    }
+}
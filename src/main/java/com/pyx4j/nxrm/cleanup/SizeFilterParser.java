@@ -0,0 +1,73 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Utility class for parsing size filter arguments.
+ * Supports a number of bytes with an optional unit, units are multiples of 1024 as in the console report.
+ */
+public final class SizeFilterParser {
+
+    private static final Pattern SIZE_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)?)\\s*([kmgt]i?b?|b)?$", Pattern.CASE_INSENSITIVE);
+
+    private SizeFilterParser() {
+        // Utility class should not be instantiated
+    }
+
+    /**
+     * Parses a size string such as "500MB", "1.5 GB", "100k" or "2048".
+     *
+     * @param sizeString The size string to parse
+     * @return Size in bytes, or null if the string is null/empty
+     * @throws IllegalArgumentException if the size string format is invalid
+     */
+    @Nullable
+    public static Long parseSize(@Nullable String sizeString) {
+        if (sizeString == null || sizeString.trim().isEmpty()) {
+            return null;
+        }
+
+        String trimmed = sizeString.trim();
+        Matcher matcher = SIZE_PATTERN.matcher(trimmed);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid size format: '" + trimmed +
+                    "'. Expected a number of bytes with an optional unit B, KB, MB, GB or TB (e.g., '500MB', '1.5 GB')");
+        }
+
+        String unit = matcher.group(2) == null ? "b" : matcher.group(2).toLowerCase(Locale.ROOT);
+        int exponent = switch (unit.charAt(0)) {
+            case 'k' -> 1;
+            case 'm' -> 2;
+            case 'g' -> 3;
+            case 't' -> 4;
+            default -> 0;
+        };
+        BigDecimal bytes = new BigDecimal(matcher.group(1)).multiply(BigDecimal.valueOf(1024).pow(exponent));
+        try {
+            // Fractions of a byte are rounded up, "0.5KB" is 512 bytes and "1.0001KB" is 1025 bytes
+            return bytes.setScale(0, RoundingMode.CEILING).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Size is too large: '" + trimmed + "'", e);
+        }
+    }
+
+    /**
+     * Validates that size ranges are logical (the minimum is not larger than the maximum).
+     *
+     * @param minSize The minimum size in bytes
+     * @param maxSize The maximum size in bytes
+     * @throws IllegalArgumentException if the size range is invalid
+     */
+    public static void validateSizeRange(@Nullable Long minSize, @Nullable Long maxSize) {
+        if (minSize != null && maxSize != null && minSize > maxSize) {
+            throw new IllegalArgumentException("'minSize' (" + minSize + " bytes) cannot be larger than 'maxSize' (" +
+                    maxSize + " bytes)");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.pyx4j.nxrm.cleanup;
+
+import org.jspecify.annotations.NonNull;
+import org.sonatype.nexus.model.ComponentXO;
+
+/**
+ * A component with its size, computed once when its page is transposed, see {@link ComponentPage#sizes()}.
+ *
+ * @param component The component
+ * @param sizeBytes Sum of the asset file sizes of the component
+ */
+record SizedComponent(@NonNull ComponentXO component, long sizeBytes) {
+}
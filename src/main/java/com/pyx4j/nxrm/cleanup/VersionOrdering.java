@@ -0,0 +1,478 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Orders version strings by the rules of a repository format.
+ * <ul>
+ * <li>{@link Scheme#MAVEN}: Maven {@code ComparableVersion} order, {@code 1.0-alpha < 1.0-beta < 1.0-rc < 1.0-SNAPSHOT
+ * < 1.0 = 1.0.0 < 1.0-sp < 1.0.1}, unknown qualifiers after {@code sp}.</li>
+ * <li>{@link Scheme#SEMVER}: npm and other semantic versions, {@code 1.0.0-alpha < 1.0.0-alpha.1 < 1.0.0-beta
+ * < 1.0.0}, build metadata is ignored.</li>
+ * <li>{@link Scheme#PEP440}: Python versions, {@code 1.0.dev1 < 1.0a1 < 1.0b2.post1 < 1.0rc1 < 1.0 < 1.0.post1}.</li>
+ * <li>{@link Scheme#NATURAL}: other formats, runs of digits compare as numbers and other text alphabetically.</li>
+ * </ul>
+ * Each version is parsed once into a {@link Key}, a packed {@code long[]} compared element by element, and the keys
+ * of distinct versions are remembered up to an entry budget, so sorting compares arrays instead of parsing strings.
+ * Every element holds a tag in its top byte that orders the kinds of tokens, and a number or up to 7 characters
+ * of text below it. Versions packing to equal tokens, such as {@code 1.0} and {@code 1.0.0} or text differing
+ * after 7 characters, are ordered by their version string so that the order is total.
+ */
+final class VersionOrdering implements Comparator<String> {
+
+    enum Scheme {
+        MAVEN, SEMVER, PEP440, NATURAL
+    }
+
+    /**
+     * Maximum number of remembered keys per scheme.
+     */
+    static final int MAX_CACHED_VERSIONS = 200_000;
+
+    private static final long VALUE_MASK = (1L << 56) - 1;
+
+    // Tags in ascending order, a tag sorts all tokens of that kind before the tokens of the next tags
+    private static final long END = 0;
+    private static final long PRE_RELEASE = 1;
+    private static final long RELEASE = 2;
+    private static final long SERVICE_PACK = 3;
+    private static final long TEXT = 4;
+    private static final long NUMBER = 5;
+
+    private static final Map<Scheme, VersionOrdering> ORDERINGS = new ConcurrentHashMap<>();
+
+    private static final Pattern PEP440 = Pattern.compile(
+            "v?(?:(\\d+)!)?(\\d+(?:\\.\\d+)*)"
+                    + "(?:[-_.]?(a|b|c|rc|alpha|beta|pre|preview)[-_.]?(\\d*))?"
+                    + "(?:-(\\d+)|[-_.]?(post|rev|r)[-_.]?(\\d*))?"
+                    + "(?:[-_.]?dev[-_.]?(\\d*))?"
+                    + "(?:\\+[a-z0-9]+(?:[-_.][a-z0-9]+)*)?");
+
+    private final Scheme scheme;
+
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+    private final AtomicLong entries = new AtomicLong();
+
+    private final long maxEntries;
+
+    VersionOrdering(@NonNull Scheme scheme, long maxEntries) {
+        this.scheme = Objects.requireNonNull(scheme, "Scheme cannot be null");
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Max entries cannot be negative");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Selects the ordering of a repository format, shared by all repositories of the format.
+     *
+     * @param format The repository format, as returned by {@code AbstractApiRepository.getFormat()}
+     * @return The ordering of the format, natural ordering for unknown formats
+     */
+    @NonNull
+    static VersionOrdering forFormat(@Nullable String format) {
+        return ORDERINGS.computeIfAbsent(schemeOf(format), scheme -> new VersionOrdering(scheme, MAX_CACHED_VERSIONS));
+    }
+
+    @NonNull
+    static Scheme schemeOf(@Nullable String format) {
+        if (format == null) {
+            return Scheme.NATURAL;
+        }
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "maven2", "gradle" -> Scheme.MAVEN;
+            case "npm", "nuget", "helm", "cargo", "go", "gomodules", "composer", "rubygems" -> Scheme.SEMVER;
+            case "pypi" -> Scheme.PEP440;
+            default -> Scheme.NATURAL;
+        };
+    }
+
+    @NonNull
+    Scheme scheme() {
+        return scheme;
+    }
+
+    /**
+     * Parsed form of a version, comparing like the version strings in this ordering.
+     */
+    static final class Key implements Comparable<Key> {
+
+        private final long[] tokens;
+
+        private final String version;
+
+        private Key(long[] tokens, String version) {
+            this.tokens = tokens;
+            this.version = version;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Arrays.compare(tokens, other.tokens);
+            return result != 0 ? result : version.compareTo(other.version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && version.equals(key.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return version.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return version;
+        }
+    }
+
+    /**
+     * Returns the key of a version, parsed once and remembered while the entry budget allows.
+     *
+     * @param version The version string, null is ordered like an empty version
+     * @return Comparable key of the version
+     */
+    @NonNull
+    Key key(@Nullable String version) {
+        String value = version == null ? "" : version;
+        Key key = keys.get(value);
+        if (key != null) {
+            return key;
+        }
+        key = new Key(parse(value), value);
+        if (entries.get() < maxEntries) {
+            if (entries.incrementAndGet() > maxEntries || keys.putIfAbsent(value, key) != null) {
+                entries.decrementAndGet();
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public int compare(String first, String second) {
+        return key(first).compareTo(key(second));
+    }
+
+    /**
+     * @return Number of remembered keys
+     */
+    long getCachedVersions() {
+        return keys.size();
+    }
+
+    private long[] parse(String version) {
+        String normalized = version.trim().toLowerCase(Locale.ROOT);
+        return switch (scheme) {
+            case MAVEN -> parseMaven(normalized);
+            case SEMVER -> {
+                long[] tokens = parseSemver(normalized);
+                yield tokens != null ? tokens : parseNatural(normalized);
+            }
+            case PEP440 -> {
+                long[] tokens = parsePep440(normalized);
+                yield tokens != null ? tokens : parseNatural(normalized);
+            }
+            case NATURAL -> parseNatural(normalized);
+        };
+    }
+
+    /**
+     * Items split at '.', '-', '_' and digit to letter transitions. Trailing zeros and release qualifiers
+     * are removed so that {@code 1.0.0 = 1.0 = 1-ga}, and the version ends with a release token that sorts
+     * after pre-release qualifiers and before {@code sp}, other qualifiers and numbers. Unlike Maven, sub-versions
+     * after '-' are not nested lists, {@code 1-1} and {@code 1.1} only differ by their version string.
+     */
+    private static long[] parseMaven(String version) {
+        TokenBuffer tokens = new TokenBuffer();
+        int length = version.length();
+        int i = 0;
+        while (i < length) {
+            char c = version.charAt(i);
+            if (c == '.' || c == '-' || c == '_') {
+                i++;
+                continue;
+            }
+            int start = i;
+            if (isDigit(c)) {
+                while (i < length && isDigit(version.charAt(i))) {
+                    i++;
+                }
+                tokens.add(number(version, start, i));
+            } else {
+                while (i < length && !isDigit(version.charAt(i)) && !isSeparator(version.charAt(i))) {
+                    i++;
+                }
+                tokens.add(mavenQualifier(version.substring(start, i)));
+            }
+            // A '-' or a letter after digits starts a sub-version, trailing zeros before it do not count: 1.0-rc = 1-rc
+            if (i < length && (version.charAt(i) == '-' || isDigit(c) && !isSeparator(version.charAt(i)))) {
+                tokens.trimNeutral();
+            }
+        }
+        tokens.trimNeutral();
+        tokens.add(tag(RELEASE));
+        return tokens.toArray();
+    }
+
+    private static long mavenQualifier(String qualifier) {
+        return switch (qualifier) {
+            case "a", "alpha" -> tag(PRE_RELEASE) | 1;
+            case "b", "beta" -> tag(PRE_RELEASE) | 2;
+            case "m", "milestone" -> tag(PRE_RELEASE) | 3;
+            case "rc", "cr" -> tag(PRE_RELEASE) | 4;
+            case "snapshot" -> tag(PRE_RELEASE) | 5;
+            case "ga", "final", "release" -> tag(RELEASE);
+            case "sp" -> tag(SERVICE_PACK);
+            default -> text(qualifier, 0, qualifier.length());
+        };
+    }
+
+    /**
+     * {@code [v]major[.minor[.patch[.more]]][-pre.release][+build]}: numbers, missing ones count as zero,
+     * then the pre-release identifiers before a release token, so a release sorts after its pre-releases.
+     *
+     * @return Tokens, or null if the version is not a semantic version
+     */
+    @Nullable
+    private static long[] parseSemver(String version) {
+        int start = version.startsWith("v") || version.startsWith("=") ? 1 : 0;
+        int end = version.indexOf('+');
+        if (end < 0) {
+            end = version.length();
+        }
+        int dash = version.indexOf('-', start);
+        int numbersEnd = dash >= 0 && dash < end ? dash : end;
+        if (numbersEnd == start) {
+            return null;
+        }
+
+        TokenBuffer tokens = new TokenBuffer();
+        int partStart = start;
+        for (int i = start; i <= numbersEnd; i++) {
+            if (i == numbersEnd || version.charAt(i) == '.') {
+                if (i == partStart || !allDigits(version, partStart, i)) {
+                    return null;
+                }
+                tokens.add(number(version, partStart, i));
+                partStart = i + 1;
+            }
+        }
+        while (tokens.size() < 3) {
+            tokens.add(tag(NUMBER));
+        }
+        // Four part versions: 1.2.3.0 = 1.2.3
+        while (tokens.size() > 3 && tokens.last() == tag(NUMBER)) {
+            tokens.removeLast();
+        }
+
+        if (numbersEnd < end) {
+            tokens.add(tag(PRE_RELEASE));
+            int identifierStart = numbersEnd + 1;
+            for (int i = identifierStart; i <= end; i++) {
+                if (i == end || version.charAt(i) == '.') {
+                    if (i == identifierStart) {
+                        return null;
+                    }
+                    // Numeric identifiers sort before alphanumeric ones
+                    tokens.add(allDigits(version, identifierStart, i)
+                            ? tag(RELEASE) | Math.min(parseLong(version, identifierStart, i), VALUE_MASK)
+                            : text(version, identifierStart, i));
+                    identifierStart = i + 1;
+                }
+            }
+            // Fewer identifiers sort first
+            tokens.add(tag(END));
+        } else {
+            tokens.add(tag(SERVICE_PACK));
+        }
+        return tokens.toArray();
+    }
+
+    /**
+     * {@code [N!]N(.N)*[{a|b|rc}N][.postN][.devN][+local]}: epoch, release numbers without trailing zeros,
+     * an end token, then phase, pre-release number, post-release number + 1 (0 if none) and development number
+     * ({@link #VALUE_MASK} if none). The phase is 0 for development releases, 1 to 3 for a, b, rc and 4 otherwise.
+     *
+     * @return Tokens, or null if the version is not a PEP 440 version
+     */
+    @Nullable
+    private static long[] parsePep440(String version) {
+        Matcher matcher = PEP440.matcher(version);
+        if (!matcher.matches()) {
+            return null;
+        }
+        TokenBuffer tokens = new TokenBuffer();
+        tokens.add(tag(NUMBER) | parseNumber(matcher.group(1), 0));
+        for (String part : matcher.group(2).split("\\.")) {
+            tokens.add(number(part, 0, part.length()));
+        }
+        while (tokens.size() > 2 && tokens.last() == tag(NUMBER)) {
+            tokens.removeLast();
+        }
+        tokens.add(tag(END));
+
+        String pre = matcher.group(3);
+        boolean post = matcher.group(5) != null || matcher.group(6) != null;
+        boolean dev = matcher.group(8) != null;
+        long phase;
+        if (pre != null) {
+            phase = switch (pre) {
+                case "a", "alpha" -> 1;
+                case "b", "beta" -> 2;
+                default -> 3;
+            };
+        } else {
+            phase = !post && dev ? 0 : 4;
+        }
+        tokens.add(phase);
+        tokens.add(pre != null ? parseNumber(matcher.group(4), 0) : 0);
+        long postNumber = matcher.group(5) != null ? parseNumber(matcher.group(5), 0) : parseNumber(matcher.group(7), 0);
+        tokens.add(post ? Math.min(postNumber + 1, VALUE_MASK) : 0);
+        tokens.add(dev ? parseNumber(matcher.group(8), 0) : VALUE_MASK);
+        return tokens.toArray();
+    }
+
+    /**
+     * Runs of digits as numbers and other runs as text, separators ignored; text sorts before numbers.
+     */
+    private static long[] parseNatural(String version) {
+        TokenBuffer tokens = new TokenBuffer();
+        int length = version.length();
+        int i = 0;
+        while (i < length) {
+            char c = version.charAt(i);
+            if (isSeparator(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            if (isDigit(c)) {
+                while (i < length && isDigit(version.charAt(i))) {
+                    i++;
+                }
+                tokens.add(number(version, start, i));
+            } else {
+                while (i < length && !isDigit(version.charAt(i)) && !isSeparator(version.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text(version, start, i));
+            }
+        }
+        tokens.add(tag(END));
+        return tokens.toArray();
+    }
+
+    private static long tag(long tag) {
+        return tag << 56;
+    }
+
+    private static long number(String value, int start, int end) {
+        return tag(NUMBER) | Math.min(parseLong(value, start, end), VALUE_MASK);
+    }
+
+    /**
+     * Packs the first 7 characters, each clamped to 8 bits.
+     */
+    private static long text(String value, int start, int end) {
+        long packed = 0;
+        for (int i = 0; i < 7; i++) {
+            int index = start + i;
+            packed = (packed << 8) | (index < end ? Math.min(value.charAt(index), 0xFF) : 0);
+        }
+        return tag(TEXT) | packed;
+    }
+
+    private static long parseNumber(@Nullable String digits, long defaultValue) {
+        if (digits == null || digits.isEmpty()) {
+            return defaultValue;
+        }
+        return Math.min(parseLong(digits, 0, digits.length()), VALUE_MASK);
+    }
+
+    /**
+     * Parses digits, saturating instead of overflowing.
+     */
+    private static long parseLong(String value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+            if (result > VALUE_MASK) {
+                return VALUE_MASK;
+            }
+        }
+        return result;
+    }
+
+    private static boolean allDigits(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '-' || c == '_' || c == '+';
+    }
+
+    /**
+     * Growable array of tokens.
+     */
+    private static final class TokenBuffer {
+
+        private long[] tokens = new long[8];
+
+        private int size;
+
+        void add(long token) {
+            if (size == tokens.length) {
+                tokens = Arrays.copyOf(tokens, size * 2);
+            }
+            tokens[size++] = token;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long last() {
+            return tokens[size - 1];
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        /**
+         * Removes trailing zeros and release qualifiers, which compare equal to the end of the version.
+         */
+        void trimNeutral() {
+            while (size > 0 && (tokens[size - 1] == tag(NUMBER) || tokens[size - 1] == tag(RELEASE))) {
+                size--;
+            }
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(tokens, size);
+        }
+    }
+}
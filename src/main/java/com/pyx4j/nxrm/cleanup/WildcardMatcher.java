@@ -0,0 +1,246 @@
+package com.pyx4j.nxrm.cleanup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Wildcard pattern compiled once and matched without allocation.
+ * Supports '*' (any characters, including none) and '?' (exactly one character).
+ * <p>
+ * Patterns without '?' and with '*' only at the ends are matched with {@link String} equality,
+ * prefix, suffix or contains checks. Other patterns are split on '*' into segments which are
+ * matched left to right at their leftmost position, the last segment is anchored at the end of the value.
+ * Taking the leftmost position is always safe for '*' wildcards, so no backtracking is needed
+ * and matching is linear in the value length for each segment.
+ */
+final class WildcardMatcher {
+
+    enum Kind {
+        /**
+         * Empty pattern, matches only empty values.
+         */
+        EMPTY,
+        /**
+         * Only '*' characters, matches everything.
+         */
+        ANY,
+        LITERAL,
+        PREFIX,
+        SUFFIX,
+        CONTAINS,
+        GENERAL
+    }
+
+    private final String pattern;
+
+    private final Kind kind;
+
+    /**
+     * Literal text of fast path kinds.
+     */
+    private final String literal;
+
+    /**
+     * Segments between '*' wildcards, used by {@link Kind#GENERAL}.
+     */
+    private final String[] segments;
+
+    private final boolean[] segmentHasWildcard;
+
+    private final boolean anchoredStart;
+
+    private final boolean anchoredEnd;
+
+    /**
+     * Minimum value length, the sum of all segment lengths.
+     */
+    private final int minLength;
+
+    private WildcardMatcher(String pattern, Kind kind, String literal, String[] segments, boolean anchoredStart, boolean anchoredEnd) {
+        this.pattern = pattern;
+        this.kind = kind;
+        this.literal = literal;
+        this.segments = segments;
+        this.anchoredStart = anchoredStart;
+        this.anchoredEnd = anchoredEnd;
+        this.segmentHasWildcard = new boolean[segments.length];
+        int length = 0;
+        for (int i = 0; i < segments.length; i++) {
+            segmentHasWildcard[i] = segments[i].indexOf('?') >= 0;
+            length += segments[i].length();
+        }
+        this.minLength = length;
+    }
+
+    /**
+     * Compiles a wildcard pattern.
+     *
+     * @param pattern The wildcard pattern, null or empty matches only empty values
+     * @return Compiled matcher
+     */
+    @NonNull
+    static WildcardMatcher compile(@Nullable String pattern) {
+        if (Strings.isNullOrEmpty(pattern)) {
+            return new WildcardMatcher("", Kind.EMPTY, "", new String[0], true, true);
+        }
+
+        boolean anchoredStart = pattern.charAt(0) != '*';
+        boolean anchoredEnd = pattern.charAt(pattern.length() - 1) != '*';
+        List<String> parts = new ArrayList<>();
+        for (String part : pattern.split("\\*")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        String[] segments = parts.toArray(new String[0]);
+
+        Kind kind;
+        String literal = "";
+        if (segments.length == 0) {
+            kind = Kind.ANY;
+        } else if (segments.length == 1 && segments[0].indexOf('?') < 0) {
+            literal = segments[0];
+            if (anchoredStart && anchoredEnd) {
+                kind = Kind.LITERAL;
+            } else if (anchoredStart) {
+                kind = Kind.PREFIX;
+            } else if (anchoredEnd) {
+                kind = Kind.SUFFIX;
+            } else {
+                kind = Kind.CONTAINS;
+            }
+        } else {
+            kind = Kind.GENERAL;
+        }
+        return new WildcardMatcher(pattern, kind, literal, segments, anchoredStart, anchoredEnd);
+    }
+
+    /**
+     * Tests if a value matches this pattern.
+     *
+     * @param value The value to test
+     * @return true if the whole value matches the pattern
+     */
+    boolean matches(@NonNull String value) {
+        return switch (kind) {
+            case EMPTY -> value.isEmpty();
+            case ANY -> true;
+            case LITERAL -> value.equals(literal);
+            case PREFIX -> value.startsWith(literal);
+            case SUFFIX -> value.endsWith(literal);
+            case CONTAINS -> value.contains(literal);
+            case GENERAL -> matchesSegments(value);
+        };
+    }
+
+    private boolean matchesSegments(String value) {
+        int length = value.length();
+        if (length < minLength) {
+            return false;
+        }
+
+        int first = 0;
+        int last = segments.length;
+        int start = 0;
+        int end = length;
+
+        if (anchoredStart) {
+            if (!regionMatches(value, 0, 0)) {
+                return false;
+            }
+            start = segments[0].length();
+            first = 1;
+        }
+        if (anchoredEnd) {
+            if (first == last) {
+                // A single segment anchored at both ends, the value must be exactly the segment
+                return start == length;
+            }
+            int lastStart = length - segments[last - 1].length();
+            if (lastStart < start || !regionMatches(value, lastStart, last - 1)) {
+                return false;
+            }
+            end = lastStart;
+            last--;
+        }
+
+        // Remaining segments are surrounded by '*', the leftmost occurrence leaves the most room for the next ones
+        for (int i = first; i < last; i++) {
+            int found = indexOf(value, i, start, end);
+            if (found < 0) {
+                return false;
+            }
+            start = found + segments[i].length();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the leftmost occurrence of a segment that fits between from and end.
+     */
+    private int indexOf(String value, int segment, int from, int end) {
+        String text = segments[segment];
+        int lastStart = end - text.length();
+        if (!segmentHasWildcard[segment]) {
+            int found = value.indexOf(text, from);
+            return found >= 0 && found <= lastStart ? found : -1;
+        }
+        for (int offset = from; offset <= lastStart; offset++) {
+            if (regionMatches(value, offset, segment)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(String value, int offset, int segment) {
+        String text = segments[segment];
+        if (!segmentHasWildcard[segment]) {
+            return value.startsWith(text, offset);
+        }
+        int length = text.length();
+        if (offset + length > value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c != '?' && c != value.charAt(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The kind of pattern, selecting the matching algorithm
+     */
+    @NonNull
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return The text of literal, prefix, suffix and contains patterns, empty for other kinds
+     */
+    @NonNull
+    String literal() {
+        return literal;
+    }
+
+    /**
+     * @return The source pattern
+     */
+    @NonNull
+    String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
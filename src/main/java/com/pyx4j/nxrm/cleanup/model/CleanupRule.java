@@ -10,7 +10,7 @@ import org.jspecify.annotations.Nullable;
 /**
  * Represents a single cleanup rule with its properties and filters.
  * Each rule can target components by repository, format, group, name and version patterns,
- * and age/download filters.
+ * and age/download filters. Delete rules can keep the latest versions of each artifact.
  */
 public final class CleanupRule {
 
@@ -151,6 +151,15 @@ public final class CleanupRule {
         @JsonProperty("downloaded")
         private String downloaded;
 
+        @JsonProperty("minSize")
+        private String minSize;
+
+        @JsonProperty("maxSize")
+        private String maxSize;
+
+        @JsonProperty("retainLatest")
+        private Integer retainLatest;
+
         /**
          * Default constructor for Jackson deserialization.
          */
@@ -220,6 +229,42 @@ public final class CleanupRule {
             this.downloaded = downloaded;
         }
 
+        /**
+         * @return Smallest total asset size of a matching component, such as {@code 500MB}
+         */
+        @Nullable
+        public String getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(@Nullable String minSize) {
+            this.minSize = minSize;
+        }
+
+        /**
+         * @return Largest total asset size of a matching component, such as {@code 1GB}
+         */
+        @Nullable
+        public String getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(@Nullable String maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @return Number of latest versions of each artifact that a delete rule keeps, null to delete all matching versions
+         */
+        @Nullable
+        public Integer getRetainLatest() {
+            return retainLatest;
+        }
+
+        public void setRetainLatest(@Nullable Integer retainLatest) {
+            this.retainLatest = retainLatest;
+        }
+
         /**
          * Checks if at least one filter is specified.
          *
@@ -232,7 +277,10 @@ public final class CleanupRule {
                     (names != null && !names.isEmpty()) ||
                     (versions != null && !versions.isEmpty()) ||
                     updated != null ||
-                    downloaded != null;
+                    downloaded != null ||
+                    minSize != null ||
+                    maxSize != null ||
+                    retainLatest != null;
         }
 
         @Override
@@ -246,12 +294,15 @@ public final class CleanupRule {
                     Objects.equals(names, that.names) &&
                     Objects.equals(versions, that.versions) &&
                     Objects.equals(updated, that.updated) &&
-                    Objects.equals(downloaded, that.downloaded);
+                    Objects.equals(downloaded, that.downloaded) &&
+                    Objects.equals(minSize, that.minSize) &&
+                    Objects.equals(maxSize, that.maxSize) &&
+                    Objects.equals(retainLatest, that.retainLatest);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(repositories, formats, groups, names, versions, updated, downloaded);
+            return Objects.hash(repositories, formats, groups, names, versions, updated, downloaded, minSize, maxSize, retainLatest);
         }
 
         @Override
@@ -264,6 +315,9 @@ public final class CleanupRule {
                     ", versions=" + versions +
                     ", updated='" + updated + '\'' +
                     ", downloaded='" + downloaded + '\'' +
+                    ", minSize='" + minSize + '\'' +
+                    ", maxSize='" + maxSize + '\'' +
+                    ", retainLatest=" + retainLatest +
                     '}';
         }
     }
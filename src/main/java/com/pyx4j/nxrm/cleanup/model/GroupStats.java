@@ -1,48 +1,64 @@
 package com.pyx4j.nxrm.cleanup.model;
 
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Stats for a specific group (e.g., Maven groupId, npm scope).
+ * <p>
+ * Updated concurrently by the repositories being scanned, the counters are exact once the updates are done.
  */
 public class GroupStats {
 
-    private long componentCount;
+    private final LongAdder componentCount = new LongAdder();
 
-    private long sizeBytes;
+    private final LongAdder sizeBytes = new LongAdder();
 
-    private long remainingComponentCount;
+    private final LongAdder remainingComponentCount = new LongAdder();
 
-    private long remainingSizeBytes;
+    private final LongAdder remainingSizeBytes = new LongAdder();
+
+    private volatile long error;
 
     public GroupStats() {
-        this.componentCount = 0;
-        this.sizeBytes = 0;
-        this.remainingComponentCount = 0;
-        this.remainingSizeBytes = 0;
     }
 
     public void addComponents(long componentCount, long sizeBytes) {
-        this.componentCount += componentCount;
-        this.sizeBytes += sizeBytes;
+        this.componentCount.add(componentCount);
+        this.sizeBytes.add(sizeBytes);
     }
 
     public long getComponentCount() {
-        return componentCount;
+        return componentCount.sum();
     }
 
     public long getSizeBytes() {
-        return sizeBytes;
+        return sizeBytes.sum();
     }
 
     public void addRemaining(long componentCount, long sizeBytes) {
-        this.remainingComponentCount += componentCount;
-        this.remainingSizeBytes += sizeBytes;
+        this.remainingComponentCount.add(componentCount);
+        this.remainingSizeBytes.add(sizeBytes);
     }
 
     public long getRemainingComponentCount() {
-        return remainingComponentCount;
+        return remainingComponentCount.sum();
     }
 
     public long getRemainingSizeBytes() {
-        return remainingSizeBytes;
+        return remainingSizeBytes.sum();
+    }
+
+    /**
+     * @return Maximum overestimation of the removed components (or size) of an approximate group, see {@link GroupsSummary}
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public long getError() {
+        return error;
+    }
+
+    void setError(long error) {
+        this.error = error;
     }
 }
@@ -1,31 +1,71 @@
 package com.pyx4j.nxrm.cleanup.model;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * Stores summary information about components grouped by their group field.
+ * <p>
+ * Safe to update from several threads: the statistics are created atomically and counted with {@link LongAdder},
+ * which does not block the threads of concurrently scanned repositories.
+ * <p>
+ * In approximate mode, see {@link #setApproximate(int, SortBy)}, only a fixed number of groups is tracked with the
+ * Space-Saving algorithm, so memory does not depend on the number of distinct groups. Each tracked group estimates
+ * its removed components (or size) with at most {@link GroupStats#getError()} too many, which is never more than
+ * {@link #getApproximateErrorBound()}, and every group removing more than that bound is tracked. The totals stay exact.
  */
 public class GroupsSummary extends ReportSection {
 
     private final Map<String, GroupStats> groupStats;
 
-    private long totalComponents;
+    private final LongAdder totalComponents = new LongAdder();
+
+    private final LongAdder totalSizeBytes = new LongAdder();
+
+    private final LongAdder totalRemainingComponents = new LongAdder();
+
+    private final LongAdder totalRemainingSizeBytes = new LongAdder();
 
-    private long totalSizeBytes;
+    private int approximateCapacity;
 
-    private long totalRemainingComponents;
+    private boolean approximateBySize;
 
-    private long totalRemainingSizeBytes;
+    /**
+     * Tracked groups by increasing removed components (or size) in approximate mode, the first one is replaced next.
+     */
+    private NavigableSet<String> approximateOrder;
 
     public GroupsSummary() {
-        this.groupStats = new HashMap<>();
-        this.totalComponents = 0;
-        this.totalSizeBytes = 0;
-        this.totalRemainingComponents = 0;
-        this.totalRemainingSizeBytes = 0;
+        this.groupStats = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Tracks only the groups removing the most components, or the largest size, in fixed memory.
+     * Must be set before any statistics are added.
+     *
+     * @param capacity Maximum number of groups tracked
+     * @param sortBy   Groups are ranked by removed size with {@link SortBy#SIZE}, by removed components otherwise
+     */
+    public synchronized void setApproximate(int capacity, SortBy sortBy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Approximate groups capacity must be at least 1");
+        }
+        if (!groupStats.isEmpty()) {
+            throw new IllegalStateException("Approximate mode must be set before adding group statistics");
+        }
+        this.approximateCapacity = capacity;
+        this.approximateBySize = sortBy == SortBy.SIZE;
+        // Comparing reads the current weight, a group is removed from the set before its statistics change
+        this.approximateOrder = new TreeSet<>(Comparator.<String>comparingLong(group -> weight(groupStats.get(group)))
+                .thenComparing(Comparator.naturalOrder()));
     }
 
     /**
@@ -38,15 +78,82 @@ public class GroupsSummary extends ReportSection {
     public void addGroupStats(String groupName, long componentCount, long sizeBytes, long remainingComponentCount, long remainingSizeBytes) {
         Objects.requireNonNull(groupName, "Group name cannot be null");
 
-        GroupStats stats = groupStats.computeIfAbsent(groupName, k -> new GroupStats());
+        if (approximateCapacity > 0) {
+            addApproximateGroupStats(groupName, componentCount, sizeBytes, remainingComponentCount, remainingSizeBytes);
+        } else {
+            GroupStats stats = groupStats.computeIfAbsent(groupName, k -> new GroupStats());
+            stats.addComponents(componentCount, sizeBytes);
+            stats.addRemaining(remainingComponentCount, remainingSizeBytes);
+        }
+
+        // Update totals, each counter is exact once all updates are done
+        totalComponents.add(componentCount);
+        totalSizeBytes.add(sizeBytes);
+        totalRemainingComponents.add(remainingComponentCount);
+        totalRemainingSizeBytes.add(remainingSizeBytes);
+    }
+
+    /**
+     * Space-Saving update: a group that is not tracked replaces the group with the smallest weight and inherits its
+     * weight as possible error. The other statistics of a replacing group only count from its first update.
+     */
+    private synchronized void addApproximateGroupStats(String groupName, long componentCount, long sizeBytes,
+                                                       long remainingComponentCount, long remainingSizeBytes) {
+        GroupStats stats = groupStats.get(groupName);
+        if (stats != null) {
+            approximateOrder.remove(groupName);
+        } else if (groupStats.size() < approximateCapacity) {
+            stats = new GroupStats();
+            groupStats.put(groupName, stats);
+        } else if ((approximateBySize ? sizeBytes : componentCount) == 0) {
+            // Nothing removed, the group can not replace a tracked one
+            return;
+        } else {
+            String replaced = approximateOrder.pollFirst();
+            long minWeight = weight(groupStats.remove(replaced));
+            stats = new GroupStats();
+            // The new group may have been part of the replaced counter
+            stats.addComponents(approximateBySize ? 0 : minWeight, approximateBySize ? minWeight : 0);
+            stats.setError(minWeight);
+            groupStats.put(groupName, stats);
+        }
         stats.addComponents(componentCount, sizeBytes);
         stats.addRemaining(remainingComponentCount, remainingSizeBytes);
+        approximateOrder.add(groupName);
+    }
+
+    private long weight(GroupStats stats) {
+        return approximateBySize ? stats.getSizeBytes() : stats.getComponentCount();
+    }
+
+    /**
+     * @return Maximum number of groups tracked, 0 when all groups are tracked exactly
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int getApproximateCapacity() {
+        return approximateCapacity;
+    }
 
-        // Update totals
-        totalComponents += componentCount;
-        totalSizeBytes += sizeBytes;
-        totalRemainingComponents += remainingComponentCount;
-        totalRemainingSizeBytes += remainingSizeBytes;
+    /**
+     * @return true if the groups are ranked by removed size in approximate mode, by removed components otherwise
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isApproximateBySize() {
+        return approximateBySize;
+    }
+
+    /**
+     * Space-Saving guarantee: the removed components (or size) of a tracked group are overestimated by at most the
+     * total divided by the capacity, and every group removing more than this bound is tracked.
+     *
+     * @return The error bound, 0 when all groups are tracked exactly
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public long getApproximateErrorBound() {
+        if (approximateCapacity == 0) {
+            return 0;
+        }
+        return (approximateBySize ? getTotalSizeBytes() : getTotalComponents()) / approximateCapacity;
     }
 
     /**
@@ -64,7 +171,7 @@ public class GroupsSummary extends ReportSection {
      * @return Total component count
      */
     public long getTotalComponents() {
-        return totalComponents;
+        return totalComponents.sum();
     }
 
     /**
@@ -73,15 +180,15 @@ public class GroupsSummary extends ReportSection {
      * @return Total size in bytes
      */
     public long getTotalSizeBytes() {
-        return totalSizeBytes;
+        return totalSizeBytes.sum();
     }
 
     public long getTotalRemainingComponents() {
-        return totalRemainingComponents;
+        return totalRemainingComponents.sum();
     }
 
     public long getTotalRemainingSizeBytes() {
-        return totalRemainingSizeBytes;
+        return totalRemainingSizeBytes.sum();
     }
 
 }
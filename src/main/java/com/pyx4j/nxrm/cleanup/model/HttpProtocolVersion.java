@@ -0,0 +1,33 @@
+package com.pyx4j.nxrm.cleanup.model;
+
+import java.util.Locale;
+
+import picocli.CommandLine;
+
+/**
+ * HTTP protocol versions used to connect to Nexus servers.
+ */
+public enum HttpProtocolVersion {
+
+    /**
+     * HTTP/1.1 only.
+     */
+    HTTP11,
+
+    /**
+     * HTTP/2 over TLS negotiated with ALPN, HTTP/1.1 is used when the server does not support it.
+     */
+    H2,
+
+    /**
+     * HTTP/2 over cleartext, upgraded from HTTP/1.1 when the server supports it.
+     */
+    H2C;
+
+    public static class CaseInsensitiveEnumConverter implements CommandLine.ITypeConverter<HttpProtocolVersion> {
+        @Override
+        public HttpProtocolVersion convert(String value) {
+            return HttpProtocolVersion.valueOf(value.toUpperCase(Locale.CANADA));
+        }
+    }
+}
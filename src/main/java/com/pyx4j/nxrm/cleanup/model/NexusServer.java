@@ -0,0 +1,158 @@
+package com.pyx4j.nxrm.cleanup.model;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Represents a single Nexus Repository Manager server scanned by the cleanup job.
+ * Each server has its own URL, credentials and optionally its own cleanup rules file.
+ */
+public final class NexusServer {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("url")
+    private String url;
+
+    @JsonProperty("username")
+    private String username;
+
+    @JsonProperty("password")
+    private String password;
+
+    @JsonProperty("token")
+    private String token;
+
+    @JsonProperty("proxy")
+    private String proxy;
+
+    @JsonProperty("rules")
+    private String rules;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public NexusServer() {
+    }
+
+    /**
+     * Constructor for creating a server definition.
+     *
+     * @param name     The unique name of the server, used in reports
+     * @param url      The Nexus Repository Manager URL
+     * @param username Optional username
+     * @param password Optional password
+     * @param token    Optional token, takes precedence over username and password
+     */
+    public NexusServer(@NonNull String name, @NonNull String url,
+                       @Nullable String username, @Nullable String password, @Nullable String token) {
+        this.name = Objects.requireNonNull(name, "Server name cannot be null");
+        this.url = Objects.requireNonNull(url, "Server URL cannot be null");
+        this.username = username;
+        this.password = password;
+        this.token = token;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = Objects.requireNonNull(name, "Server name cannot be null");
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(@NonNull String url) {
+        this.url = Objects.requireNonNull(url, "Server URL cannot be null");
+    }
+
+    @Nullable
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(@Nullable String username) {
+        this.username = username;
+    }
+
+    @Nullable
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(@Nullable String password) {
+        this.password = password;
+    }
+
+    @Nullable
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(@Nullable String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return Proxy server URL for this server, or null to use the default proxy selection
+     */
+    @Nullable
+    public String getProxy() {
+        return proxy;
+    }
+
+    public void setProxy(@Nullable String proxy) {
+        this.proxy = proxy;
+    }
+
+    /**
+     * @return Path to the cleanup rules file for this server, or null to use the rules given by {@code --rules}
+     */
+    @Nullable
+    public String getRules() {
+        return rules;
+    }
+
+    public void setRules(@Nullable String rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NexusServer that = (NexusServer) o;
+        return Objects.equals(name, that.name) &&
+                Objects.equals(url, that.url) &&
+                Objects.equals(username, that.username) &&
+                Objects.equals(password, that.password) &&
+                Objects.equals(token, that.token) &&
+                Objects.equals(proxy, that.proxy) &&
+                Objects.equals(rules, that.rules);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, url, username, password, token, proxy, rules);
+    }
+
+    @Override
+    public String toString() {
+        // Credentials are intentionally not included
+        return "NexusServer{" +
+                "name='" + name + '\'' +
+                ", url='" + url + '\'' +
+                ", proxy='" + proxy + '\'' +
+                ", rules='" + rules + '\'' +
+                '}';
+    }
+}
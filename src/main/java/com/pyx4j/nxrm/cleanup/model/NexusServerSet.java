@@ -0,0 +1,63 @@
+package com.pyx4j.nxrm.cleanup.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Represents a collection of Nexus servers loaded from a YAML file.
+ * All servers are scanned in one process and share connection resources.
+ */
+@JsonIgnoreProperties(ignoreUnknown = false)
+public final class NexusServerSet {
+
+    @JsonProperty("servers")
+    private List<NexusServer> servers;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public NexusServerSet() {
+    }
+
+    /**
+     * Constructor for creating a server set.
+     *
+     * @param servers The list of servers
+     */
+    public NexusServerSet(@NonNull List<NexusServer> servers) {
+        this.servers = Objects.requireNonNull(servers, "Servers list cannot be null");
+    }
+
+    @NonNull
+    public List<NexusServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(@NonNull List<NexusServer> servers) {
+        this.servers = Objects.requireNonNull(servers, "Servers list cannot be null");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NexusServerSet that = (NexusServerSet) o;
+        return Objects.equals(servers, that.servers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(servers);
+    }
+
+    @Override
+    public String toString() {
+        return "NexusServerSet{" +
+                "servers=" + servers +
+                '}';
+    }
+}
@@ -1,9 +1,21 @@
 package com.pyx4j.nxrm.cleanup.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.jspecify.annotations.Nullable;
+
+// Server is written first so reports can be merged in a single streaming pass
+@JsonPropertyOrder({"server", "enabled"})
 abstract class ReportSection {
 
     boolean enabled = true;
 
+    @Nullable
+    String server;
+
+    @Nullable
+    String rulesHash;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -11,4 +23,31 @@ abstract class ReportSection {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    /**
+     * @return Name of the Nexus server this section belongs to, or null when a single server is scanned
+     */
+    @Nullable
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getServer() {
+        return server;
+    }
+
+    public void setServer(@Nullable String server) {
+        this.server = server;
+    }
+
+    /**
+     * @return Hash of the cleanup rules the section was computed with, comma separated when the rules were
+     * reloaded during the run, or null if unknown
+     */
+    @Nullable
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getRulesHash() {
+        return rulesHash;
+    }
+
+    public void setRulesHash(@Nullable String rulesHash) {
+        this.rulesHash = rulesHash;
+    }
 }
@@ -1,31 +1,31 @@
 package com.pyx4j.nxrm.cleanup.model;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Stores summary information about components across repositories.
+ * <p>
+ * Safe to update from several threads: the statistics are created atomically and counted with {@link LongAdder},
+ * which does not block the threads of concurrently scanned repositories.
  */
 public class RepositoryComponentsSummary extends ReportSection {
 
     private final Map<String, RepositoryStats> repositoryStats;
 
-    private long totalComponents;
+    private final LongAdder totalComponents = new LongAdder();
 
-    private long totalSizeBytes;
+    private final LongAdder totalSizeBytes = new LongAdder();
 
-    private long totalRemainingComponents;
+    private final LongAdder totalRemainingComponents = new LongAdder();
 
-    private long totalRemainingSizeBytes;
+    private final LongAdder totalRemainingSizeBytes = new LongAdder();
 
     public RepositoryComponentsSummary() {
-        this.repositoryStats = new HashMap<>();
-        this.totalComponents = 0;
-        this.totalSizeBytes = 0;
-        this.totalRemainingComponents = 0;
-        this.totalRemainingSizeBytes = 0;
+        this.repositoryStats = new ConcurrentHashMap<>();
     }
 
     /**
@@ -44,11 +44,11 @@ public class RepositoryComponentsSummary extends ReportSection {
         stats.addComponents(componentCount, sizeBytes);
         stats.addRemaining(remainingComponentCount, remainingSizeBytes);
 
-        // Update totals
-        totalComponents += componentCount;
-        totalSizeBytes += sizeBytes;
-        totalRemainingComponents += remainingComponentCount;
-        totalRemainingSizeBytes += remainingSizeBytes;
+        // Update totals, each counter is exact once all updates are done
+        totalComponents.add(componentCount);
+        totalSizeBytes.add(sizeBytes);
+        totalRemainingComponents.add(remainingComponentCount);
+        totalRemainingSizeBytes.add(remainingSizeBytes);
     }
 
     /**
@@ -66,7 +66,7 @@ public class RepositoryComponentsSummary extends ReportSection {
      * @return Total component count
      */
     public long getTotalComponents() {
-        return totalComponents;
+        return totalComponents.sum();
     }
 
     /**
@@ -75,15 +75,15 @@ public class RepositoryComponentsSummary extends ReportSection {
      * @return Total size in bytes
      */
     public long getTotalSizeBytes() {
-        return totalSizeBytes;
+        return totalSizeBytes.sum();
     }
 
     public long getTotalRemainingComponents() {
-        return totalRemainingComponents;
+        return totalRemainingComponents.sum();
     }
 
     public long getTotalRemainingSizeBytes() {
-        return totalRemainingSizeBytes;
+        return totalRemainingSizeBytes.sum();
     }
 
 }
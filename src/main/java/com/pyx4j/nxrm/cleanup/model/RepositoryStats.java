@@ -1,19 +1,23 @@
 package com.pyx4j.nxrm.cleanup.model;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Stats for a specific repository.
+ * <p>
+ * Updated concurrently by the repositories being scanned, the counters are exact once the updates are done.
  */
 public class RepositoryStats {
 
     private final String format;
 
-    private long componentCount;
+    private final LongAdder componentCount = new LongAdder();
 
-    private long sizeBytes;
+    private final LongAdder sizeBytes = new LongAdder();
 
-    private long remainingComponentCount;
+    private final LongAdder remainingComponentCount = new LongAdder();
 
-    private long remainingSizeBytes;
+    private final LongAdder remainingSizeBytes = new LongAdder();
 
     public RepositoryStats(String format) {
         this.format = format;
@@ -24,28 +28,28 @@ public class RepositoryStats {
     }
 
     public void addComponents(long componentCount, long sizeBytes) {
-        this.componentCount += componentCount;
-        this.sizeBytes += sizeBytes;
+        this.componentCount.add(componentCount);
+        this.sizeBytes.add(sizeBytes);
     }
 
     public long getComponentCount() {
-        return componentCount;
+        return componentCount.sum();
     }
 
     public long getSizeBytes() {
-        return sizeBytes;
+        return sizeBytes.sum();
     }
 
     public void addRemaining(long componentCount, long sizeBytes) {
-        this.remainingComponentCount += componentCount;
-        this.remainingSizeBytes += sizeBytes;
+        this.remainingComponentCount.add(componentCount);
+        this.remainingSizeBytes.add(sizeBytes);
     }
 
     public long getRemainingComponentCount() {
-        return remainingComponentCount;
+        return remainingComponentCount.sum();
     }
 
     public long getRemainingSizeBytes() {
-        return remainingSizeBytes;
+        return remainingSizeBytes.sum();
     }
 }
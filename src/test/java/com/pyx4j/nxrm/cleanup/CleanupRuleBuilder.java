@@ -79,6 +79,21 @@ public final class CleanupRuleBuilder {
         return this;
     }
 
+    public CleanupRuleBuilder minSize(@Nullable String minSize) {
+        this.filters.setMinSize(minSize);
+        return this;
+    }
+
+    public CleanupRuleBuilder maxSize(@Nullable String maxSize) {
+        this.filters.setMaxSize(maxSize);
+        return this;
+    }
+
+    public CleanupRuleBuilder retainLatest(@Nullable Integer retainLatest) {
+        this.filters.setRetainLatest(retainLatest);
+        return this;
+    }
+
     public CleanupRule build() {
         return new CleanupRule(name, description, enabled, action, filters);
     }
@@ -2,6 +2,10 @@ package com.pyx4j.nxrm.cleanup;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import com.pyx4j.nxrm.cleanup.model.HttpProtocolVersion;
 import com.pyx4j.nxrm.cleanup.model.SortBy;
 import org.junit.jupiter.api.Test;
 import picocli.CommandLine;
@@ -52,4 +56,66 @@ class CommandLineIntegrationTest {
         assertThat(args.repositoriesSortBy).isEqualTo(SortBy.SIZE);
     }
 
+    @Test
+    void commandLineArgs_withServersOption_shouldParseCorrectly() {
+        NxCleanupCommandArgs args = new NxCleanupCommandArgs();
+        CommandLine cmd = new CommandLine(args);
+
+        cmd.parseArgs("--servers", "servers.yml", "--rules", "/dev/null", "--concurrency", "8");
+
+        assertThat(args.serversFile).isEqualTo("servers.yml");
+        assertThat(args.rulesFiles).containsExactly("/dev/null");
+        assertThat(args.concurrency).isEqualTo(8);
+    }
+
+    @Test
+    void commandLineArgs_withConnectionOptions_shouldParseCorrectly() {
+        NxCleanupCommandArgs args = new NxCleanupCommandArgs();
+        CommandLine cmd = new CommandLine(args);
+
+        cmd.parseArgs("--rules", "/dev/null", "--url", "https://nexus.example.com",
+                "--max-connections", "32", "--pending-acquire-max-count", "500", "--max-idle-time", "20",
+                "--no-tcp-keep-alive", "--http-protocol", "h2");
+
+        assertThat(args.maxConnections).isEqualTo(32);
+        assertThat(args.pendingAcquireMaxCount).isEqualTo(500);
+        assertThat(args.pendingAcquireTimeoutSeconds).isEqualTo(60);
+        assertThat(args.maxIdleTimeSeconds).isEqualTo(20);
+        assertThat(args.tcpKeepAlive).isFalse();
+        assertThat(args.httpProtocol).isEqualTo(HttpProtocolVersion.H2);
+    }
+
+    @Test
+    void commandLineArgs_withoutUrlAndServers_shouldFailValidation() {
+        NxCleanupCommandArgs args = new NxCleanupCommandArgs();
+        CommandLine cmd = new CommandLine(args);
+        cmd.setErr(new PrintWriter(new StringWriter()));
+
+        int exitCode = cmd.execute("--rules", "/dev/null", "--url", "");
+
+        assertThat(exitCode).as("Missing --url must be reported as a usage error").isEqualTo(2);
+    }
+
+    @Test
+    void commandLineArgs_withSeveralRulesFiles_shouldParseAll() {
+        NxCleanupCommandArgs args = new NxCleanupCommandArgs();
+        CommandLine cmd = new CommandLine(args);
+
+        cmd.parseArgs("--rules", "current.yml", "strict.yml", "--url", "https://nexus.example.com", "--dry-run");
+
+        assertThat(args.rulesFiles).containsExactly("current.yml", "strict.yml");
+        assertThat(args.dryRun).isTrue();
+    }
+
+    @Test
+    void commandLineArgs_withSeveralRulesFilesWithoutDryRun_shouldFailValidation() {
+        NxCleanupCommandArgs args = new NxCleanupCommandArgs();
+        CommandLine cmd = new CommandLine(args);
+        cmd.setErr(new PrintWriter(new StringWriter()));
+
+        int exitCode = cmd.execute("--rules", "current.yml", "--rules", "strict.yml", "--url", "https://nexus.example.com");
+
+        assertThat(exitCode).as("Several rules files only simulate removals").isEqualTo(2);
+    }
+
 }
@@ -2,8 +2,14 @@ package com.pyx4j.nxrm.cleanup;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.lang.management.ManagementFactory;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 import com.pyx4j.nxrm.cleanup.model.CleanupRule;
 import com.pyx4j.nxrm.cleanup.model.CleanupRuleSet;
@@ -352,6 +358,406 @@ class ComponentFilterTest {
         assertThat(filter.getComponentFilter().test(tooRecentComponent)).isFalse();
     }
 
+    @Test
+    void getRepositoryFilter_shouldApplyOnlyRulesOfRepository() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .action("keep")
+                .repositories(List.of("releases-*"))
+                .names(List.of("*"))
+                .build();
+        CleanupRule deleteRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .names(List.of("test-*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, deleteRule));
+        ComponentFilter filter = new ComponentFilter(ruleSet);
+
+        ComponentXO component = createComponent("test-component");
+
+        assertThat(filter.getRepositoryFilter("releases-1").test(component)).isFalse();
+        assertThat(filter.getRepositoryFilter("snapshots").test(component)).isTrue();
+        assertThat(filter.getRepositoryFilter(null).test(component)).isTrue();
+    }
+
+    @Test
+    void getComponentFilter_shouldSelectRulesByComponentRepository() {
+        CleanupRule deleteRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .repositories(List.of("snapshots"))
+                .names(List.of("*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(deleteRule));
+        ComponentFilter filter = new ComponentFilter(ruleSet);
+
+        ComponentXO snapshotComponent = createComponent("test-component");
+        snapshotComponent.setRepository("snapshots");
+        ComponentXO releaseComponent = createComponent("test-component");
+        releaseComponent.setRepository("releases");
+        ComponentXO noRepositoryComponent = createComponent("test-component");
+
+        assertThat(filter.getComponentFilter().test(snapshotComponent)).isTrue();
+        assertThat(filter.getComponentFilter().test(releaseComponent)).isFalse();
+        assertThat(filter.getComponentFilter().test(noRepositoryComponent)).isFalse();
+    }
+
+    @Test
+    void getRepositoryFilter_shouldNotAllocatePerComponent() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .action("keep")
+                .names(List.of("keep-*"))
+                .build();
+        CleanupRule deleteRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .names(List.of("test-*", "*-component"))
+                .updated("30d")
+                .downloaded("60d")
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, deleteRule));
+        Predicate<ComponentXO> filter = new ComponentFilter(ruleSet).getRepositoryFilter("releases");
+
+        List<ComponentXO> components = new ArrayList<>();
+        for (String name : List.of("test-component", "keep-component", "other")) {
+            ComponentXO component = new ComponentXO();
+            component.setName(name);
+            List<AssetXO> assets = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                AssetXO asset = new AssetXO();
+                asset.setBlobCreated(OffsetDateTime.now().minusDays(90));
+                asset.setLastDownloaded(i == 0 ? null : OffsetDateTime.now().minusDays(90));
+                assets.add(asset);
+            }
+            component.setAssets(assets);
+            components.add(component);
+        }
+
+        // Complete the warm-up, reordering the rules allocates once
+        for (int i = 0; i < ComponentFilter.WARM_UP_COMPONENTS + components.size(); i++) {
+            filter.test(components.get(i % components.size()));
+        }
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 100_000;
+        int matches = 0;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            for (int j = 0; j < components.size(); j++) {
+                if (filter.test(components.get(j))) {
+                    matches++;
+                }
+            }
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(matches).isEqualTo(iterations);
+        // Allow a few allocations by the measurement itself, but not one per component
+        assertThat(allocated).isLessThan(iterations);
+    }
+
+    @Test
+    void getRepositoryFilter_afterWarmUp_shouldRunSelectiveChecksAndRulesFirst() {
+        CleanupRule rareRule = CleanupRuleBuilder.builder()
+                .name("rare")
+                .action("delete")
+                .names(List.of("rare-*"))
+                .build();
+        CleanupRule commonRule = CleanupRuleBuilder.builder()
+                .name("common")
+                .action("delete")
+                .groups(List.of("*"))
+                .versions(List.of("1.*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(rareRule, commonRule));
+        ComponentFilter adaptiveFilter = new ComponentFilter(ruleSet, 100);
+        ComponentFilter definedOrderFilter = new ComponentFilter(ruleSet, 0);
+
+        assertThat(adaptiveFilter.describeEvaluationOrder("releases"))
+                .isEqualTo("keep [], delete [rare[NAME], common[GROUP, VERSION]]");
+
+        // The rare rule and the group check never decide a warm-up component, so they rank last whatever their
+        // measured cost
+        List<ComponentXO> components = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ComponentXO component = createComponent(i >= 100 && i % 50 == 0 ? "rare-component" : "test-component");
+            component.setGroup("org.example");
+            component.setVersion(i % 4 == 0 ? "1.0" : "2.0");
+            components.add(component);
+        }
+        for (ComponentXO component : components) {
+            assertThat(adaptiveFilter.getRepositoryFilter("releases").test(component))
+                    .isEqualTo(definedOrderFilter.getRepositoryFilter("releases").test(component));
+        }
+
+        assertThat(adaptiveFilter.describeEvaluationOrder("releases"))
+                .isEqualTo("keep [], delete [common[VERSION, GROUP], rare[NAME]]");
+        assertThat(definedOrderFilter.describeEvaluationOrder("releases"))
+                .isEqualTo("keep [], delete [rare[NAME], common[GROUP, VERSION]]");
+    }
+
+    @Test
+    void getRepositoryFilter_withConcurrentWarmUp_shouldMatchDefinedOrder() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .name("keep")
+                .action("keep")
+                .versions(List.of("*-RELEASE"))
+                .build();
+        CleanupRule rareRule = CleanupRuleBuilder.builder()
+                .name("rare")
+                .action("delete")
+                .names(List.of("rare-*"))
+                .build();
+        CleanupRule commonRule = CleanupRuleBuilder.builder()
+                .name("common")
+                .action("delete")
+                .groups(List.of("*"))
+                .versions(List.of("1.*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, rareRule, commonRule));
+        ComponentFilter.RepositoryFilter definedOrder = new ComponentFilter(ruleSet, 0).getRepositoryFilter("releases");
+
+        List<ComponentXO> components = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ComponentXO component = createComponent(i % 50 == 0 ? "rare-component" : "test-component");
+            component.setGroup("org.example");
+            component.setVersion(i % 4 == 0 ? "1.0" : i % 7 == 0 ? "1.0-RELEASE" : "2.0");
+            components.add(component);
+        }
+        for (int run = 0; run < 20; run++) {
+            // Threads still recording the warm-up race with the thread publishing the ranked order
+            ComponentFilter.RepositoryFilter adaptive = new ComponentFilter(ruleSet, 500).getRepositoryFilter("releases");
+            List<Integer> mismatches = IntStream.range(0, components.size()).parallel()
+                    .filter(i -> adaptive.test(components.get(i)) != definedOrder.test(components.get(i)))
+                    .boxed()
+                    .toList();
+            assertThat(mismatches).isEmpty();
+        }
+    }
+
+    @Test
+    void getComponentFilter_withRepeatingGroups_shouldRememberMatches() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .action("keep")
+                .groups(List.of("com.example.*"))
+                .versions(List.of("*-RELEASE"))
+                .build();
+        CleanupRule deleteRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .groups(List.of("com.example.*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, deleteRule));
+        ComponentFilter filter = new ComponentFilter(ruleSet, 0, new PatternMatchCache(100), true);
+
+        for (int i = 0; i < 10; i++) {
+            ComponentXO component = createComponent("test-component");
+            component.setGroup("com.example.platform");
+            component.setVersion("1." + i);
+            assertThat(filter.getComponentFilter().test(component)).isTrue();
+        }
+
+        // Both rules share the same group patterns, matched once for the repeating group
+        assertThat(filter.getMatchCache().getEntries()).isEqualTo(1);
+        assertThat(filter.getMatchCache().getMisses()).isEqualTo(1);
+        assertThat(filter.getMatchCache().getHits()).isEqualTo(19);
+    }
+
+    @Test
+    void toEpochMillis_shouldRoundDownLikeInstant() {
+        for (String date : List.of("2024-03-01T10:15:30.123456789+02:00", "1969-12-31T23:59:59.999999999Z",
+                "1970-01-01T00:00:00Z", "1900-06-15T12:00:00.5-05:00")) {
+            OffsetDateTime dateTime = OffsetDateTime.parse(date);
+            assertThat(ComponentFilter.toEpochMillis(dateTime)).isEqualTo(dateTime.toInstant().toEpochMilli());
+        }
+    }
+
+    @Test
+    void getComponentFilter_withDateInCutoffMillisecond_shouldKeepComponent() {
+        CleanupRule rule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .updated("2024-03-01T10:15:30.123400Z")
+                .build();
+        ComponentFilter filter = new ComponentFilter(new CleanupRuleSet(List.of(rule)));
+
+        assertThat(filter.getComponentFilter().test(createComponentWithAssetCreated(OffsetDateTime.parse("2024-03-01T10:15:30.122999Z")))).isTrue();
+        // Before the cutoff but within the same millisecond, compared as not before
+        assertThat(filter.getComponentFilter().test(createComponentWithAssetCreated(OffsetDateTime.parse("2024-03-01T10:15:30.123Z")))).isFalse();
+        assertThat(filter.getComponentFilter().test(createComponentWithAssetCreated(OffsetDateTime.parse("2024-03-01T10:15:30.123900Z")))).isFalse();
+    }
+
+    @Test
+    void getComponentFilter_withDateFilters_shouldUseLatestAssetDates() {
+        CleanupRule rule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .updated("30d")
+                .downloaded("30d")
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(rule));
+        ComponentFilter filter = new ComponentFilter(ruleSet);
+
+        ComponentXO component = createComponentWithAssetCreated(OffsetDateTime.now().minusDays(90));
+        AssetXO neverDownloaded = new AssetXO();
+        neverDownloaded.setBlobCreated(OffsetDateTime.now().minusDays(40));
+        AssetXO oldDownload = new AssetXO();
+        oldDownload.setBlobCreated(OffsetDateTime.now().minusDays(60));
+        oldDownload.setLastDownloaded(OffsetDateTime.now().minusDays(31));
+        component.setAssets(List.of(component.getAssets().get(0), neverDownloaded, oldDownload));
+        assertThat(filter.getComponentFilter().test(component)).isTrue();
+
+        AssetXO recentDownload = new AssetXO();
+        recentDownload.setBlobCreated(OffsetDateTime.now().minusDays(60));
+        recentDownload.setLastDownloaded(OffsetDateTime.now().minusDays(29));
+        component.setAssets(List.of(neverDownloaded, oldDownload, recentDownload));
+        assertThat(filter.getComponentFilter().test(component)).isFalse();
+
+        AssetXO noCreationDate = new AssetXO();
+        component.setAssets(List.of(neverDownloaded, noCreationDate));
+        assertThat(filter.getComponentFilter().test(component)).isFalse();
+    }
+
+    @Test
+    void select_shouldMatchComponentByComponentEvaluation() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .action("keep")
+                .groups(List.of("com.keep.*"))
+                .versions(List.of("*-RELEASE"))
+                .build();
+        CleanupRule oldRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .names(List.of("lib-?"))
+                .updated("30d")
+                .build();
+        CleanupRule unusedRule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .formats(List.of("npm"))
+                .downloaded("never")
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, oldRule, unusedRule));
+        // Interpreted rules test components one by one, pages are evaluated column by column
+        ComponentFilter.RepositoryFilter columnar = new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), false)
+                .getRepositoryFilter("releases");
+        ComponentFilter.RepositoryFilter compiled = new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), true)
+                .getRepositoryFilter("releases");
+        ComponentFilter.RepositoryFilter warmingUp = new ComponentFilter(ruleSet, Integer.MAX_VALUE).getRepositoryFilter("releases");
+
+        Random random = new Random(42);
+        for (int page = 0; page < 20; page++) {
+            List<ComponentXO> components = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ComponentXO component = new ComponentXO();
+                component.setGroup(random.nextBoolean() ? "com.keep.core" : "org.example");
+                component.setName(random.nextInt(5) == 0 ? null : "lib-" + random.nextInt(12));
+                component.setFormat(random.nextBoolean() ? "npm" : "maven2");
+                component.setVersion(random.nextBoolean() ? "1.0-RELEASE" : "1.0");
+                List<AssetXO> assets = new ArrayList<>();
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    AssetXO asset = new AssetXO();
+                    asset.setBlobCreated(random.nextInt(10) == 0 ? null : OffsetDateTime.now().minusDays(random.nextInt(60)));
+                    asset.setLastDownloaded(random.nextBoolean() ? null : OffsetDateTime.now().minusDays(random.nextInt(60)));
+                    assets.add(asset);
+                }
+                component.setAssets(assets);
+                components.add(random.nextInt(50) == 0 ? null : component);
+            }
+
+            BitSet expected = new BitSet();
+            for (int i = 0; i < components.size(); i++) {
+                if (columnar.test(components.get(i))) {
+                    expected.set(i);
+                }
+            }
+            assertThat(columnar.select(components)).isEqualTo(expected);
+            assertThat(compiled.select(components)).isEqualTo(expected);
+            assertThat(warmingUp.select(components)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void getRepositoryFilter_withSizeFilters_shouldMatchTotalAssetSize() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .name("keep-small")
+                .action("keep")
+                .maxSize("1KB")
+                .build();
+        CleanupRule giantRule = CleanupRuleBuilder.builder()
+                .name("delete-giants")
+                .minSize("500MB")
+                .build();
+        CleanupRule mediumRule = CleanupRuleBuilder.builder()
+                .name("delete-medium-apps")
+                .names(List.of("app"))
+                .minSize("1MB")
+                .maxSize("10MB")
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(keepRule, giantRule, mediumRule));
+
+        ComponentXO small = createComponentWithSizes("lib", 512L, 512L);
+        ComponentXO giant = createComponentWithSizes("lib", 400L * 1024 * 1024, 100L * 1024 * 1024);
+        ComponentXO almostGiant = createComponentWithSizes("lib", 500L * 1024 * 1024 - 1, null);
+        ComponentXO mediumApp = createComponentWithSizes("app", 10L * 1024 * 1024);
+        ComponentXO largeApp = createComponentWithSizes("app", 10L * 1024 * 1024 + 1);
+        List<ComponentXO> components = List.of(small, giant, almostGiant, mediumApp, largeApp);
+        BitSet expected = BitSet.valueOf(new long[]{0b01010});
+
+        for (ComponentFilter filter : List.of(new ComponentFilter(ruleSet, 0),
+                new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), false),
+                new ComponentFilter(ruleSet, Integer.MAX_VALUE))) {
+            ComponentFilter.RepositoryFilter repositoryFilter = filter.getRepositoryFilter("releases");
+            assertThat(repositoryFilter.select(components)).isEqualTo(expected);
+            for (int i = 0; i < components.size(); i++) {
+                assertThat(repositoryFilter.test(components.get(i))).isEqualTo(expected.get(i));
+            }
+        }
+    }
+
+    @Test
+    void getRepositoryFilter_withRetainLatest_shouldReturnRetentionOfComponentsNotSelected() {
+        CleanupRule keepRule = CleanupRuleBuilder.builder()
+                .name("keep-pinned")
+                .action("keep")
+                .versions(List.of("*-pinned"))
+                .build();
+        CleanupRule snapshotRule = CleanupRuleBuilder.builder()
+                .name("delete-snapshots")
+                .versions(List.of("*-SNAPSHOT"))
+                .build();
+        CleanupRule retainRule = CleanupRuleBuilder.builder()
+                .name("retain-releases")
+                .names(List.of("lib-*"))
+                .retainLatest(3)
+                .build();
+        ComponentFilter filter = new ComponentFilter(new CleanupRuleSet(List.of(keepRule, snapshotRule, retainRule)), 0);
+        ComponentFilter.RepositoryFilter repositoryFilter = filter.getRepositoryFilter("releases");
+
+        ComponentXO release = createComponent("lib-a");
+        release.setVersion("1.0");
+        ComponentXO snapshot = createComponent("lib-a");
+        snapshot.setVersion("1.1-SNAPSHOT");
+        ComponentXO pinned = createComponent("lib-a");
+        pinned.setVersion("0.9-pinned");
+        ComponentXO other = createComponent("app");
+        other.setVersion("1.0");
+
+        assertThat(repositoryFilter.hasRetentionRules()).isTrue();
+        assertThat(repositoryFilter.select(List.of(release, snapshot, pinned, other))).isEqualTo(BitSet.valueOf(new long[]{0b10}));
+        assertThat(repositoryFilter.retention(release)).isEqualTo(new ComponentFilter.Retention("retain-releases", 3));
+        assertThat(repositoryFilter.retention(pinned)).isNull();
+        assertThat(repositoryFilter.retention(other)).isNull();
+        // Retention rules alone never delete a component
+        assertThat(filter.getComponentFilter().test(release)).isFalse();
+    }
+
+    private ComponentXO createComponentWithSizes(String name, Long... fileSizes) {
+        ComponentXO component = new ComponentXO();
+        component.setName(name);
+        List<AssetXO> assets = new ArrayList<>();
+        for (Long fileSize : fileSizes) {
+            AssetXO asset = new AssetXO();
+            asset.setFileSize(fileSize);
+            assets.add(asset);
+        }
+        component.setAssets(assets);
+        return component;
+    }
+
     private ComponentXO createComponent(String name) {
         ComponentXO component = new ComponentXO();
         component.setName(name);
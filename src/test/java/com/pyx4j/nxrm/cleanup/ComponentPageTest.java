@@ -0,0 +1,62 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sonatype.nexus.model.AssetXO;
+import org.sonatype.nexus.model.ComponentXO;
+
+class ComponentPageTest {
+
+    @Test
+    void of_shouldEncodeRepeatingValuesOnce() {
+        ComponentXO first = createComponent("com.example", "lib-a");
+        ComponentXO second = createComponent("com.example", "lib-b");
+        ComponentXO third = createComponent("", "lib-a");
+
+        ComponentPage page = ComponentPage.of(List.of(first, second, third));
+
+        assertThat(page.size()).isEqualTo(3);
+        assertThat(page.groups().values().length).isEqualTo(1);
+        assertThat(page.groups().ids()[0]).isEqualTo(page.groups().ids()[1]);
+        assertThat(page.groups().ids()[2]).isEqualTo(ComponentPage.NO_VALUE);
+        assertThat(page.names().values().length).isEqualTo(2);
+        assertThat(page.names().values()[page.names().ids()[2]]).isEqualTo("lib-a");
+    }
+
+    @Test
+    void of_shouldSummarizeAssetDatesAndSizes() {
+        OffsetDateTime created = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        ComponentXO component = createComponent("com.example", "lib-a");
+        AssetXO asset = new AssetXO();
+        asset.setBlobCreated(created);
+        asset.setFileSize(1_000L);
+        AssetXO withoutSize = new AssetXO();
+        withoutSize.setBlobCreated(created);
+        component.setAssets(List.of(asset, withoutSize));
+        ComponentXO withoutAssets = createComponent("com.example", "lib-b");
+        withoutAssets.setAssets(List.of());
+
+        ComponentPage page = ComponentPage.of(Arrays.asList(component, withoutAssets, null));
+
+        assertThat(page.evaluable().cardinality()).isEqualTo(1);
+        assertThat(page.evaluable().get(0)).isTrue();
+        assertThat(page.lastCreated()[0]).isEqualTo(created.toInstant().toEpochMilli());
+        assertThat(page.lastDownloaded()[0]).isEqualTo(Long.MIN_VALUE);
+        assertThat(page.sizes()[0]).isEqualTo(1_000L);
+        assertThat(page.sizes()[1]).isZero();
+        assertThat(page.component(0)).isSameAs(component);
+        assertThat(page.names().ids()[2]).isEqualTo(ComponentPage.NO_VALUE);
+    }
+
+    private ComponentXO createComponent(String group, String name) {
+        ComponentXO component = new ComponentXO();
+        component.setGroup(group);
+        component.setName(name);
+        return component;
+    }
+}
@@ -0,0 +1,57 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.pyx4j.nxrm.cleanup.model.GroupStats;
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.SortBy;
+import org.junit.jupiter.api.Test;
+
+class GroupRankingTest {
+
+    @Test
+    void top_shouldMatchFullSortForEverySortOrder() {
+        Random random = new Random(42);
+        GroupsSummary summary = new GroupsSummary();
+        for (int i = 0; i < 5_000; i++) {
+            // Few distinct values to have many ties
+            summary.addGroupStats("group-" + random.nextInt(2_000), random.nextInt(10), random.nextInt(5) * 1024L,
+                    random.nextInt(3), random.nextInt(3) * 512L);
+        }
+
+        for (SortBy sortBy : SortBy.values()) {
+            List<Map.Entry<String, GroupStats>> sorted = new ArrayList<>(summary.getGroupStats().entrySet());
+            sorted.sort(GroupRanking.order(sortBy));
+            for (int topGroups : new int[]{1, 10, 100, 5_000}) {
+                List<String> expected = sorted.stream().limit(topGroups).map(Map.Entry::getKey).toList();
+
+                List<String> top = GroupRanking.top(summary.getGroupStats(), sortBy, topGroups).stream()
+                        .map(Map.Entry::getKey)
+                        .toList();
+
+                assertThat(top).as("%s top %d", sortBy, topGroups).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void top_withTiesOrNoLimit_shouldOrderByName() {
+        GroupsSummary summary = new GroupsSummary();
+        summary.addGroupStats("org.b", 5, 100, 0, 0);
+        summary.addGroupStats("org.a", 5, 100, 0, 0);
+        summary.addGroupStats("org.c", 9, 50, 0, 0);
+
+        assertThat(GroupRanking.top(summary.getGroupStats(), SortBy.COMPONENTS, 2).stream().map(Map.Entry::getKey).toList())
+                .containsExactly("org.c", "org.a");
+        assertThat(GroupRanking.top(summary.getGroupStats(), SortBy.SIZE, 10).stream().map(Map.Entry::getKey).toList())
+                .containsExactly("org.a", "org.b", "org.c");
+        assertThat(GroupRanking.top(summary.getGroupStats(), SortBy.NAME, 1).stream().map(Map.Entry::getKey).toList())
+                .containsExactly("org.a");
+        assertThat(GroupRanking.top(summary.getGroupStats(), SortBy.NAME, 0)).isEmpty();
+    }
+}
@@ -0,0 +1,136 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class LinearRegexTest {
+
+    @Test
+    void matches_shouldMatchWholeValue() {
+        LinearRegex regex = LinearRegex.compile("lib-\\d+");
+
+        assertThat(regex.matches("lib-1")).isTrue();
+        assertThat(regex.matches("lib-123")).isTrue();
+        assertThat(regex.matches("lib-")).isFalse();
+        assertThat(regex.matches("xlib-1")).isFalse();
+        assertThat(regex.matches("lib-1x")).isFalse();
+    }
+
+    @Test
+    void matches_withSupportedSyntax() {
+        assertThat(LinearRegex.compile("^a.c$").matches("abc")).isTrue();
+        assertThat(LinearRegex.compile("[a-c_]+").matches("ab_c")).isTrue();
+        assertThat(LinearRegex.compile("[^0-9]+").matches("ab1")).isFalse();
+        assertThat(LinearRegex.compile("[]a]+").matches("]a")).isTrue();
+        assertThat(LinearRegex.compile("[a-]+").matches("a-")).isTrue();
+        assertThat(LinearRegex.compile("[\\d.]+").matches("1.2")).isTrue();
+        assertThat(LinearRegex.compile("\\w+\\s\\W\\S\\D").matches("a_1 -xy")).isTrue();
+        assertThat(LinearRegex.compile("(?:ab|cd)*e").matches("abcdabe")).isTrue();
+        assertThat(LinearRegex.compile("a{2}b{1,}c{0,2}").matches("aabbbcc")).isTrue();
+        assertThat(LinearRegex.compile("a{2}b{1,}c{0,2}").matches("aabccc")).isFalse();
+        assertThat(LinearRegex.compile("a{,2}").matches("a{,2}")).isTrue();
+        assertThat(LinearRegex.compile("a+?b*+").matches("aab")).isTrue();
+        assertThat(LinearRegex.compile("1\\.0\\$\\\\").matches("1.0$\\")).isTrue();
+        assertThat(LinearRegex.compile("").matches("")).isTrue();
+        assertThat(LinearRegex.compile("a|").matches("")).isTrue();
+        assertThat(LinearRegex.compile("café.").matches("café😀")).isTrue();
+    }
+
+    @Test
+    void compileAny_shouldMatchAnyExpression() {
+        LinearRegex regex = LinearRegex.compileAny(List.of("^a+$", "b\\d", "c|d"));
+
+        assertThat(regex.matches("aaa")).isTrue();
+        assertThat(regex.matches("b1")).isTrue();
+        assertThat(regex.matches("d")).isTrue();
+        assertThat(regex.matches("ab1")).isFalse();
+    }
+
+    @Test
+    void compile_withUnsupportedOrInvalidSyntax_shouldThrowException() {
+        assertThatThrownBy(() -> LinearRegex.compile("(a)\\1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Backreferences are not supported");
+        assertThatThrownBy(() -> LinearRegex.compile("a(?=b)"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Lookaround");
+        assertThatThrownBy(() -> LinearRegex.compile("a(b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Missing ')'");
+        assertThatThrownBy(() -> LinearRegex.compile("a)b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unmatched ')'");
+        assertThatThrownBy(() -> LinearRegex.compile("[ab"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Missing ']'");
+        assertThatThrownBy(() -> LinearRegex.compile("*a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Nothing to repeat");
+        assertThatThrownBy(() -> LinearRegex.compile("a^b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Anchors");
+        assertThatThrownBy(() -> LinearRegex.compile("[z-a]"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid class range");
+        assertThatThrownBy(() -> LinearRegex.compile("a{1001}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Repetition count");
+        assertThatThrownBy(() -> LinearRegex.compile("(a{1000}){1000}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void matches_withRandomExpressions_shouldMatchLikeJavaRegex() {
+        Random random = new Random(42);
+        String[] atoms = {"a", "b", ".", "[ab]", "[^a]", "(a|b)", "(ab|a)", "(a*)", "(b?a)"};
+        String[] quantifiers = {"", "", "*", "+", "?", "{2}", "{0,2}", "{1,}"};
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder expression = new StringBuilder();
+            int count = 1 + random.nextInt(4);
+            for (int j = 0; j < count; j++) {
+                expression.append(atoms[random.nextInt(atoms.length)]).append(quantifiers[random.nextInt(quantifiers.length)]);
+            }
+            LinearRegex regex = LinearRegex.compile(expression.toString());
+            Pattern pattern = Pattern.compile(expression.toString());
+
+            for (int j = 0; j < 10; j++) {
+                StringBuilder value = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int k = 0; k < length; k++) {
+                    value.append("abc".charAt(random.nextInt(3)));
+                }
+                assertThat(regex.matches(value.toString()))
+                        .as("Expression '%s' value '%s'", expression, value)
+                        .isEqualTo(pattern.matcher(value).matches());
+            }
+        }
+    }
+
+    /**
+     * Expressions that take exponential time with a backtracking matcher, a few dozen characters would not finish.
+     * The automaton steps at most one thread per instruction and character, so doubling the value doubles the work.
+     */
+    @Test
+    void matches_withCatastrophicBacktrackingExpressions_shouldStayLinear() {
+        String value = "a".repeat(10_000);
+        String doubled = value + value;
+        for (String expression : List.of("(a+)+b", "(a|a)*b", "(a*)*b", "(a|aa)+c", "(.*a){20}b")) {
+            LinearRegex regex = LinearRegex.compile(expression);
+
+            assertThat(regex.matches(doubled)).isFalse();
+            long steps = regex.countSteps(value);
+            long doubledSteps = regex.countSteps(doubled);
+            assertThat(doubledSteps).as("Steps of '%s'", expression)
+                    .isLessThanOrEqualTo((long) regex.programSize() * doubled.length())
+                    // The first characters step fewer threads until every reachable instruction is active
+                    .isLessThanOrEqualTo(2 * steps + (long) regex.programSize() * regex.programSize());
+        }
+    }
+}
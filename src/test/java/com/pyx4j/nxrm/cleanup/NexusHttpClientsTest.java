@@ -0,0 +1,104 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import com.pyx4j.nxrm.cleanup.model.HttpProtocolVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+class NexusHttpClientsTest {
+
+    private static final String ITEM = "{\"repository\":\"maven-releases\",\"format\":\"maven2\",\"downloadUrl\":\"https://nexus.example.com/repository/maven-releases/\"}";
+
+    private DisposableServer server;
+
+    private NexusHttpClients httpClients;
+
+    private volatile String acceptEncoding;
+
+    @BeforeEach
+    void setUp() {
+        String body = "[" + String.join(",", Collections.nCopies(500, ITEM)) + "]";
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .compress(true)
+                .route(routes -> routes.get("/components", (request, response) -> {
+                    acceptEncoding = request.requestHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+                    return response.header(HttpHeaders.CONTENT_TYPE, "application/json").sendString(Mono.just(body));
+                }))
+                .bindNow();
+        httpClients = new NexusHttpClients();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClients.close();
+        server.disposeNow();
+    }
+
+    @Test
+    void responsesAreCompressedAndCounted() {
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClients.create()))
+                .filter(httpClients.trafficFilter())
+                .build();
+
+        String response = webClient.get()
+                .uri("http://localhost:" + server.port() + "/components")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(10));
+
+        assertThat(acceptEncoding).contains("gzip").contains("deflate");
+        assertThat(response).startsWith("[" + ITEM);
+        assertThat(httpClients.getDecodedBytes()).isEqualTo(response.length());
+        assertThat(httpClients.getWireBytes()).isPositive().isLessThan(httpClients.getDecodedBytes() / 5);
+    }
+
+    @Test
+    void h2cProtocolIsNegotiated() {
+        DisposableServer h2cServer = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                .handle((request, response) -> response.sendString(Mono.just(request.version().text())))
+                .bindNow();
+        try (NexusHttpClients h2cClients = new NexusHttpClients(new NexusHttpClients.Options(4, -1, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), null, true, HttpProtocolVersion.H2C))) {
+            String version = h2cClients.create()
+                    .get()
+                    .uri("http://localhost:" + h2cServer.port() + "/")
+                    .responseContent()
+                    .aggregate()
+                    .asString()
+                    .block(Duration.ofSeconds(10));
+
+            assertThat(version).isEqualTo("HTTP/2.0");
+        } finally {
+            h2cServer.disposeNow();
+        }
+    }
+
+    @Test
+    void invalidOptions() {
+        assertThatThrownBy(() -> new NexusHttpClients.Options(0, -1, Duration.ofSeconds(5), null, null, true, HttpProtocolVersion.HTTP11))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Max connections");
+        assertThatThrownBy(() -> new NexusHttpClients.Options(8, 0, Duration.ofSeconds(5), null, null, true, HttpProtocolVersion.HTTP11))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Pending acquire max count");
+    }
+}
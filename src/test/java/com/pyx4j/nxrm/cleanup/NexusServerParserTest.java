@@ -0,0 +1,102 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.pyx4j.nxrm.cleanup.model.NexusServer;
+import com.pyx4j.nxrm.cleanup.model.NexusServerSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for NexusServerParser functionality.
+ */
+class NexusServerParserTest {
+
+    private final NexusServerParser parser = new NexusServerParser(Map.of(
+            "EU_TOKEN", "eu-secret",
+            "US_PASSWORD", "us-secret")::get);
+
+    @Test
+    void parseFromString_withMultipleServers_shouldParseCorrectly() throws IOException {
+        String yaml = """
+                servers:
+                  - name: "nexus-eu"
+                    url: "https://nexus-eu.example.com"
+                    token: "${EU_TOKEN}"
+                    rules: "/app/config/eu-rules.yml"
+                  - name: "nexus-us"
+                    url: "https://nexus-us.example.com"
+                    username: "cleanup"
+                    password: "${US_PASSWORD}"
+                    proxy: "proxy.example.com:8080"
+                """;
+
+        NexusServerSet serverSet = parser.parseFromString(yaml);
+
+        assertThat(serverSet.getServers()).extracting(NexusServer::getName).containsExactly("nexus-eu", "nexus-us");
+
+        NexusServer eu = serverSet.getServers().get(0);
+        assertThat(eu.getUrl()).isEqualTo("https://nexus-eu.example.com");
+        assertThat(eu.getToken()).isEqualTo("eu-secret");
+        assertThat(eu.getRules()).isEqualTo("/app/config/eu-rules.yml");
+        assertThat(eu.getProxy()).isNull();
+
+        NexusServer us = serverSet.getServers().get(1);
+        assertThat(us.getUsername()).isEqualTo("cleanup");
+        assertThat(us.getPassword()).isEqualTo("us-secret");
+        assertThat(us.getProxy()).isEqualTo("proxy.example.com:8080");
+        assertThat(us.getRules()).as("Rules default to --rules when not set").isNull();
+    }
+
+    @Test
+    void parseFromString_withMissingEnvironmentVariable_shouldThrowException() {
+        String yaml = """
+                servers:
+                  - name: "nexus-eu"
+                    url: "https://nexus-eu.example.com"
+                    token: "${UNKNOWN_TOKEN}"
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("UNKNOWN_TOKEN")
+                .hasMessageContaining("nexus-eu");
+    }
+
+    @Test
+    void parseFromString_withDuplicateNames_shouldThrowException() {
+        String yaml = """
+                servers:
+                  - name: "nexus"
+                    url: "https://nexus-eu.example.com"
+                  - name: "nexus"
+                    url: "https://nexus-us.example.com"
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Duplicate server name found: 'nexus'");
+    }
+
+    @Test
+    void parseFromString_withoutUrl_shouldThrowException() {
+        String yaml = """
+                servers:
+                  - name: "nexus"
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must have a url");
+    }
+
+    @Test
+    void parseFromString_withEmptyServers_shouldThrowException() {
+        assertThatThrownBy(() -> parser.parseFromString("servers: []"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least one server");
+    }
+}
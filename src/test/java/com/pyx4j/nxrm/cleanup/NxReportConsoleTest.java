@@ -157,6 +157,20 @@ class NxReportConsoleTest {
         assertThat(output).contains("1.46 MB");
     }
 
+    @Test
+    void printSummary_withRulesHash_shouldShowRulesInHeader() {
+        RepositoryComponentsSummary summary = new RepositoryComponentsSummary();
+        summary.setRulesHash("0123456789ab");
+        summary.addRepositoryStats("repo1", "maven2", 100, 1024000, 50, 512000);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream printStream = new PrintStream(outputStream);
+
+        NxReportConsole.printSummary(summary, SortBy.NAME, printStream, true);
+
+        assertThat(outputStream.toString()).contains("(Dry Run, rules 0123456789ab):");
+    }
+
     @Test
     void printGroupsSummary_withShortGroupNames_shouldFormatCorrectly() {
         GroupsSummary summary = new GroupsSummary();
@@ -248,6 +262,73 @@ class NxReportConsoleTest {
         assertThat(foundLongName).as("Long group name should be found in output").isTrue();
     }
 
+    @Test
+    void printTrafficSummary_shouldShowCompressionSavings() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream printStream = new PrintStream(outputStream);
+
+        NxReportConsole.printTrafficSummary(1000, 4000, printStream);
+
+        assertThat(outputStream.toString())
+                .contains("Nexus API traffic")
+                .contains("1000 B received")
+                .contains("decoded")
+                .containsPattern("75[.,]0% saved by compression");
+    }
+
+    @Test
+    void printPolicySimulation_shouldShowPoliciesAndOverlaps() {
+        PolicySimulation simulation = new PolicySimulation("prod", List.of("current.yml", "strict.yml"));
+        simulation.add(0b11, 1024);
+        simulation.add(0b10, 2048);
+        simulation.add(0, 1024);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        NxReportConsole.printPolicySimulation(simulation, new PrintStream(outputStream));
+
+        String output = outputStream.toString();
+        assertThat(output).contains("Policy Simulation for prod (Dry Run):");
+        assertThat(output).containsPattern("current\\.yml\\s+1\\s+1\\.00 KB\\s+2\\s+3\\.00 KB");
+        assertThat(output).containsPattern("strict\\.yml\\s+2\\s+3\\.00 KB\\s+1\\s+1\\.00 KB");
+        assertThat(output).containsPattern("ANY POLICY\\s+2\\s+3\\.00 KB");
+        assertThat(output).containsPattern("current\\.yml & strict\\.yml\\s+1\\s+1\\.00 KB");
+    }
+
+    @Test
+    void printGroupsSummary_withApproximateGroups_shouldShowErrorBound() {
+        GroupsSummary summary = new GroupsSummary();
+        summary.setApproximate(2, SortBy.COMPONENTS);
+        summary.addGroupStats("org.first", 10, 1000, 0, 0);
+        summary.addGroupStats("org.second", 4, 400, 0, 0);
+        summary.addGroupStats("org.third", 6, 600, 0, 0);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream printStream = new PrintStream(outputStream);
+
+        NxReportConsole.printGroupsSummary(summary, SortBy.COMPONENTS, 10, printStream, true);
+
+        String output = outputStream.toString();
+        assertThat(output).contains("(by Components, Dry Run, approximate):");
+        assertThat(output).contains("Approximate: 2 groups tracked, removed components of a group is overestimated by at most 10");
+        assertThat(output).contains("org.third: removed components overestimated by at most 4");
+        assertThat(output).doesNotContain("org.second");
+    }
+
+    @Test
+    void printEliminatedRules_shouldListRulesWithReason() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream printStream = new PrintStream(outputStream);
+
+        NxReportConsole.printEliminatedRules("default",
+                List.of(new RuleSetAnalyzer.Elimination("old-snapshots", "merged into rule 'snapshots'")), printStream);
+        NxReportConsole.printEliminatedRules("other", List.of(), printStream);
+
+        assertThat(outputStream.toString())
+                .contains("Rules not evaluated for server default")
+                .contains("old-snapshots: merged into rule 'snapshots'")
+                .doesNotContain("other");
+    }
+
     private ComponentXO createComponentWithAsset(OffsetDateTime blobCreated) {
         ComponentXO component = new ComponentXO();
         AssetXO asset = new AssetXO();
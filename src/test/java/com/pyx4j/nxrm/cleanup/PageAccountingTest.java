@@ -0,0 +1,63 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import org.junit.jupiter.api.Test;
+import org.sonatype.nexus.model.ComponentXO;
+
+class PageAccountingTest {
+
+    @Test
+    void addTo_shouldCountRemovedAndRemainingByRepositoryAndGroup() {
+        PageAccounting accounting = new PageAccounting(true);
+        assertThat(accounting.isEmpty()).isTrue();
+
+        accounting.removed(component("org.example", 100));
+        accounting.removed(component("org.example", 200));
+        accounting.remaining(component("org.example", 400));
+        accounting.remaining(component("org.other", 800));
+        accounting.removed(component(null, 1600));
+
+        assertThat(accounting.isEmpty()).isFalse();
+        assertThat(accounting.getRemovedCount()).isEqualTo(3);
+        assertThat(accounting.getRemovedBytes()).isEqualTo(1900);
+        assertThat(accounting.getRemainingCount()).isEqualTo(2);
+        assertThat(accounting.getRemainingBytes()).isEqualTo(1200);
+
+        RepositoryComponentsSummary repositories = new RepositoryComponentsSummary();
+        GroupsSummary groups = new GroupsSummary();
+        accounting.addTo(repositories, groups, "releases", "maven2");
+
+        assertThat(repositories.getRepositoryStats().get("releases").getComponentCount()).isEqualTo(3);
+        assertThat(repositories.getRepositoryStats().get("releases").getRemainingSizeBytes()).isEqualTo(1200);
+        // Components without group are only counted in the repository
+        assertThat(groups.getGroupStats()).containsOnlyKeys("org.example", "org.other");
+        assertThat(groups.getGroupStats().get("org.example").getComponentCount()).isEqualTo(2);
+        assertThat(groups.getGroupStats().get("org.example").getSizeBytes()).isEqualTo(300);
+        assertThat(groups.getGroupStats().get("org.example").getRemainingComponentCount()).isEqualTo(1);
+        assertThat(groups.getGroupStats().get("org.other").getRemainingSizeBytes()).isEqualTo(800);
+        assertThat(groups.getGroupStats().get("org.other").getComponentCount()).isZero();
+    }
+
+    @Test
+    void addTo_withDisabledSummaries_shouldNotAddStats() {
+        PageAccounting accounting = new PageAccounting(false);
+        accounting.removed(component("org.example", 100));
+
+        RepositoryComponentsSummary repositories = new RepositoryComponentsSummary();
+        repositories.setEnabled(false);
+        GroupsSummary groups = new GroupsSummary();
+        accounting.addTo(repositories, groups, "releases", "maven2");
+
+        assertThat(repositories.getRepositoryStats()).isEmpty();
+        assertThat(groups.getGroupStats()).isEmpty();
+    }
+
+    private static SizedComponent component(String group, long sizeBytes) {
+        ComponentXO component = new ComponentXO();
+        component.setGroup(group);
+        return new SizedComponent(component, sizeBytes);
+    }
+}
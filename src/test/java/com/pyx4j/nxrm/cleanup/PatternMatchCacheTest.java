@@ -0,0 +1,67 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PatternMatchCacheTest {
+
+    @Test
+    void matches_withRepeatingValues_shouldMatchOnce() {
+        PatternMatchCache cache = new PatternMatchCache(100);
+        PatternMatchCache.Patterns patterns = cache.memoize(PatternSet.compile(List.of("com.example.*", "*.internal")));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(patterns.matches("com.example.tools")).isTrue();
+            assertThat(patterns.matches("org.other")).isFalse();
+        }
+
+        assertThat(cache.getEntries()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getHits()).isEqualTo(18);
+        assertThat(cache.getHitRate()).isEqualTo(0.9);
+    }
+
+    @Test
+    void matches_whenFull_shouldMatchWithoutCaching() {
+        PatternMatchCache cache = new PatternMatchCache(2);
+        PatternMatchCache.Patterns patterns = cache.memoize(PatternSet.compile(List.of("a*b")));
+
+        assertThat(patterns.matches("ab")).isTrue();
+        assertThat(patterns.matches("axb")).isTrue();
+        assertThat(patterns.matches("axc")).isFalse();
+        assertThat(patterns.matches("axc")).isFalse();
+
+        assertThat(cache.getEntries()).isEqualTo(2);
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void matches_withSimplePatterns_shouldNotUseCache() {
+        PatternMatchCache cache = new PatternMatchCache(100);
+
+        assertThat(cache.memoize(PatternSet.compile(List.of("org.example", "com.example"))).matches("com.example")).isTrue();
+        assertThat(cache.memoize(PatternSet.compile(List.of("*"))).matches("anything")).isTrue();
+
+        assertThat(cache.getEntries()).isZero();
+        assertThat(cache.getHitRate()).isZero();
+    }
+
+    @Test
+    void sizedFromHeap_shouldUseFractionOfMaxHeap() {
+        PatternMatchCache cache = PatternMatchCache.sizedFromHeap();
+
+        assertThat(cache.getMaxEntries()).isPositive();
+        assertThat(cache.getMaxEntries() * PatternMatchCache.ESTIMATED_ENTRY_BYTES).isLessThan(Runtime.getRuntime().maxMemory());
+    }
+
+    @Test
+    void constructor_withNegativeSize_shouldThrow() {
+        assertThatThrownBy(() -> new PatternMatchCache(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
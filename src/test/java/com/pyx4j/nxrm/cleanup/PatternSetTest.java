@@ -0,0 +1,107 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PatternSetTest {
+
+    @Test
+    void matches_withMixedPatternKinds_shouldMatchAny() {
+        PatternSet patterns = PatternSet.compile(List.of("org.example", "com.example.*", "*.internal", "*snapshot*", "net.?.*.core"));
+
+        assertThat(patterns.matches("org.example")).isTrue();
+        assertThat(patterns.matches("com.example.tools")).isTrue();
+        assertThat(patterns.matches("com.acme.internal")).isTrue();
+        assertThat(patterns.matches("libs-snapshot-local")).isTrue();
+        assertThat(patterns.matches("net.a.util.core")).isTrue();
+        assertThat(patterns.matches("org.example.tools")).isFalse();
+        assertThat(patterns.matches("net.ab.util.core")).isFalse();
+    }
+
+    @Test
+    void matches_withEmptyAndAnyPatterns() {
+        assertThat(PatternSet.compile(List.of("a")).matches("")).isFalse();
+        assertThat(PatternSet.compile(List.of("a", "")).matches("")).isTrue();
+        assertThat(PatternSet.compile(List.of("a", "*")).matches("anything")).isTrue();
+    }
+
+    @Test
+    void matches_withNonAsciiCharacters() {
+        PatternSet patterns = PatternSet.compile(List.of("caf\u00e9-*", "*-\u00fc?"));
+
+        assertThat(patterns.matches("caf\u00e9-1.0")).isTrue();
+        assertThat(patterns.matches("cafe-1.0")).isFalse();
+        assertThat(patterns.matches("x-\u00fcb")).isTrue();
+        assertThat(patterns.matches("x-ub")).isFalse();
+    }
+
+    @Test
+    void matches_withRegexAndWildcardPatterns_shouldMatchAny() {
+        PatternSet patterns = PatternSet.compile(List.of("*-SNAPSHOT", "re:\\d+\\.\\d+\\.\\d+(-rc\\d+)?", "re:nightly-[0-9]{8}"));
+
+        assertThat(patterns.isSimple()).isFalse();
+        assertThat(patterns.matches("1.0-SNAPSHOT")).isTrue();
+        assertThat(patterns.matches("1.2.3")).isTrue();
+        assertThat(patterns.matches("1.2.3-rc1")).isTrue();
+        assertThat(patterns.matches("nightly-20260101")).isTrue();
+        assertThat(patterns.matches("1.2")).isFalse();
+        assertThat(patterns.matches("1.2.3-beta")).isFalse();
+        assertThat(patterns.matches("re:1.2.3")).isFalse();
+        assertThat(patterns.matches("")).isFalse();
+    }
+
+    @Test
+    void matches_withManyPatterns_shouldCompileIntoAutomata() {
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            groups.add("com.example" + i + ".*");
+            groups.add("*.internal" + i);
+            groups.add("*snap" + i + "*");
+            groups.add("org.lib" + i);
+        }
+        PatternSet patterns = PatternSet.compile(groups);
+
+        assertThat(patterns.usesFallback()).isFalse();
+        assertThat(patterns.matches("com.example42.tools")).isTrue();
+        assertThat(patterns.matches("com.acme.internal299")).isTrue();
+        assertThat(patterns.matches("x.snap7.y")).isTrue();
+        assertThat(patterns.matches("org.lib0")).isTrue();
+        assertThat(patterns.matches("com.example300.tools")).isFalse();
+    }
+
+    @Test
+    void matches_withRandomPatterns_shouldMatchLikeSinglePatterns() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            List<String> patternList = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int j = 0; j < count; j++) {
+                patternList.add(randomString(random, "ab\u00e9.*?", 7));
+            }
+            // A tiny DFA limit exercises the one by one fallback
+            PatternSet patterns = PatternSet.compile(patternList, random.nextInt(10) == 0 ? 8 : PatternSet.MAX_DFA_TABLE_SIZE);
+
+            for (int j = 0; j < 10; j++) {
+                String value = randomString(random, "ab\u00e9.x", 9);
+                boolean expected = patternList.stream().anyMatch(pattern -> WildcardMatcher.compile(pattern).matches(value));
+                assertThat(patterns.matches(value))
+                        .as("Patterns %s value '%s'", patternList, value)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.sonatype.nexus.model.ComponentXO;
+
+class PolicySimulationTest {
+
+    @Test
+    void add_shouldCountRemovalsOfEachPolicyAndOverlaps() {
+        PolicySimulation simulation = new PolicySimulation(null, List.of("current", "strict", "lenient"));
+
+        simulation.add(0b011, 100);
+        simulation.add(0b010, 200);
+        simulation.add(0b111, 400);
+        simulation.add(0, 800);
+
+        assertThat(simulation.getTotalCount()).isEqualTo(4);
+        assertThat(simulation.getTotalBytes()).isEqualTo(1500);
+        assertThat(simulation.getAnyRemovedCount()).isEqualTo(3);
+        assertThat(simulation.getAnyRemovedBytes()).isEqualTo(700);
+
+        assertThat(simulation.getRemovedCount(0, 0)).isEqualTo(2);
+        assertThat(simulation.getRemovedBytes(0, 0)).isEqualTo(500);
+        assertThat(simulation.getRemovedCount(1, 1)).isEqualTo(3);
+        assertThat(simulation.getRemovedBytes(1, 1)).isEqualTo(700);
+        assertThat(simulation.getRemovedCount(2, 2)).isEqualTo(1);
+
+        assertThat(simulation.getRemovedCount(0, 1)).isEqualTo(2);
+        assertThat(simulation.getRemovedBytes(1, 0)).isEqualTo(500);
+        assertThat(simulation.getRemovedCount(1, 2)).isEqualTo(1);
+        assertThat(simulation.getRemovedBytes(0, 2)).isEqualTo(400);
+    }
+
+    @Test
+    void add_withLastPolicy_shouldUseHighestBit() {
+        List<String> policies = IntStream.range(0, PolicySimulation.MAX_POLICIES).mapToObj(i -> "p" + i).toList();
+        PolicySimulation simulation = new PolicySimulation(null, policies);
+
+        simulation.add(1 << 31 | 1, 10);
+
+        assertThat(simulation.getRemovedCount(31, 31)).isEqualTo(1);
+        assertThat(simulation.getRemovedCount(0, 31)).isEqualTo(1);
+        assertThatThrownBy(() -> new PolicySimulation(null, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void repository_withRetentionDecisions_shouldRecordOnceAllPoliciesDecided() {
+        PolicySimulation simulation = new PolicySimulation(null, List.of("current", "strict"));
+        PolicySimulation.Repository repository = simulation.repository();
+        SizedComponent first = component("id-1", 100);
+        SizedComponent second = component("id-2", 200);
+
+        // Removed by the second policy now, kept or removed later by the retention rules of the first policy
+        repository.decide(first, 0b10, 0b01);
+        repository.decide(second, 0b10, 0b01);
+        assertThat(simulation.getTotalCount()).isZero();
+        assertThat(repository.getPending()).isEqualTo(2);
+
+        repository.decideDeferred(0, first, true);
+        repository.decideDeferred(0, second, false);
+        // Unknown and already decided components are ignored
+        repository.decideDeferred(0, first, false);
+        repository.decideDeferred(1, component("id-3", 400), true);
+
+        assertThat(repository.getPending()).isZero();
+        assertThat(simulation.getTotalCount()).isEqualTo(2);
+        assertThat(simulation.getRemovedCount(0, 0)).isEqualTo(1);
+        assertThat(simulation.getRemovedBytes(0, 1)).isEqualTo(100);
+        assertThat(simulation.getRemovedBytes(1, 1)).isEqualTo(300);
+    }
+
+    @Test
+    void repository_finish_shouldRecordPendingAsNotRemoved() {
+        PolicySimulation simulation = new PolicySimulation(null, List.of("current", "strict"));
+        PolicySimulation.Repository repository = simulation.repository();
+
+        repository.decide(component("id-1", 100), 0b01, 0b10);
+        repository.finish();
+
+        assertThat(repository.getPending()).isZero();
+        assertThat(simulation.getRemovedCount(0, 0)).isEqualTo(1);
+        assertThat(simulation.getRemovedCount(1, 1)).isZero();
+    }
+
+    @Test
+    void repository_withMemoryLimit_shouldDecideSpilledComponentsOnFinish() {
+        PolicySimulation inMemory = new PolicySimulation(null, List.of("current", "strict"));
+        PolicySimulation spilled = new PolicySimulation(null, List.of("current", "strict"));
+        PolicySimulation.Repository inMemoryRepository = inMemory.repository();
+        PolicySimulation.Repository spilledRepository = spilled.repository(2);
+
+        for (PolicySimulation.Repository repository : List.of(inMemoryRepository, spilledRepository)) {
+            for (int i = 0; i < 100; i++) {
+                repository.decide(component("id-" + i, i), i % 3 == 0 ? 0b10 : 0, i % 2 == 0 ? 0b01 : 0b11);
+            }
+            for (int i = 0; i < 100; i++) {
+                repository.decideDeferred(0, component("id-" + i, i), i % 5 == 0);
+                if (i % 2 != 0) {
+                    repository.decideDeferred(1, component("id-" + i, i), i % 7 == 0);
+                }
+            }
+            repository.finish();
+        }
+
+        assertThat(inMemoryRepository.getSpilledDecisions()).isZero();
+        assertThat(spilledRepository.getSpilledDecisions()).isPositive();
+        assertThat(spilledRepository.getPending()).isZero();
+        assertThat(spilled.getTotalCount()).isEqualTo(100);
+        assertThat(spilled.getTotalBytes()).isEqualTo(inMemory.getTotalBytes());
+        assertThat(spilled.getAnyRemovedCount()).isEqualTo(inMemory.getAnyRemovedCount());
+        for (int first = 0; first < 2; first++) {
+            for (int second = first; second < 2; second++) {
+                assertThat(spilled.getRemovedCount(first, second)).isEqualTo(inMemory.getRemovedCount(first, second));
+                assertThat(spilled.getRemovedBytes(first, second)).isEqualTo(inMemory.getRemovedBytes(first, second));
+            }
+        }
+    }
+
+    private static SizedComponent component(String id, long sizeBytes) {
+        ComponentXO component = new ComponentXO();
+        component.setId(id);
+        return new SizedComponent(component, sizeBytes);
+    }
+}
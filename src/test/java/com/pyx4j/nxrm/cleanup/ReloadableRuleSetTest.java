@@ -0,0 +1,159 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReloadableRuleSetTest {
+
+    private static final String RULES_A = """
+            rules:
+              - name: "rule-a"
+                action: delete
+                filters:
+                  repositories:
+                    - "repo-a"
+            """;
+
+    private static final String RULES_B = """
+            rules:
+              - name: "rule-b"
+                action: delete
+                filters:
+                  repositories:
+                    - "repo-b"
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_shouldCompileRulesAndHashContent() throws IOException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), RULES_A);
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            assertThat(rules.current().hash())
+                    .hasSize(ReloadableRuleSet.HASH_LENGTH)
+                    .isEqualTo(ReloadableRuleSet.hash(RULES_A.getBytes(StandardCharsets.UTF_8)));
+            assertThat(rules.current().filter().matchesRepositoryFilter("repo-a")).isTrue();
+            assertThat(rules.current().filter().matchesRepositoryFilter("repo-b")).isFalse();
+            assertThat(rules.getHistory()).containsExactly(rules.current().hash());
+        }
+    }
+
+    @Test
+    void load_withInvalidRules_shouldThrow() throws IOException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), "rules:\n  - action: delete\n");
+
+        assertThatThrownBy(() -> ReloadableRuleSet.load(rulesFile, ComponentFilter::new))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reload_withChangedFile_shouldActivateNewVersion() throws IOException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), RULES_A);
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            ReloadableRuleSet.Version previous = rules.current();
+            Files.writeString(rulesFile, RULES_B);
+
+            assertThat(rules.reload()).isTrue();
+
+            assertThat(rules.current().hash()).isNotEqualTo(previous.hash());
+            assertThat(rules.current().filter().matchesRepositoryFilter("repo-b")).isTrue();
+            assertThat(rules.getHistory()).containsExactly(previous.hash(), rules.current().hash());
+            // A snapshot taken before the reload keeps its rules
+            assertThat(previous.filter().matchesRepositoryFilter("repo-a")).isTrue();
+        }
+    }
+
+    @Test
+    void reload_withUnchangedFile_shouldKeepVersion() throws IOException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), RULES_A);
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            ReloadableRuleSet.Version previous = rules.current();
+            Files.writeString(rulesFile, RULES_A);
+
+            assertThat(rules.reload()).isFalse();
+
+            assertThat(rules.current()).isSameAs(previous);
+            assertThat(rules.getHistory()).hasSize(1);
+        }
+    }
+
+    @Test
+    void reload_withInvalidFile_shouldKeepPreviousRules() throws IOException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), RULES_A);
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            ReloadableRuleSet.Version previous = rules.current();
+
+            Files.writeString(rulesFile, "rules: [");
+            assertThat(rules.reload()).isFalse();
+            Files.writeString(rulesFile, "rules:\n  - name: \"no-filters\"\n    action: delete\n");
+            assertThat(rules.reload()).isFalse();
+            Files.delete(rulesFile);
+            assertThat(rules.reload()).isFalse();
+
+            assertThat(rules.current()).isSameAs(previous);
+            assertThat(rules.getHistory()).hasSize(1);
+        }
+    }
+
+    @Test
+    void watch_withChangedFile_shouldReloadInBackground() throws IOException, InterruptedException {
+        Path rulesFile = Files.writeString(tempDir.resolve("rules.yml"), RULES_A);
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            rules.watch();
+            Files.writeString(rulesFile, RULES_B);
+
+            // Some watch service implementations poll the directory every few seconds
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (rules.getHistory().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertThat(rules.current().filter().matchesRepositoryFilter("repo-b")).isTrue();
+            assertThat(rules.getHistory()).hasSize(2);
+        }
+    }
+
+    /**
+     * Kubernetes ConfigMap volume layout: {@code rules.yml -> ..data/rules.yml} and {@code ..data -> ..<timestamp>},
+     * an update writes a new timestamped directory and renames a new {@code ..data} symlink over the old one.
+     */
+    @Test
+    void watch_withSwappedDataSymlink_shouldReloadInBackground() throws IOException, InterruptedException {
+        Path firstVersion = Files.createDirectory(tempDir.resolve("..2026_01_01_00_00_00.1"));
+        Files.writeString(firstVersion.resolve("rules.yml"), RULES_A);
+        Files.createSymbolicLink(tempDir.resolve("..data"), firstVersion.getFileName());
+        Path rulesFile = Files.createSymbolicLink(tempDir.resolve("rules.yml"), Path.of("..data", "rules.yml"));
+
+        try (ReloadableRuleSet rules = ReloadableRuleSet.load(rulesFile, ComponentFilter::new)) {
+            rules.watch();
+            Path secondVersion = Files.createDirectory(tempDir.resolve("..2026_01_02_00_00_00.2"));
+            Files.writeString(secondVersion.resolve("rules.yml"), RULES_B);
+            Path dataTmp = Files.createSymbolicLink(tempDir.resolve("..data_tmp"), secondVersion.getFileName());
+            Files.move(dataTmp, tempDir.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+            // Some watch service implementations poll the directory every few seconds
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (rules.getHistory().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertThat(rules.current().filter().matchesRepositoryFilter("repo-b")).isTrue();
+            assertThat(rules.getHistory()).hasSize(2);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
+import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
+import com.pyx4j.nxrm.cleanup.model.SortBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportMergerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mergeJsonReports() throws IOException {
+        Path shard0 = writeReport("report-shard-0.json", "repo-a", 10, 1000, "org.example", 4, 400);
+        Path shard1 = writeReport("report-shard-1.json", "repo-b", 5, 500, "org.example", 3, 300);
+
+        ReportMerger merger = new ReportMerger();
+        merger.merge(shard0);
+        merger.merge(shard1);
+
+        List<RepositoryComponentsSummary> repositories = List.copyOf(merger.getRepositorySummaries());
+        assertThat(repositories).hasSize(1);
+        assertThat(repositories.get(0).getRepositoryStats()).containsOnlyKeys("repo-a", "repo-b");
+        assertThat(repositories.get(0).getTotalComponents()).isEqualTo(15);
+        assertThat(repositories.get(0).getTotalSizeBytes()).isEqualTo(1500);
+        assertThat(repositories.get(0).getTotalRemainingComponents()).isEqualTo(2);
+
+        List<GroupsSummary> groups = List.copyOf(merger.getGroupSummaries());
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).getGroupStats().get("org.example").getComponentCount()).isEqualTo(7);
+        assertThat(groups.get(0).getGroupStats().get("org.example").getSizeBytes()).isEqualTo(700);
+    }
+
+    @Test
+    void mergeCsvReports() throws IOException {
+        Path shard0 = writeReport("report-shard-0.csv", "repo-a", 10, 1000, "org.example", 4, 400);
+        Path shard1 = writeReport("report-shard-1.csv", "repo-a", 5, 500, "org.other", 3, 300);
+
+        ReportMerger merger = new ReportMerger();
+        merger.merge(shard0);
+        merger.merge(shard1);
+
+        RepositoryComponentsSummary repositories = merger.getRepositorySummaries().iterator().next();
+        assertThat(repositories.getRepositoryStats()).containsOnlyKeys("repo-a");
+        assertThat(repositories.getRepositoryStats().get("repo-a").getComponentCount()).isEqualTo(15);
+        assertThat(repositories.getRepositoryStats().get("repo-a").getRemainingComponentCount()).isEqualTo(2);
+        assertThat(repositories.getRepositoryStats().get("repo-a").getFormat()).isEqualTo("maven2");
+
+        GroupsSummary groups = merger.getGroupSummaries().iterator().next();
+        assertThat(groups.getGroupStats()).containsOnlyKeys("org.example", "org.other");
+    }
+
+    @Test
+    void mergeKeepsServersSeparate() throws IOException {
+        Path report = tempDir.resolve("report.json");
+        try (ReportWriter reportWriter = new JsonReportWriter(new FileWriter(report.toFile()))) {
+            for (String server : List.of("nexus-a", "nexus-b")) {
+                RepositoryComponentsSummary summary = new RepositoryComponentsSummary();
+                summary.setServer(server);
+                summary.addRepositoryStats("releases", "maven2", 1, 100, 0, 0);
+                reportWriter.writeRepositoryComponentsSummary(summary, SortBy.NAME);
+            }
+        }
+
+        ReportMerger merger = new ReportMerger();
+        merger.merge(report);
+
+        assertThat(merger.getRepositorySummaries())
+                .extracting(RepositoryComponentsSummary::getServer)
+                .containsExactly("nexus-a", "nexus-b");
+        assertThat(merger.getGroupSummaries()).isEmpty();
+    }
+
+    @Test
+    void mergeApproximateGroupsReport_shouldThrow() throws IOException {
+        for (String fileName : List.of("report.csv", "report.json")) {
+            Path report = tempDir.resolve(fileName);
+            try (ReportWriter reportWriter = ReportWriterFactory.create(report.toString())) {
+                GroupsSummary groups = new GroupsSummary();
+                groups.setApproximate(1, SortBy.COMPONENTS);
+                groups.addGroupStats("org.example", 3, 300, 0, 0);
+                groups.addGroupStats("org.other", 5, 500, 0, 0);
+                reportWriter.writeGroupsSummary(groups, SortBy.COMPONENTS, 1);
+            }
+
+            assertThatThrownBy(() -> new ReportMerger().merge(report))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Approximate group statistics cannot be merged");
+        }
+    }
+
+    @Test
+    void unsupportedFormat() throws IOException {
+        Path report = Files.writeString(tempDir.resolve("report.txt"), "");
+
+        assertThatThrownBy(() -> new ReportMerger().merge(report))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported file format");
+    }
+
+    private Path writeReport(String fileName, String repository, long components, long size,
+                             String group, long groupComponents, long groupSize) throws IOException {
+        Path report = tempDir.resolve(fileName);
+        try (ReportWriter reportWriter = ReportWriterFactory.create(report.toString())) {
+            RepositoryComponentsSummary repositories = new RepositoryComponentsSummary();
+            repositories.addRepositoryStats(repository, "maven2", components, size, 1, 10);
+            reportWriter.writeRepositoryComponentsSummary(repositories, SortBy.NAME);
+
+            GroupsSummary groups = new GroupsSummary();
+            groups.addGroupStats(group, groupComponents, groupSize, 1, 10);
+            reportWriter.writeGroupsSummary(groups, SortBy.NAME, 10);
+        }
+        return report;
+    }
+}
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.IOException;
 import java.io.StringWriter;
 
+import com.pyx4j.nxrm.cleanup.model.GroupsSummary;
 import com.pyx4j.nxrm.cleanup.model.RepositoryComponentsSummary;
 import com.pyx4j.nxrm.cleanup.model.SortBy;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,41 @@ class ReportWriterTest {
         assertThat(stringWriter.toString()).contains("\"test-repo\",\"maven2\",\"10\",\"1024\"");
     }
 
+    @Test
+    void testCsvReportWriterWithRulesHash() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (ReportWriter reportWriter = new CsvReportWriter(stringWriter)) {
+            RepositoryComponentsSummary summary = new RepositoryComponentsSummary();
+            summary.setRulesHash("0123456789ab,ba9876543210");
+            summary.addRepositoryStats("test-repo", "maven2", 10, 1024, 0, 0);
+            reportWriter.writeRepositoryComponentsSummary(summary, SortBy.NAME);
+        }
+        assertThat(stringWriter.toString()).contains("\"Rules\",\"0123456789ab,ba9876543210\"");
+    }
+
+    @Test
+    void testGroupsSummaryWritersShouldListSameTopGroups() throws IOException {
+        GroupsSummary summary = new GroupsSummary();
+        summary.addGroupStats("org.small", 1, 10, 0, 0);
+        summary.addGroupStats("org.large", 3, 3000, 0, 0);
+        summary.addGroupStats("org.medium", 2, 200, 0, 0);
+
+        StringWriter csv = new StringWriter();
+        try (ReportWriter reportWriter = new CsvReportWriter(csv)) {
+            reportWriter.writeGroupsSummary(summary, SortBy.SIZE, 2);
+        }
+        StringWriter json = new StringWriter();
+        try (ReportWriter reportWriter = new JsonReportWriter(json)) {
+            reportWriter.writeGroupsSummary(summary, SortBy.SIZE, 2);
+        }
+
+        assertThat(csv.toString()).containsPattern("(?s)\"org.large\".*\"org.medium\"");
+        assertThat(csv.toString()).doesNotContain("org.small");
+        assertThat(json.toString()).containsPattern("\"topGroups\" : \\[ \"org.large\", \"org.medium\" \\]");
+        // All groups are kept in the JSON report for merge-reports
+        assertThat(json.toString()).contains("\"groupStats\"", "org.small");
+    }
+
     @Test
     void testJsonComponentWriter() throws IOException {
         StringWriter stringWriter = new StringWriter();
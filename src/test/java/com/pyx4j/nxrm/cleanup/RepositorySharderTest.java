@@ -0,0 +1,127 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for RepositorySharder functionality.
+ */
+class RepositorySharderTest {
+
+    private static List<String> repositories(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "repo-" + i).toList();
+    }
+
+    @Test
+    void assign_shouldAssignEveryRepositoryToExactlyOneShard() {
+        List<String> repositories = repositories(100);
+
+        Map<String, Integer> assignment = new RepositorySharder(4, Map.of()).assign(repositories);
+
+        assertThat(assignment).hasSize(100);
+        assertThat(assignment.values()).allMatch(shard -> shard >= 0 && shard < 4);
+        assertThat(assignment.values()).as("All shards should get repositories").containsAll(List.of(0, 1, 2, 3));
+    }
+
+    @Test
+    void assign_shouldBeDeterministicRegardlessOfListingOrder() {
+        List<String> repositories = repositories(50);
+        List<String> reversed = new ArrayList<>(repositories);
+        Collections.reverse(reversed);
+
+        Map<String, Integer> first = new RepositorySharder(3, Map.of()).assign(repositories);
+        Map<String, Integer> second = new RepositorySharder(3, Map.of()).assign(reversed);
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void assign_withWeights_shouldBalanceComponentCounts() {
+        List<String> repositories = repositories(40);
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < repositories.size(); i++) {
+            // A few huge repositories and many small ones
+            weights.put(repositories.get(i), i < 4 ? 100_000L : 1_000L);
+        }
+        long total = weights.values().stream().mapToLong(Long::longValue).sum();
+
+        Map<String, Integer> assignment = new RepositorySharder(4, weights).assign(repositories);
+
+        long[] loads = new long[4];
+        assignment.forEach((repository, shard) -> loads[shard] += weights.get(repository));
+        for (long load : loads) {
+            assertThat(load).as("Shard load should stay within the bounded capacity").isLessThanOrEqualTo((long) Math.ceil(total * 1.25 / 4));
+        }
+    }
+
+    @Test
+    void assign_addingRepository_shouldMoveFewOthers() {
+        List<String> repositories = repositories(200);
+        List<String> extended = new ArrayList<>(repositories);
+        extended.add("repo-new");
+
+        Map<String, Integer> before = new RepositorySharder(4, Map.of()).assign(repositories);
+        Map<String, Integer> after = new RepositorySharder(4, Map.of()).assign(extended);
+
+        long moved = repositories.stream().filter(repository -> !before.get(repository).equals(after.get(repository))).count();
+        assertThat(moved).as("Consistent hashing should keep most assignments").isLessThan(repositories.size() / 4);
+    }
+
+    @Test
+    void constructor_withInvalidShardCount_shouldThrowException() {
+        assertThatThrownBy(() -> new RepositorySharder(0, Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Shard count must be at least 1");
+    }
+
+    @Test
+    void shardFileName_shouldGiveEachShardItsOwnFile() {
+        assertThat(RepositorySharder.shardFileName("report.json", 2, 4)).isEqualTo("report-shard-2.json");
+        assertThat(RepositorySharder.shardFileName("out/report-{shard}.csv", 1, 4)).isEqualTo("out/report-1.csv");
+        assertThat(RepositorySharder.shardFileName("out.d/report", 3, 4)).isEqualTo("out.d/report-shard-3");
+        assertThat(RepositorySharder.shardFileName("report.json", 0, 1)).isEqualTo("report.json");
+        assertThat(RepositorySharder.shardFileName(null, 0, 4)).isNull();
+    }
+
+    @Test
+    void readWeights_shouldReadRepositoryCountsFromJsonReport(@TempDir Path tempDir) throws IOException {
+        Path report = tempDir.resolve("report.json");
+        Files.writeString(report, """
+                {
+                  "repositoryStats" : {
+                    "maven-releases" : { "format" : "maven2", "componentCount" : 10, "sizeBytes" : 100, "remainingComponentCount" : 90, "remainingSizeBytes" : 900 }
+                  },
+                  "totalComponents" : 10
+                }
+                {
+                  "server" : "nexus-eu",
+                  "repositoryStats" : {
+                    "npm-proxy" : { "format" : "npm", "componentCount" : 5, "sizeBytes" : 50, "remainingComponentCount" : 0, "remainingSizeBytes" : 0 }
+                  }
+                }
+                {
+                  "groupStats" : { }
+                }
+                """);
+
+        Map<String, Long> weights = RepositorySharder.readWeights(report);
+
+        assertThat(weights)
+                .containsEntry("maven-releases", 100L)
+                .containsEntry("nexus-eu/npm-proxy", 5L)
+                .hasSize(2);
+    }
+}
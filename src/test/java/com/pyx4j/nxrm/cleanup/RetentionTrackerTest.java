@@ -0,0 +1,157 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.sonatype.nexus.model.AssetXO;
+import org.sonatype.nexus.model.ComponentXO;
+
+class RetentionTrackerTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final VersionOrdering MAVEN = VersionOrdering.forFormat("maven2");
+
+    private static final ComponentFilter.Retention RETAIN_TWO = new ComponentFilter.Retention("retain", 2);
+
+    @Test
+    void offer_shouldDeleteVersionsOlderThanTheLatest() {
+        try (RetentionTracker tracker = new RetentionTracker("releases", MAVEN, 10)) {
+            ComponentXO v1 = createComponent("1", "lib", "1.0", 1);
+            ComponentXO v2 = createComponent("2", "lib", "2.0", 2);
+            ComponentXO v3 = createComponent("3", "lib", "3.0", 3);
+            ComponentXO v0 = createComponent("0", "lib", "0.9", 0);
+            ComponentXO other = createComponent("4", "app", "1.0", 0);
+
+            assertThat(offer(tracker, v2, RETAIN_TWO)).isNull();
+            assertThat(offer(tracker, v1, RETAIN_TWO)).isNull();
+            assertThat(offer(tracker, v3, RETAIN_TWO)).isSameAs(v1);
+            assertThat(offer(tracker, v0, RETAIN_TWO)).isSameAs(v0);
+            assertThat(offer(tracker, other, RETAIN_TWO)).isNull();
+
+            List<ComponentXO> deleted = new ArrayList<>();
+            List<ComponentXO> kept = new ArrayList<>();
+            tracker.finish().forEachRemaining(decision -> {
+                decision.deleted().forEach(sized -> deleted.add(sized.component()));
+                decision.kept().forEach(sized -> kept.add(sized.component()));
+            });
+            assertThat(deleted).isEmpty();
+            assertThat(kept).containsExactlyInAnyOrder(v2, v3, other);
+            assertThat(tracker.getSpilledComponents()).isZero();
+        }
+    }
+
+    @Test
+    void offer_shouldTrackArtifactsOfEachRuleSeparately() {
+        try (RetentionTracker tracker = new RetentionTracker("releases", MAVEN, 10)) {
+            ComponentFilter.Retention retainOne = new ComponentFilter.Retention("retain-one", 1);
+            ComponentXO v1 = createComponent("1", "lib", "1.0", 1);
+            ComponentXO v2 = createComponent("2", "lib", "2.0", 2);
+
+            assertThat(offer(tracker, v1, retainOne)).isNull();
+            assertThat(offer(tracker, v2, RETAIN_TWO)).isNull();
+        }
+    }
+
+    @Test
+    void offer_shouldOrderByVersionBeforeCreationDate() {
+        try (RetentionTracker tracker = new RetentionTracker("releases", MAVEN, 10)) {
+            ComponentXO hotfix = createComponent("1", "lib", "1.9.1", 5);
+            ComponentXO v10 = createComponent("2", "lib", "1.10", 2);
+            ComponentXO snapshot = createComponent("3", "lib", "2.0-SNAPSHOT", 3);
+
+            assertThat(offer(tracker, v10, RETAIN_TWO)).isNull();
+            assertThat(offer(tracker, snapshot, RETAIN_TWO)).isNull();
+            assertThat(offer(tracker, hotfix, RETAIN_TWO)).isSameAs(hotfix);
+        }
+    }
+
+    @Test
+    void finish_withSpilledArtifacts_shouldMatchInMemoryDecision() {
+        Random random = new Random(42);
+        List<ComponentXO> components = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ComponentXO component = createComponent(String.valueOf(i), "lib-" + random.nextInt(200), "1." + random.nextInt(50), random.nextInt(100));
+            component.setGroup(random.nextInt(10) == 0 ? null : "com.example");
+            if (random.nextInt(20) == 0) {
+                component.getAssets().get(0).setBlobCreated(null);
+            }
+            components.add(component);
+        }
+
+        for (int maxArtifactsInMemory : new int[]{0, 50, 1_000}) {
+            List<ComponentXO> deleted = new ArrayList<>();
+            List<ComponentXO> kept = new ArrayList<>();
+            long spilled;
+            try (RetentionTracker tracker = new RetentionTracker("releases", MAVEN, maxArtifactsInMemory)) {
+                for (ComponentXO component : components) {
+                    ComponentXO removed = offer(tracker, component, RETAIN_TWO);
+                    if (removed != null) {
+                        deleted.add(removed);
+                    }
+                }
+                Iterator<RetentionTracker.Decision> decisions = tracker.finish();
+                while (decisions.hasNext()) {
+                    RetentionTracker.Decision decision = decisions.next();
+                    decision.deleted().forEach(sized -> deleted.add(sized.component()));
+                    decision.kept().forEach(sized -> kept.add(sized.component()));
+                }
+                spilled = tracker.getSpilledComponents();
+            }
+
+            assertThat(spilled > 0).as("Spilled with %d artifacts in memory", maxArtifactsInMemory).isEqualTo(maxArtifactsInMemory < 400);
+            assertThat(ids(kept)).as("Kept with %d artifacts in memory", maxArtifactsInMemory).isEqualTo(ids(expectedLatest(components, 2)));
+            assertThat(deleted.size() + kept.size()).isEqualTo(components.size());
+        }
+    }
+
+    private static List<ComponentXO> expectedLatest(List<ComponentXO> components, int retainLatest) {
+        Map<String, List<RetentionTracker.Candidate>> byArtifact = new HashMap<>();
+        for (ComponentXO component : components) {
+            long lastCreated = ComponentFilter.lastCreated(component.getAssets());
+            byArtifact.computeIfAbsent(component.getGroup() + ":" + component.getName(), key -> new ArrayList<>())
+                    .add(new RetentionTracker.Candidate(new SizedComponent(component, 100), MAVEN.key(component.getVersion()), lastCreated));
+        }
+        List<ComponentXO> latest = new ArrayList<>();
+        for (List<RetentionTracker.Candidate> candidates : byArtifact.values()) {
+            candidates.stream()
+                    .sorted(RetentionTracker.OLDEST_FIRST.reversed())
+                    .limit(retainLatest)
+                    .forEach(candidate -> latest.add(candidate.component()));
+        }
+        return latest;
+    }
+
+    private static ComponentXO offer(RetentionTracker tracker, ComponentXO component, ComponentFilter.Retention retention) {
+        SizedComponent removed = tracker.offer(new SizedComponent(component, 100), retention);
+        return removed == null ? null : removed.component();
+    }
+
+    private static List<String> ids(List<ComponentXO> components) {
+        return components.stream().map(ComponentXO::getId).sorted(Comparator.naturalOrder()).toList();
+    }
+
+    private static ComponentXO createComponent(String id, String name, String version, int day) {
+        ComponentXO component = new ComponentXO();
+        component.setId(id);
+        component.setRepository("releases");
+        component.setGroup("com.example");
+        component.setName(name);
+        component.setVersion(version);
+        AssetXO asset = new AssetXO();
+        asset.setBlobCreated(BASE.plusDays(day));
+        asset.setFileSize(100L);
+        component.setAssets(List.of(asset));
+        return component;
+    }
+}
@@ -0,0 +1,129 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.pyx4j.nxrm.cleanup.model.CleanupRule;
+import com.pyx4j.nxrm.cleanup.model.CleanupRuleSet;
+import org.junit.jupiter.api.Test;
+import org.sonatype.nexus.model.AssetXO;
+import org.sonatype.nexus.model.ComponentXO;
+
+class RuleCompilerTest {
+
+    @Test
+    void compiledRules_shouldBeUsedAfterWarmUp() {
+        CleanupRule rule = CleanupRuleBuilder.builder()
+                .action("delete")
+                .names(List.of("test-*"))
+                .build();
+        CleanupRuleSet ruleSet = new CleanupRuleSet(List.of(rule));
+
+        assertThat(new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), true).isCompiled("releases")).isTrue();
+        assertThat(new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), false).isCompiled("releases")).isFalse();
+        // Pages are evaluated column by column, the scan does not compile the rules
+        assertThat(new ComponentFilter(ruleSet, 0).isCompiled("releases")).isFalse();
+
+        ComponentFilter warmingUp = new ComponentFilter(ruleSet, 2, new PatternMatchCache(0), true);
+        ComponentXO component = createComponent(new Random(1));
+        assertThat(warmingUp.isCompiled("releases")).isFalse();
+        warmingUp.getRepositoryFilter("releases").test(component);
+        warmingUp.getRepositoryFilter("releases").test(component);
+        assertThat(warmingUp.isCompiled("releases")).isTrue();
+    }
+
+    @Test
+    void compiledRules_withoutChecks_shouldDecideImmediately() {
+        CleanupRule deleteAll = CleanupRuleBuilder.builder()
+                .action("delete")
+                .build();
+        ComponentFilter filter = new ComponentFilter(new CleanupRuleSet(List.of(deleteAll)), 0, new PatternMatchCache(0), true);
+
+        assertThat(filter.isCompiled("releases")).isTrue();
+        assertThat(filter.getRepositoryFilter("releases").test(createComponent(new Random(1)))).isTrue();
+    }
+
+    @Test
+    void compiledRules_withRandomRuleSets_shouldMatchInterpreter() {
+        Random random = new Random(42);
+        for (int set = 0; set < 200; set++) {
+            List<CleanupRule> rules = new ArrayList<>();
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                rules.add(randomRule(random));
+            }
+            CleanupRuleSet ruleSet = new CleanupRuleSet(rules);
+            ComponentFilter.RepositoryFilter compiled = new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), true)
+                    .getRepositoryFilter("releases");
+            ComponentFilter.RepositoryFilter interpreted = new ComponentFilter(ruleSet, 0, new PatternMatchCache(0), false)
+                    .getRepositoryFilter("releases");
+
+            List<ComponentXO> components = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                ComponentXO component = createComponent(random);
+                components.add(component);
+                assertThat(compiled.test(component))
+                        .as("Rules %s component %s", rules, component)
+                        .isEqualTo(interpreted.test(component));
+            }
+            assertThat(compiled.select(components)).isEqualTo(interpreted.select(components));
+        }
+    }
+
+    private static CleanupRule randomRule(Random random) {
+        CleanupRuleBuilder builder = CleanupRuleBuilder.builder()
+                .action(random.nextInt(3) == 0 ? "keep" : "delete");
+        if (random.nextBoolean()) {
+            builder.repositories(List.of(random.nextBoolean() ? "releases" : "snapshots"));
+        }
+        if (random.nextBoolean()) {
+            builder.groups(List.of("com.example.*", "org.lib" + random.nextInt(3)));
+        }
+        if (random.nextBoolean()) {
+            builder.names(List.of("lib-" + random.nextInt(3) + "*"));
+        }
+        if (random.nextInt(3) == 0) {
+            builder.formats(List.of(random.nextBoolean() ? "maven2" : "npm"));
+        }
+        if (random.nextInt(3) == 0) {
+            builder.versions(List.of("*-SNAPSHOT"));
+        }
+        if (random.nextBoolean()) {
+            builder.updated(random.nextInt(60) + "d");
+        }
+        switch (random.nextInt(3)) {
+            case 0 -> builder.downloaded("never");
+            case 1 -> builder.downloaded(random.nextInt(60) + "d");
+            default -> {
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            builder.minSize(random.nextInt(3) + "KB");
+        }
+        if (random.nextInt(3) == 0) {
+            builder.maxSize((2 + random.nextInt(3)) + "KB");
+        }
+        return builder.build();
+    }
+
+    private static ComponentXO createComponent(Random random) {
+        ComponentXO component = new ComponentXO();
+        component.setGroup(random.nextBoolean() ? "com.example.core" : "org.lib" + random.nextInt(4));
+        component.setName(random.nextInt(6) == 0 ? null : "lib-" + random.nextInt(4) + "-core");
+        component.setFormat(random.nextBoolean() ? "maven2" : "npm");
+        component.setVersion(random.nextBoolean() ? "1.0-SNAPSHOT" : "1.0");
+        List<AssetXO> assets = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            AssetXO asset = new AssetXO();
+            asset.setBlobCreated(random.nextInt(10) == 0 ? null : OffsetDateTime.now().minusDays(random.nextInt(90)));
+            asset.setLastDownloaded(random.nextBoolean() ? null : OffsetDateTime.now().minusDays(random.nextInt(90)));
+            asset.setFileSize(random.nextInt(5) == 0 ? null : (long) random.nextInt(2048));
+            assets.add(asset);
+        }
+        component.setAssets(assets);
+        return component;
+    }
+}
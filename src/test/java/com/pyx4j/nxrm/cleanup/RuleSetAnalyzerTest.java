@@ -0,0 +1,242 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import com.pyx4j.nxrm.cleanup.model.CleanupRule;
+import org.junit.jupiter.api.Test;
+
+class RuleSetAnalyzerTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.now(ZoneOffset.UTC);
+
+    @Test
+    void analyze_withDeleteRuleShadowedByKeepRule_shouldEliminateDeleteRule() {
+        CleanupRule keep = CleanupRuleBuilder.builder()
+                .name("keep-platform")
+                .action("keep")
+                .groups(List.of("com.example.*"))
+                .build();
+        CleanupRule shadowed = CleanupRuleBuilder.builder()
+                .name("delete-platform-snapshots")
+                .action("delete")
+                .groups(List.of("com.example.platform"))
+                .versions(List.of("*-SNAPSHOT"))
+                .build();
+        CleanupRule other = CleanupRuleBuilder.builder()
+                .name("delete-old")
+                .action("delete")
+                .updated("90d")
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(keep, shadowed, other), NOW);
+
+        assertThat(result.rules()).containsExactly(keep, other);
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("delete-platform-snapshots", "never deletes, shadowed by keep rule 'keep-platform'"));
+    }
+
+    @Test
+    void analyze_withNarrowerDeleteRule_shouldEliminateRedundantRule() {
+        CleanupRule broad = CleanupRuleBuilder.builder()
+                .name("broad")
+                .action("delete")
+                .names(List.of("lib-*"))
+                .updated("30d")
+                .downloaded("30d")
+                .build();
+        CleanupRule narrow = CleanupRuleBuilder.builder()
+                .name("narrow")
+                .action("delete")
+                .names(List.of("lib-core-?"))
+                .formats(List.of("maven2"))
+                .updated("60d")
+                .downloaded("never")
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(narrow, broad), NOW);
+
+        assertThat(result.rules()).containsExactly(broad);
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("narrow", "redundant, covered by delete rule 'broad'"));
+    }
+
+    @Test
+    void analyze_withNewerCutoff_shouldKeepBothRules() {
+        CleanupRule older = CleanupRuleBuilder.builder()
+                .name("older")
+                .action("delete")
+                .names(List.of("lib-*"))
+                .updated("60d")
+                .build();
+        CleanupRule newer = CleanupRuleBuilder.builder()
+                .name("newer")
+                .action("delete")
+                .names(List.of("app-*"))
+                .updated("30d")
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(older, newer), NOW);
+
+        assertThat(result.rules()).containsExactly(older, newer);
+        assertThat(result.eliminations()).isEmpty();
+    }
+
+    @Test
+    void analyze_withEquivalentRules_shouldKeepFirst() {
+        CleanupRule first = CleanupRuleBuilder.builder()
+                .name("first")
+                .action("delete")
+                .names(List.of("lib-*", "app-*"))
+                .build();
+        CleanupRule second = CleanupRuleBuilder.builder()
+                .name("second")
+                .action("delete")
+                .names(List.of("app-*", "lib-*"))
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(first, second), NOW);
+
+        assertThat(result.rules()).containsExactly(first);
+    }
+
+    @Test
+    void analyze_withRulesDifferingInOneFilter_shouldMerge() {
+        CleanupRule npm = CleanupRuleBuilder.builder()
+                .name("npm")
+                .action("delete")
+                .formats(List.of("npm"))
+                .updated("30d")
+                .build();
+        CleanupRule maven = CleanupRuleBuilder.builder()
+                .name("maven")
+                .action("delete")
+                .formats(List.of("maven2"))
+                .updated("30d")
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(npm, maven), NOW);
+
+        assertThat(result.rules()).hasSize(1);
+        assertThat(result.rules().get(0).getName()).isEqualTo("npm");
+        assertThat(result.rules().get(0).getFilters().getFormats()).containsExactly("npm", "maven2");
+        assertThat(result.rules().get(0).getFilters().getUpdated()).isEqualTo("30d");
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("maven", "merged into rule 'npm'"));
+    }
+
+    @Test
+    void analyze_withOnlyEmptyPatterns_shouldEliminateDeadRule() {
+        CleanupRule dead = CleanupRuleBuilder.builder()
+                .name("dead")
+                .action("delete")
+                .groups(List.of(""))
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(dead), NOW);
+
+        assertThat(result.rules()).isEmpty();
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("dead", "never matches, filter 'groups' has only empty patterns"));
+    }
+
+    @Test
+    void analyze_withOnlyKeepRules_shouldEliminateKeepRules() {
+        CleanupRule keep = CleanupRuleBuilder.builder()
+                .name("keep")
+                .action("keep")
+                .names(List.of("*"))
+                .build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(keep), NOW);
+
+        assertThat(result.rules()).isEmpty();
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("keep", "has no effect, no delete rule remains"));
+    }
+
+    @Test
+    void analyze_withRetainLatest_shouldNotCoverOtherRules() {
+        CleanupRule retainAll = CleanupRuleBuilder.builder().name("retain-all").names(List.of("*")).retainLatest(5).build();
+        CleanupRule deleteSnapshots = CleanupRuleBuilder.builder().name("delete-snapshots").versions(List.of("*-SNAPSHOT")).build();
+        CleanupRule retainLibs = CleanupRuleBuilder.builder().name("retain-libs").names(List.of("lib-*")).retainLatest(5).build();
+        CleanupRule deleteLibs = CleanupRuleBuilder.builder().name("delete-libs").names(List.of("lib-*")).build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(retainAll, deleteSnapshots, retainLibs, deleteLibs), NOW);
+
+        assertThat(result.rules()).extracting(CleanupRule::getName).containsExactly("retain-all", "delete-snapshots", "delete-libs");
+        assertThat(result.eliminations()).containsExactly(
+                new RuleSetAnalyzer.Elimination("retain-libs", "redundant, covered by delete rule 'delete-libs'"));
+    }
+
+    @Test
+    void analyze_withRetainLatest_shouldMergeOnlyRulesWithSameRetention() {
+        CleanupRule first = CleanupRuleBuilder.builder().name("first").groups(List.of("com.a")).retainLatest(3).build();
+        CleanupRule second = CleanupRuleBuilder.builder().name("second").groups(List.of("com.b")).retainLatest(3).build();
+        CleanupRule third = CleanupRuleBuilder.builder().name("third").groups(List.of("com.c")).retainLatest(2).build();
+        CleanupRule versions = CleanupRuleBuilder.builder().name("versions").groups(List.of("com.a")).versions(List.of("1.*")).retainLatest(3).build();
+        CleanupRule otherVersions = CleanupRuleBuilder.builder().name("other-versions").groups(List.of("com.a")).versions(List.of("2.*")).retainLatest(3).build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(first, second, third, versions, otherVersions), NOW);
+
+        assertThat(result.rules()).extracting(CleanupRule::getName).containsExactly("first", "third", "versions", "other-versions");
+        assertThat(result.rules().get(0).getFilters().getGroups()).containsExactly("com.a", "com.b");
+        assertThat(result.rules().get(0).getFilters().getRetainLatest()).isEqualTo(3);
+    }
+
+    @Test
+    void analyze_withRetentionRuleBetween_shouldNotMerge() {
+        CleanupRule first = CleanupRuleBuilder.builder().name("first").groups(List.of("G1")).retainLatest(3).build();
+        CleanupRule foo = CleanupRuleBuilder.builder().name("foo").groups(List.of("G2")).names(List.of("foo")).retainLatest(5).build();
+        CleanupRule second = CleanupRuleBuilder.builder().name("second").groups(List.of("G2")).retainLatest(3).build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(first, foo, second), NOW);
+
+        // Merged into the first rule, G2:foo would keep 3 versions instead of the 5 of the earlier rule
+        assertThat(result.rules()).extracting(CleanupRule::getName).containsExactly("first", "foo", "second");
+        assertThat(result.eliminations()).isEmpty();
+    }
+
+    @Test
+    void analyze_withSizeFilters_shouldCoverOnlyNarrowerSizeRanges() {
+        CleanupRule giants = CleanupRuleBuilder.builder().name("giants").groups(List.of("com.a")).minSize("500MB").build();
+        CleanupRule huge = CleanupRuleBuilder.builder().name("huge").groups(List.of("com.a")).minSize("1GB").maxSize("5GB").build();
+        CleanupRule small = CleanupRuleBuilder.builder().name("small").groups(List.of("com.a")).maxSize("1MB").build();
+        CleanupRule otherGiants = CleanupRuleBuilder.builder().name("other-giants").groups(List.of("com.b")).minSize("500MB").build();
+
+        RuleSetAnalyzer.Result result = RuleSetAnalyzer.analyze(List.of(giants, huge, small, otherGiants), NOW);
+
+        assertThat(result.rules()).extracting(CleanupRule::getName).containsExactly("giants", "small");
+        assertThat(result.rules().get(0).getFilters().getGroups()).containsExactly("com.a", "com.b");
+        assertThat(result.rules().get(0).getFilters().getMinSize()).isEqualTo("500MB");
+        assertThat(result.eliminations()).contains(
+                new RuleSetAnalyzer.Elimination("huge", "redundant, covered by delete rule 'giants'"));
+    }
+
+    @Test
+    void patternCovers_shouldDecideCommonShapes() {
+        assertThat(RuleSetAnalyzer.patternCovers("*", "anything*")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("com.*", "com.example.?")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("com.*", "co*")).isFalse();
+        assertThat(RuleSetAnalyzer.patternCovers("*-SNAPSHOT", "1.*-SNAPSHOT")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("*-SNAPSHOT", "*SNAPSHOT")).isFalse();
+        assertThat(RuleSetAnalyzer.patternCovers("*snap*", "lib-*-snapshots-?")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("lib", "lib*")).isFalse();
+        assertThat(RuleSetAnalyzer.patternsCover(Set.of("*"), null)).isFalse();
+        assertThat(RuleSetAnalyzer.patternsCover(null, Set.of("lib"))).isTrue();
+        assertThat(RuleSetAnalyzer.patternsCover(Set.of("lib-*"), Set.of("lib-a", ""))).isTrue();
+    }
+
+    @Test
+    void patternCovers_withRegex_shouldOnlyTrustAnyOrIdentical() {
+        assertThat(RuleSetAnalyzer.patternCovers("*", "re:lib-\\d+")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("re:lib-\\d+", "re:lib-\\d+")).isTrue();
+        assertThat(RuleSetAnalyzer.patternCovers("re:.*", "lib-1")).isFalse();
+        assertThat(RuleSetAnalyzer.patternCovers("re*", "re:lib")).isFalse();
+        assertThat(RuleSetAnalyzer.patternCovers("lib*", "re:lib.*")).isFalse();
+    }
+}
@@ -0,0 +1,54 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class SizeFilterParserTest {
+
+    @Test
+    void parseSize_withNullOrEmptyString_shouldReturnNull() {
+        assertThat(SizeFilterParser.parseSize(null)).isNull();
+        assertThat(SizeFilterParser.parseSize("  ")).isNull();
+    }
+
+    @Test
+    void parseSize_withUnits_shouldUseMultiplesOf1024() {
+        assertThat(SizeFilterParser.parseSize("2048")).isEqualTo(2048L);
+        assertThat(SizeFilterParser.parseSize("10B")).isEqualTo(10L);
+        assertThat(SizeFilterParser.parseSize("100k")).isEqualTo(100L * 1024);
+        assertThat(SizeFilterParser.parseSize("500MB")).isEqualTo(500L * 1024 * 1024);
+        assertThat(SizeFilterParser.parseSize("1.5 GB")).isEqualTo(1536L * 1024 * 1024);
+        assertThat(SizeFilterParser.parseSize("2GiB")).isEqualTo(2L * 1024 * 1024 * 1024);
+        assertThat(SizeFilterParser.parseSize(" 1tb ")).isEqualTo(1024L * 1024 * 1024 * 1024);
+    }
+
+    @Test
+    void parseSize_withFractionOfByte_shouldRoundUp() {
+        assertThat(SizeFilterParser.parseSize("0.5KB")).isEqualTo(512L);
+        assertThat(SizeFilterParser.parseSize("1.0001KB")).isEqualTo(1025L);
+    }
+
+    @Test
+    void parseSize_withInvalidFormat_shouldThrowException() {
+        assertThatThrownBy(() -> SizeFilterParser.parseSize("-1MB"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid size format: '-1MB'");
+        assertThatThrownBy(() -> SizeFilterParser.parseSize("500 parsecs"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SizeFilterParser.parseSize("99999999999TB"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Size is too large");
+    }
+
+    @Test
+    void validateSizeRange_withMinLargerThanMax_shouldThrowException() {
+        SizeFilterParser.validateSizeRange(1L, 1L);
+        SizeFilterParser.validateSizeRange(null, 1L);
+
+        assertThatThrownBy(() -> SizeFilterParser.validateSizeRange(2L, 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot be larger than 'maxSize'");
+    }
+}
@@ -0,0 +1,99 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class VersionOrderingTest {
+
+    @Test
+    void schemeOf_shouldSelectSchemeByFormat() {
+        assertThat(VersionOrdering.schemeOf("maven2")).isEqualTo(VersionOrdering.Scheme.MAVEN);
+        assertThat(VersionOrdering.schemeOf("npm")).isEqualTo(VersionOrdering.Scheme.SEMVER);
+        assertThat(VersionOrdering.schemeOf("NuGet")).isEqualTo(VersionOrdering.Scheme.SEMVER);
+        assertThat(VersionOrdering.schemeOf("pypi")).isEqualTo(VersionOrdering.Scheme.PEP440);
+        assertThat(VersionOrdering.schemeOf("raw")).isEqualTo(VersionOrdering.Scheme.NATURAL);
+        assertThat(VersionOrdering.schemeOf(null)).isEqualTo(VersionOrdering.Scheme.NATURAL);
+        assertThat(VersionOrdering.forFormat("maven2")).isSameAs(VersionOrdering.forFormat("gradle"));
+    }
+
+    @Test
+    void compare_withMavenVersions_shouldOrderQualifiers() {
+        assertOrdered(VersionOrdering.Scheme.MAVEN,
+                "1.0-alpha", "1.0-alpha-2", "1.0-beta", "1.0-M1", "1.0-rc", "1.0-SNAPSHOT", "1.0", "1.0-sp", "1.0.1", "1.9", "1.10");
+        VersionOrdering ordering = new VersionOrdering(VersionOrdering.Scheme.MAVEN, 100);
+        assertThat(ordering.compare("1.0.0", "1.0")).isPositive();
+        assertThat(ordering.compare("1.0.0", "1.0-SNAPSHOT")).isPositive();
+        assertThat(ordering.compare("1.0.0", "1.0-sp")).isNegative();
+        assertThat(ordering.compare("1.0-final", "1.0.1")).isNegative();
+    }
+
+    @Test
+    void compare_withSemanticVersions_shouldFollowPrecedence() {
+        assertOrdered(VersionOrdering.Scheme.SEMVER,
+                "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2", "1.0.0-beta.11",
+                "1.0.0-rc.1", "1.0.0", "v1.0.1", "1.2.0", "1.10.0", "2.0.0");
+    }
+
+    @Test
+    void compare_withPythonVersions_shouldFollowPep440() {
+        assertOrdered(VersionOrdering.Scheme.PEP440,
+                "1.0.dev1", "1.0a1.dev1", "1.0a1", "1.0a1.post1", "1.0b2", "1.0rc1", "1.0", "1.0.post1.dev1", "1.0.post1", "1.1", "1!0.5");
+    }
+
+    @Test
+    void compare_withOtherVersions_shouldCompareNumbersNumerically() {
+        assertOrdered(VersionOrdering.Scheme.NATURAL, "", "1", "1.2", "1.10", "1.10a", "2", "10");
+    }
+
+    @Test
+    void key_whenBudgetExhausted_shouldParseWithoutCaching() {
+        VersionOrdering ordering = new VersionOrdering(VersionOrdering.Scheme.MAVEN, 2);
+
+        assertThat(ordering.key("1.0")).isSameAs(ordering.key("1.0"));
+        ordering.key("2.0");
+        ordering.key("3.0");
+
+        assertThat(ordering.getCachedVersions()).isEqualTo(2);
+        assertThat(ordering.key("3.0")).isNotSameAs(ordering.key("3.0"));
+        assertThat(ordering.compare("3.0", "2.0")).isPositive();
+    }
+
+    @Test
+    void sort_withManyVersions_shouldParseEachVersionOnce() {
+        Random random = new Random(42);
+        List<String> versions = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String version = random.nextInt(5) + "." + random.nextInt(30) + "." + random.nextInt(100);
+            versions.add(random.nextInt(4) == 0 ? version + "-rc" + random.nextInt(5) : version);
+        }
+        VersionOrdering ordering = new VersionOrdering(VersionOrdering.Scheme.MAVEN, VersionOrdering.MAX_CACHED_VERSIONS);
+        List<String> sorted = new ArrayList<>(versions);
+
+        sorted.sort(ordering);
+
+        // Comparisons reuse the key parsed for each distinct version
+        assertThat(ordering.getCachedVersions()).isEqualTo(new HashSet<>(versions).size());
+        assertThat(ordering.key(versions.get(0))).isSameAs(ordering.key(versions.get(0)));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertThat(ordering.compare(sorted.get(i - 1), sorted.get(i))).isLessThanOrEqualTo(0);
+        }
+    }
+
+    private static void assertOrdered(VersionOrdering.Scheme scheme, String... versions) {
+        VersionOrdering ordering = new VersionOrdering(scheme, 100);
+        List<String> expected = List.of(versions);
+        for (int seed = 0; seed < 5; seed++) {
+            List<String> shuffled = new ArrayList<>(expected);
+            Collections.shuffle(shuffled, new Random(seed));
+            shuffled.sort(ordering);
+            assertThat(shuffled).isEqualTo(expected);
+        }
+    }
+}
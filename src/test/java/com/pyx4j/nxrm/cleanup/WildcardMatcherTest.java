@@ -0,0 +1,104 @@
+package com.pyx4j.nxrm.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class WildcardMatcherTest {
+
+    @Test
+    void literalPattern_shouldMatchOnlyEqualValue() {
+        WildcardMatcher matcher = WildcardMatcher.compile("maven-releases");
+
+        assertThat(matcher.matches("maven-releases")).isTrue();
+        assertThat(matcher.matches("maven-releases-2")).isFalse();
+        assertThat(matcher.matches("maven")).isFalse();
+    }
+
+    @Test
+    void prefixSuffixAndContainsPatterns_shouldMatch() {
+        assertThat(WildcardMatcher.compile("maven-*").matches("maven-snapshots")).isTrue();
+        assertThat(WildcardMatcher.compile("maven-*").matches("npm-snapshots")).isFalse();
+        assertThat(WildcardMatcher.compile("*-SNAPSHOT").matches("1.0-SNAPSHOT")).isTrue();
+        assertThat(WildcardMatcher.compile("*-SNAPSHOT").matches("1.0")).isFalse();
+        assertThat(WildcardMatcher.compile("*snap*").matches("maven-snapshots")).isTrue();
+        assertThat(WildcardMatcher.compile("*snap*").matches("maven-releases")).isFalse();
+        assertThat(WildcardMatcher.compile("**").matches("")).isTrue();
+    }
+
+    @Test
+    void generalPattern_shouldMatchSegmentsInOrder() {
+        WildcardMatcher matcher = WildcardMatcher.compile("com.*.test*-?.?");
+
+        assertThat(matcher.matches("com.example.test-1.0")).isTrue();
+        assertThat(matcher.matches("com.example.testing-1.0")).isTrue();
+        assertThat(matcher.matches("com.example.test-10.0")).isFalse();
+        assertThat(matcher.matches("org.example.test-1.0")).isFalse();
+    }
+
+    @Test
+    void questionMark_shouldMatchExactlyOneCharacter() {
+        WildcardMatcher matcher = WildcardMatcher.compile("1.?");
+
+        assertThat(matcher.matches("1.0")).isTrue();
+        assertThat(matcher.matches("1.")).isFalse();
+        assertThat(matcher.matches("1.10")).isFalse();
+    }
+
+    @Test
+    void regexCharacters_shouldBeLiteral() {
+        assertThat(WildcardMatcher.compile("a.b").matches("axb")).isFalse();
+        assertThat(WildcardMatcher.compile("lib[1]+(x)").matches("lib[1]+(x)")).isTrue();
+        assertThat(WildcardMatcher.compile("$^|{}\\").matches("$^|{}\\")).isTrue();
+    }
+
+    @Test
+    void emptyPattern_shouldMatchOnlyEmptyValue() {
+        assertThat(WildcardMatcher.compile("").matches("")).isTrue();
+        assertThat(WildcardMatcher.compile("").matches("a")).isFalse();
+        assertThat(WildcardMatcher.compile(null).matches("a")).isFalse();
+    }
+
+    @Test
+    void randomPatterns_shouldMatchLikeRegexTranslation() {
+        Random random = new Random(42);
+        String patternAlphabet = "ab.*?";
+        String valueAlphabet = "ab.";
+        for (int i = 0; i < 20_000; i++) {
+            String pattern = randomString(random, patternAlphabet, 7);
+            String value = randomString(random, valueAlphabet, 9);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            boolean expected = Pattern.compile(toRegex(pattern), Pattern.DOTALL).matcher(value).matches();
+            assertThat(WildcardMatcher.compile(pattern).matches(value))
+                    .as("Pattern '%s' value '%s'", pattern, value)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -347,6 +347,114 @@ class CleanupRuleParserTest {
                 .hasMessageContaining("Invalid date format: 'invalid-downloaded'");
     }
 
+    @Test
+    void parseFromString_withRetainLatest_shouldParseCorrectly() throws IOException {
+        String yaml = """
+                rules:
+                  - name: "keep-latest-releases"
+                    filters:
+                      repositories:
+                        - "maven-releases"
+                      retainLatest: 5
+                """;
+
+        CleanupRuleSet ruleSet = parser.parseFromString(yaml);
+
+        assertThat(ruleSet.getRules().get(0).getFilters().getRetainLatest()).isEqualTo(5);
+    }
+
+    @Test
+    void parseFromString_withInvalidRetainLatest_shouldThrowException() {
+        String yaml = """
+                rules:
+                  - name: "retain-none"
+                    filters:
+                      retainLatest: 0
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid retainLatest filter in rule 'retain-none'");
+    }
+
+    @Test
+    void parseFromString_withRetainLatestOnKeepRule_shouldThrowException() {
+        String yaml = """
+                rules:
+                  - name: "keep-latest"
+                    action: keep
+                    filters:
+                      retainLatest: 3
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("retainLatest is only supported by delete rules");
+    }
+
+    @Test
+    void parseFromString_withSizeFilters_shouldParseCorrectly() throws IOException {
+        String yaml = """
+                rules:
+                  - name: "delete-giants"
+                    filters:
+                      minSize: "500MB"
+                      maxSize: "2 GB"
+                """;
+
+        CleanupRuleSet ruleSet = parser.parseFromString(yaml);
+
+        assertThat(ruleSet.getRules().get(0).getFilters().getMinSize()).isEqualTo("500MB");
+        assertThat(ruleSet.getRules().get(0).getFilters().getMaxSize()).isEqualTo("2 GB");
+    }
+
+    @Test
+    void parseFromString_withInvalidSize_shouldThrowException() {
+        String yaml = """
+                rules:
+                  - name: "invalid-size-rule"
+                    filters:
+                      minSize: "500 parsecs"
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid size filter in rule 'invalid-size-rule'");
+    }
+
+    @Test
+    void parseFromString_withMinSizeLargerThanMaxSize_shouldThrowException() {
+        String yaml = """
+                rules:
+                  - name: "empty-size-range"
+                    filters:
+                      minSize: "2GB"
+                      maxSize: "1GB"
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid size filter in rule 'empty-size-range'")
+                .hasMessageContaining("cannot be larger than 'maxSize'");
+    }
+
+    @Test
+    void parseFromString_withBackreferenceRegex_shouldThrowException() {
+        String yaml = """
+                rules:
+                  - name: "invalid-regex-rule"
+                    filters:
+                      versions:
+                        - "*-SNAPSHOT"
+                        - 're:(\\d)\\1'
+                """;
+
+        assertThatThrownBy(() -> parser.parseFromString(yaml))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid versions pattern in rule 'invalid-regex-rule'")
+                .hasMessageContaining("Backreferences are not supported");
+    }
+
     @Test
     void isNeverDownloaded_withNever_shouldReturnTrue() {
         assertThat(CleanupRuleParser.isNeverDownloaded("never")).isTrue();
@@ -3,6 +3,17 @@ package com.pyx4j.nxrm.cleanup.model;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -79,5 +90,97 @@ class GroupsSummaryTest {
         assertThatThrownBy(() -> groupStats.put("test", new GroupStats()))
                 .isInstanceOf(UnsupportedOperationException.class);
     }
-}
 
+    @Test
+    void addGroupStats_fromConcurrentThreads_shouldKeepExactTotals() throws Exception {
+        GroupsSummary summary = new GroupsSummary();
+        int threads = 8;
+        int updatesPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        // Few shared groups so that threads race on creating and updating the same statistics
+                        summary.addGroupStats("group-" + (i % 16), 1, 10, 2, 20);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long updates = (long) threads * updatesPerThread;
+        assertThat(summary.getGroupStats()).hasSize(16);
+        assertThat(summary.getTotalComponents()).isEqualTo(updates);
+        assertThat(summary.getTotalSizeBytes()).isEqualTo(updates * 10);
+        assertThat(summary.getTotalRemainingComponents()).isEqualTo(updates * 2);
+        assertThat(summary.getTotalRemainingSizeBytes()).isEqualTo(updates * 20);
+        assertThat(summary.getGroupStats().values().stream().mapToLong(GroupStats::getComponentCount).sum()).isEqualTo(updates);
+        assertThat(summary.getGroupStats().get("group-0").getRemainingSizeBytes()).isEqualTo(updates / 16 * 20);
+    }
+
+    @Test
+    void setApproximate_withManyGroups_shouldTrackHeavyGroupsInFixedMemory() {
+        GroupsSummary summary = new GroupsSummary();
+        summary.setApproximate(50, SortBy.COMPONENTS);
+        Random random = new Random(42);
+        Map<String, Long> exact = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < 200_000; i++) {
+            // A few heavy groups among many light ones
+            String group = random.nextInt(4) == 0 ? "heavy-" + random.nextInt(5) : "light-" + random.nextInt(50_000);
+            long removed = random.nextInt(3);
+            summary.addGroupStats(group, removed, removed * 100, 1, 10);
+            exact.merge(group, removed, Long::sum);
+            total += removed;
+        }
+
+        assertThat(summary.getGroupStats()).hasSizeLessThanOrEqualTo(50);
+        assertThat(summary.getTotalComponents()).isEqualTo(total);
+        assertThat(summary.getTotalRemainingComponents()).isEqualTo(200_000);
+        long bound = summary.getApproximateErrorBound();
+        assertThat(bound).isEqualTo(total / 50);
+        summary.getGroupStats().forEach((group, stats) -> {
+            long trueCount = exact.get(group);
+            assertThat(stats.getComponentCount()).as(group).isGreaterThanOrEqualTo(trueCount);
+            assertThat(stats.getComponentCount() - stats.getError()).as(group).isLessThanOrEqualTo(trueCount);
+            assertThat(stats.getError()).as(group).isLessThanOrEqualTo(bound);
+        });
+        exact.forEach((group, trueCount) -> {
+            if (trueCount > bound) {
+                assertThat(summary.getGroupStats()).as(group).containsKey(group);
+            }
+        });
+        for (int heavy = 0; heavy < 5; heavy++) {
+            assertThat(summary.getGroupStats()).containsKey("heavy-" + heavy);
+        }
+    }
+
+    @Test
+    void setApproximate_bySize_shouldRankByRemovedSize() {
+        GroupsSummary summary = new GroupsSummary();
+        summary.setApproximate(2, SortBy.SIZE);
+
+        summary.addGroupStats("org.many-small", 10, 10, 0, 0);
+        summary.addGroupStats("org.large", 1, 5000, 0, 0);
+        // Nothing removed, does not replace a tracked group
+        summary.addGroupStats("org.kept", 0, 0, 5, 500);
+        summary.addGroupStats("org.medium", 1, 100, 0, 0);
+
+        assertThat(summary.getGroupStats()).containsOnlyKeys("org.large", "org.medium");
+        assertThat(summary.getGroupStats().get("org.medium").getSizeBytes()).isEqualTo(110);
+        assertThat(summary.getGroupStats().get("org.medium").getError()).isEqualTo(10);
+        assertThat(summary.getTotalRemainingSizeBytes()).isEqualTo(500);
+        assertThatThrownBy(() -> summary.setApproximate(10, SortBy.SIZE))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
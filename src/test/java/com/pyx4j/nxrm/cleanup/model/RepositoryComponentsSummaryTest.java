@@ -0,0 +1,73 @@
+package com.pyx4j.nxrm.cleanup.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RepositoryComponentsSummaryTest {
+
+    @Test
+    void addRepositoryStats_shouldAccumulatePerRepositoryAndTotals() {
+        RepositoryComponentsSummary summary = new RepositoryComponentsSummary();
+
+        summary.addRepositoryStats("releases", "maven2", 10, 1000, 5, 500);
+        summary.addRepositoryStats("releases", "maven2", 1, 100, 0, 0);
+        summary.addRepositoryStats("npm-proxy", "npm", 2, 200, 3, 300);
+
+        assertThat(summary.getRepositoryStats()).containsOnlyKeys("releases", "npm-proxy");
+        assertThat(summary.getRepositoryStats().get("releases").getComponentCount()).isEqualTo(11);
+        assertThat(summary.getRepositoryStats().get("releases").getRemainingSizeBytes()).isEqualTo(500);
+        assertThat(summary.getTotalComponents()).isEqualTo(13);
+        assertThat(summary.getTotalSizeBytes()).isEqualTo(1300);
+        assertThat(summary.getTotalRemainingComponents()).isEqualTo(8);
+        assertThat(summary.getTotalRemainingSizeBytes()).isEqualTo(800);
+    }
+
+    @Test
+    void addRepositoryStats_fromConcurrentThreads_shouldKeepExactTotals() throws Exception {
+        RepositoryComponentsSummary summary = new RepositoryComponentsSummary();
+        int threads = 8;
+        int pagesPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < pagesPerThread; i++) {
+                        // Pages of the same repositories are accounted by different threads
+                        summary.addRepositoryStats("repo-" + ((i + thread) % 4), "maven2", 3, 300, 1, 100);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long pages = (long) threads * pagesPerThread;
+        assertThat(summary.getRepositoryStats()).hasSize(4);
+        assertThat(summary.getTotalComponents()).isEqualTo(pages * 3);
+        assertThat(summary.getTotalSizeBytes()).isEqualTo(pages * 300);
+        assertThat(summary.getTotalRemainingComponents()).isEqualTo(pages);
+        assertThat(summary.getTotalRemainingSizeBytes()).isEqualTo(pages * 100);
+        for (RepositoryStats stats : summary.getRepositoryStats().values()) {
+            assertThat(stats.getComponentCount()).isEqualTo(pages / 4 * 3);
+            assertThat(stats.getSizeBytes()).isEqualTo(pages / 4 * 300);
+        }
+    }
+}